@@ -0,0 +1,133 @@
+package recipeservice.cache;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Merges concurrent single-key loads into batches: keys requested within a short window are
+ * fetched by one call of the batch function.
+ *
+ * <p>There is no dispatcher thread. The caller that opens a batch leads it: it waits out the
+ * window, or less if the batch fills up, then closes the batch, runs the batch function on
+ * its own thread and hands every waiting caller its value. A key asked for twice in one batch
+ * is fetched once. Keys missing from the returned map load as null; if the function throws,
+ * every caller in the batch gets the exception.
+ */
+public class BatchLoader<K, V> {
+    private final Function<Set<K>, Map<K, V>> batchFunction;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Object lock = new Object();
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder keyCount = new LongAdder();
+    private Batch<K, V> open;
+
+    private static final class Batch<K, V> {
+        final Thread leader;
+        final Map<K, CompletableFuture<V>> calls = new LinkedHashMap<>();
+
+        Batch(Thread leader) {
+            this.leader = leader;
+        }
+    }
+
+    public BatchLoader(Function<Set<K>, Map<K, V>> batchFunction, long windowMicros,
+                       int maxBatchSize) {
+        if (windowMicros < 0) {
+            throw new IllegalArgumentException("windowMicros must not be negative: "
+                    + windowMicros);
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        this.batchFunction = batchFunction;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public V load(K key) {
+        Batch<K, V> batch;
+        CompletableFuture<V> call;
+        boolean leader = false;
+        synchronized (lock) {
+            if (open == null) {
+                open = new Batch<>(Thread.currentThread());
+                leader = true;
+            }
+            batch = open;
+            call = batch.calls.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (batch.calls.size() >= maxBatchSize) {
+                open = null;
+                if (!leader) {
+                    // Пакет заполнен: лидеру незачем ждать конца окна
+                    LockSupport.unpark(batch.leader);
+                }
+            }
+        }
+        if (leader) {
+            awaitWindow(batch);
+            dispatch(batch);
+        }
+        return await(call);
+    }
+
+    public long batchCount() {
+        return batchCount.sum();
+    }
+
+    public long keyCount() {
+        return keyCount.sum();
+    }
+
+    private void awaitWindow(Batch<K, V> batch) {
+        long deadline = System.nanoTime() + windowNanos;
+        while (true) {
+            synchronized (lock) {
+                if (open != batch) {
+                    return;
+                }
+                if (deadline - System.nanoTime() <= 0) {
+                    open = null;
+                    return;
+                }
+            }
+            LockSupport.parkNanos(this, deadline - System.nanoTime());
+        }
+    }
+
+    // Пакет уже закрыт, поэтому его вызовы больше никто не меняет
+    private void dispatch(Batch<K, V> batch) {
+        batchCount.increment();
+        keyCount.add(batch.calls.size());
+        try {
+            Map<K, V> values = batchFunction.apply(
+                    Collections.unmodifiableSet(batch.calls.keySet()));
+            batch.calls.forEach((key, call) -> call.complete(values.get(key)));
+        } catch (RuntimeException | Error e) {
+            batch.calls.values().forEach(call -> call.completeExceptionally(e));
+        }
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
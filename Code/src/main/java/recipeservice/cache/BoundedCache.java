@@ -0,0 +1,382 @@
+package recipeservice.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Weight-bounded concurrent cache with a segmented LRU policy.
+ *
+ * <p>Reads never block: the value is looked up in a {@link ConcurrentHashMap} and the access
+ * is recorded into a lossy, thread-striped buffer that is replayed against the policy the next
+ * time the eviction lock is held. Writes take the eviction lock, so eviction order stays exact.
+ * New entries land in the probation segment and are promoted to the protected segment on their
+ * first recorded re-access, which keeps one-off lookups from flushing the hot set.
+ */
+public class BoundedCache<K, V> {
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AccessQueue<K, V> probation = new AccessQueue<>();
+    private final AccessQueue<K, V> protectedQueue = new AccessQueue<>();
+    private final ReadBuffer<K, V>[] readBuffers;
+    private final int readBufferMask;
+
+    private final long maximumWeight;
+    private final long maximumProtectedWeight;
+    private final ToLongFunction<? super V> weigher;
+    private final RemovalListener<K, V> removalListener;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public BoundedCache(long maximumWeight, ToLongFunction<? super V> weigher) {
+        this(maximumWeight, weigher, (key, value, cause) -> { });
+    }
+
+    @SuppressWarnings("unchecked")
+    public BoundedCache(long maximumWeight,
+                        ToLongFunction<? super V> weigher,
+                        RemovalListener<K, V> removalListener) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("maximumWeight must be positive");
+        }
+        this.maximumWeight = maximumWeight;
+        this.maximumProtectedWeight = (long) (maximumWeight * PROTECTED_RATIO);
+        this.weigher = weigher;
+        this.removalListener = removalListener;
+
+        int stripes = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors());
+        this.readBuffers = new ReadBuffer[stripes];
+        for (int i = 0; i < stripes; i++) {
+            readBuffers[i] = new ReadBuffer<>();
+        }
+        this.readBufferMask = stripes - 1;
+    }
+
+    public V get(K key) {
+        if (key == null) {
+            missCount.increment();
+            return null;
+        }
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        afterRead(node);
+        return node.value;
+    }
+
+    public V peek(K key) {
+        Node<K, V> node = key != null ? data.get(key) : null;
+        return node != null ? node.value : null;
+    }
+
+    public void put(K key, V value) {
+        List<Node<K, V>> removed = new ArrayList<>();
+        evictionLock.lock();
+        try {
+            putLocked(key, value, removed);
+        } finally {
+            evictionLock.unlock();
+        }
+        notifyRemovals(removed);
+    }
+
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        List<Node<K, V>> removed = new ArrayList<>();
+        V newValue;
+        evictionLock.lock();
+        try {
+            Node<K, V> current = data.get(key);
+            newValue = remappingFunction.apply(key, current != null ? current.value : null);
+            if (newValue != null) {
+                putLocked(key, newValue, removed);
+            } else if (current != null) {
+                data.remove(key, current);
+                unlink(current);
+                removed.add(current.withCause(RemovalCause.EXPLICIT));
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        notifyRemovals(removed);
+        return newValue;
+    }
+
+    public V remove(K key) {
+        return removeIf(key, null, RemovalCause.EXPLICIT);
+    }
+
+    public boolean remove(K key, V expectedValue) {
+        return removeIf(key, expectedValue, RemovalCause.EXPLICIT) != null;
+    }
+
+    public boolean expire(K key, V expectedValue) {
+        return removeIf(key, expectedValue, RemovalCause.EXPIRED) != null;
+    }
+
+    public void invalidateAll() {
+        List<Node<K, V>> removed = new ArrayList<>();
+        evictionLock.lock();
+        try {
+            for (Node<K, V> node : data.values()) {
+                if (data.remove(node.key, node)) {
+                    unlink(node);
+                    removed.add(node.withCause(RemovalCause.EXPLICIT));
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        notifyRemovals(removed);
+    }
+
+    public long estimatedSize() {
+        return data.size();
+    }
+
+    public long weightedSize() {
+        evictionLock.lock();
+        try {
+            return probation.weight + protectedQueue.weight;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public long maximumWeight() {
+        return maximumWeight;
+    }
+
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    private V removeIf(K key, V expectedValue, RemovalCause cause) {
+        if (key == null) {
+            return null;
+        }
+        Node<K, V> node;
+        evictionLock.lock();
+        try {
+            node = data.get(key);
+            if (node == null || (expectedValue != null && node.value != expectedValue)) {
+                return null;
+            }
+            data.remove(key, node);
+            unlink(node);
+        } finally {
+            evictionLock.unlock();
+        }
+        removalListener.onRemoval(node.key, node.value, cause);
+        return node.value;
+    }
+
+    private void putLocked(K key, V value, List<Node<K, V>> removed) {
+        drainReadBuffers();
+
+        Node<K, V> node = new Node<>(key, value, Math.max(0, weigher.applyAsLong(value)));
+        Node<K, V> previous = data.put(key, node);
+        if (previous != null) {
+            unlink(previous);
+            removed.add(previous.withCause(RemovalCause.REPLACED));
+        }
+        if (node.weight > maximumWeight) {
+            data.remove(key, node);
+            evictionCount.increment();
+            removed.add(node.withCause(RemovalCause.EVICTED));
+            return;
+        }
+
+        node.queue = PROBATION;
+        probation.addLast(node);
+        evict(removed);
+    }
+
+    private void evict(List<Node<K, V>> removed) {
+        while (probation.weight + protectedQueue.weight > maximumWeight) {
+            Node<K, V> victim = probation.peekFirst();
+            if (victim == null) {
+                victim = protectedQueue.peekFirst();
+            }
+            if (victim == null) {
+                return;
+            }
+            data.remove(victim.key, victim);
+            unlink(victim);
+            evictionCount.increment();
+            removed.add(victim.withCause(RemovalCause.EVICTED));
+        }
+    }
+
+    private void afterRead(Node<K, V> node) {
+        ReadBuffer<K, V> buffer = readBuffers[stripeIndex()];
+        if (!buffer.offer(node) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffers() {
+        for (ReadBuffer<K, V> buffer : readBuffers) {
+            buffer.drain(this);
+        }
+    }
+
+    private void onAccess(Node<K, V> node) {
+        if (node.queue == PROBATION) {
+            probation.remove(node);
+            node.queue = PROTECTED;
+            protectedQueue.addLast(node);
+            while (protectedQueue.weight > maximumProtectedWeight) {
+                Node<K, V> demoted = protectedQueue.peekFirst();
+                protectedQueue.remove(demoted);
+                demoted.queue = PROBATION;
+                probation.addLast(demoted);
+            }
+        } else if (node.queue == PROTECTED) {
+            protectedQueue.moveToLast(node);
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.queue == PROBATION) {
+            probation.remove(node);
+        } else if (node.queue == PROTECTED) {
+            protectedQueue.remove(node);
+        }
+        node.queue = 0;
+    }
+
+    private void notifyRemovals(List<Node<K, V>> removed) {
+        for (Node<K, V> node : removed) {
+            removalListener.onRemoval(node.key, node.value, node.cause);
+        }
+    }
+
+    private int stripeIndex() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & readBufferMask;
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        int highest = Integer.highestOneBit(Math.max(1, value));
+        return highest == value ? highest : highest << 1;
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final long weight;
+        Node<K, V> prev;
+        Node<K, V> next;
+        int queue;
+        RemovalCause cause;
+
+        Node(K key, V value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+
+        Node<K, V> withCause(RemovalCause cause) {
+            this.cause = cause;
+            return this;
+        }
+    }
+
+    private static final class AccessQueue<K, V> {
+        private final Node<K, V> head = new Node<>(null, null, 0);
+        long weight;
+
+        AccessQueue() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        Node<K, V> peekFirst() {
+            return head.next == head ? null : head.next;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+            weight += node.weight;
+        }
+
+        void remove(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            remove(node);
+            addLast(node);
+        }
+    }
+
+    private static final class ReadBuffer<K, V> {
+        private static final int SIZE = 16;
+        private static final int MASK = SIZE - 1;
+
+        private final AtomicReferenceArray<Node<K, V>> slots = new AtomicReferenceArray<>(SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        boolean offer(Node<K, V> node) {
+            long tail = writeCounter.get();
+            if (tail - readCounter >= SIZE) {
+                return false;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                slots.lazySet((int) (tail & MASK), node);
+            }
+            return true;
+        }
+
+        void drain(BoundedCache<K, V> cache) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            for (; head < tail; head++) {
+                int index = (int) (head & MASK);
+                Node<K, V> node = slots.get(index);
+                if (node == null) {
+                    break;
+                }
+                slots.lazySet(index, null);
+                cache.onAccess(node);
+            }
+            readCounter = head;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package recipeservice.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Broadcasts invalidations to the other instances of the service.
+ *
+ * <p>Messages are {@code topic}/{@code value} pairs. Publishing only queues a message; a burst
+ * published within one batch window is deduplicated and sent as a single payload (split to
+ * fit the transport), prefixed with this instance's id so its own echoes are ignored. Values
+ * are escaped, so any string (including user-supplied cache keys) can be sent.
+ * Delivery is best effort, so receivers also get a reset signal whenever the transport may
+ * have dropped messages.
+ */
+public class InvalidationBus implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private static final char SEPARATOR = ' ';
+    private static final char LINE_END = '\n';
+
+    private final InvalidationTransport transport;
+    private final long batchWindowMs;
+    private final int maxBatchSize;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, Consumer<String>> handlers = new ConcurrentHashMap<>();
+    private final List<Runnable> resetHandlers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService flusher;
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder sentBatchCount = new LongAdder();
+    private final LongAdder receivedCount = new LongAdder();
+    private Set<String> pending = new LinkedHashSet<>();
+    private boolean flushScheduled;
+
+    public InvalidationBus(InvalidationTransport transport, long batchWindowMs, int maxBatchSize) {
+        this.transport = transport;
+        this.batchWindowMs = batchWindowMs;
+        this.maxBatchSize = maxBatchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-bus-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        transport.listen(this::receive, this::reset);
+    }
+
+    public void subscribe(String topic, Consumer<String> handler) {
+        if (handlers.putIfAbsent(topic, handler) != null) {
+            throw new IllegalStateException("Topic already has a handler: " + topic);
+        }
+    }
+
+    public void onReset(Runnable handler) {
+        resetHandlers.add(handler);
+    }
+
+    public void publish(String topic, String value) {
+        if (topic.indexOf(SEPARATOR) >= 0 || topic.indexOf(LINE_END) >= 0) {
+            throw new IllegalArgumentException("Invalid topic: " + topic);
+        }
+        String message = topic + SEPARATOR + escape(value);
+        boolean flushNow;
+        synchronized (this) {
+            publishedCount.increment();
+            if (!pending.add(message)) {
+                coalescedCount.increment();
+                return;
+            }
+            flushNow = pending.size() >= maxBatchSize;
+            if (!flushNow && !flushScheduled) {
+                flushScheduled = true;
+                flusher.schedule(this::flush, batchWindowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (flushNow) {
+            flush();
+        }
+    }
+
+    public void flush() {
+        Set<String> batch;
+        synchronized (this) {
+            flushScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashSet<>();
+        }
+        for (String payload : encode(batch)) {
+            transport.send(payload);
+            sentBatchCount.increment();
+        }
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    public long getSentBatchCount() {
+        return sentBatchCount.sum();
+    }
+
+    public long getReceivedCount() {
+        return receivedCount.sum();
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        flush();
+        transport.close();
+    }
+
+    private List<String> encode(Set<String> messages) {
+        int limit = transport.maxPayloadLength();
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(instanceId);
+        for (String message : messages) {
+            if (payload.length() > instanceId.length()
+                    && payload.length() + 1 + message.length() > limit) {
+                payloads.add(payload.toString());
+                payload = new StringBuilder(instanceId);
+            }
+            payload.append(LINE_END).append(message);
+        }
+        payloads.add(payload.toString());
+        return payloads;
+    }
+
+    private void receive(String payload) {
+        String[] lines = payload.split(String.valueOf(LINE_END));
+        if (lines.length == 0 || instanceId.equals(lines[0])) {
+            return;
+        }
+        for (int i = 1; i < lines.length; i++) {
+            int separator = lines[i].indexOf(SEPARATOR);
+            if (separator < 0) {
+                continue;
+            }
+            Consumer<String> handler = handlers.get(lines[i].substring(0, separator));
+            if (handler == null) {
+                continue;
+            }
+            receivedCount.increment();
+            try {
+                handler.accept(unescape(lines[i].substring(separator + 1)));
+            } catch (RuntimeException e) {
+                logger.warn("Не удалось применить инвалидацию: {}", lines[i], e);
+            }
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                result.append(next == 'n' ? LINE_END : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private void reset() {
+        logger.info("Возможна потеря инвалидаций, сбрасываем локальные кеши");
+        for (Runnable handler : resetHandlers) {
+            handler.run();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package recipeservice.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidation batches between service instances. Delivery is best effort; a
+ * transport that may have lost messages (e.g. after reconnecting) reports it through the
+ * {@code gap} callback so receivers can fall back to dropping everything.
+ */
+public interface InvalidationTransport extends AutoCloseable {
+
+    void send(String payload);
+
+    void listen(Consumer<String> receiver, Runnable gap);
+
+    default int maxPayloadLength() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,25 @@
+package recipeservice.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process transport: every payload is handed synchronously to all listeners of the same
+ * instance. Used by single-node deployments and to wire several caches together in tests.
+ */
+public class LoopbackTransport implements InvalidationTransport {
+    private final List<Consumer<String>> receivers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(String payload) {
+        for (Consumer<String> receiver : receivers) {
+            receiver.accept(payload);
+        }
+    }
+
+    @Override
+    public void listen(Consumer<String> receiver, Runnable gap) {
+        receivers.add(receiver);
+    }
+}
@@ -0,0 +1,128 @@
+package recipeservice.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Transport over Postgres LISTEN/NOTIFY, so replicas sharing the database need no extra
+ * infrastructure. One pooled connection is held by the listener thread; sends borrow a
+ * connection per batch.
+ *
+ * <p>A payload NOTIFY cannot carry is replaced by a reset notification, which receivers
+ * report through the {@code gap} callback, so they drop their caches instead of missing
+ * the invalidations.
+ */
+public class PostgresNotifyTransport implements InvalidationTransport {
+    private static final Logger logger = LoggerFactory.getLogger(PostgresNotifyTransport.class);
+
+    // NOTIFY принимает до 8000 байт, оставляем запас под многобайтовые символы
+    private static final int MAX_PAYLOAD_LENGTH = 2000;
+    private static final int MAX_PAYLOAD_BYTES = 7999;
+    // Пакеты шины начинаются с идентификатора экземпляра, поэтому с этой строкой не совпадут
+    static final String RESET_PAYLOAD = "reset";
+    private static final int POLL_TIMEOUT_MS = 1000;
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    private final DataSource dataSource;
+    private final String channel;
+    private volatile boolean running = true;
+    private Thread listener;
+
+    public PostgresNotifyTransport(DataSource dataSource, String channel) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid notification channel: " + channel);
+        }
+        this.dataSource = dataSource;
+        this.channel = channel;
+    }
+
+    @Override
+    public void send(String payload) {
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            logger.warn("Инвалидация длиной {} символов не помещается в NOTIFY, "
+                    + "канал {} получит сброс", payload.length(), channel);
+            payload = RESET_PAYLOAD;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            statement.setString(1, channel);
+            statement.setString(2, payload);
+            statement.execute();
+        } catch (SQLException e) {
+            logger.warn("Не удалось отправить инвалидацию кеша в канал {}", channel, e);
+        }
+    }
+
+    @Override
+    public synchronized void listen(Consumer<String> receiver, Runnable gap) {
+        if (listener != null) {
+            throw new IllegalStateException("Listener already started");
+        }
+        listener = new Thread(() -> listenLoop(receiver, gap), "cache-bus-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public int maxPayloadLength() {
+        return MAX_PAYLOAD_LENGTH;
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void listenLoop(Consumer<String> receiver, Runnable gap) {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (connectedBefore) {
+                    // Пока соединения не было, уведомления могли потеряться
+                    gap.run();
+                }
+                connectedBefore = true;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        if (RESET_PAYLOAD.equals(notification.getParameter())) {
+                            gap.run();
+                        } else {
+                            receiver.accept(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Соединение для канала {} потеряно, переподключение", channel, e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
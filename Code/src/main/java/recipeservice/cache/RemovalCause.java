@@ -0,0 +1,8 @@
+package recipeservice.cache;
+
+public enum RemovalCause {
+    EXPLICIT,
+    REPLACED,
+    EVICTED,
+    EXPIRED
+}
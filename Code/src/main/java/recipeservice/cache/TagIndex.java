@@ -0,0 +1,53 @@
+package recipeservice.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse index from invalidation tags to the cache entries carrying them. Entries are tracked
+ * by identity, so replacing a key with a new entry never untags its successor, even when the
+ * two are equal. The per-tag sets are not thread-safe and are only touched inside the map's
+ * compute methods, which hold the lock of the tag's bin.
+ */
+public class TagIndex<E> {
+    private final ConcurrentHashMap<String, Set<E>> index = new ConcurrentHashMap<>();
+
+    public void add(E entry, Collection<String> tags) {
+        for (String tag : tags) {
+            index.compute(tag, (t, entries) -> {
+                Set<E> result = entries != null ? entries : newIdentitySet();
+                result.add(entry);
+                return result;
+            });
+        }
+    }
+
+    public void remove(E entry, Collection<String> tags) {
+        for (String tag : tags) {
+            index.computeIfPresent(tag, (t, entries) -> {
+                entries.remove(entry);
+                return entries.isEmpty() ? null : entries;
+            });
+        }
+    }
+
+    public Set<E> entries(String tag) {
+        Set<E> copy = newIdentitySet();
+        index.computeIfPresent(tag, (t, entries) -> {
+            copy.addAll(entries);
+            return entries;
+        });
+        return Collections.unmodifiableSet(copy);
+    }
+
+    public int tagCount() {
+        return index.size();
+    }
+
+    private static <E> Set<E> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+}
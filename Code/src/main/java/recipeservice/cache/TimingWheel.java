@@ -0,0 +1,156 @@
+package recipeservice.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel for expiring cache entries without scanning the cache.
+ *
+ * <p>Four levels of 64 slots each; level {@code n} slots span {@code 64^n} ticks. A timer is
+ * placed on the lowest level whose range covers its deadline and is cascaded one level down
+ * when the wheel below wraps around to it, so scheduling, cancelling and each tick are O(1)
+ * apart from the timers that actually fire or move. Deadlines past the top level are parked
+ * in its furthest slot and re-placed on cascade.
+ */
+public class TimingWheel<T> {
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (WHEEL_BITS * LEVELS);
+
+    private final long tickMs;
+    private final long originMs;
+    private final Bucket<T>[][] wheels;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, long originMs) {
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("tickMs must be positive");
+        }
+        this.tickMs = tickMs;
+        this.originMs = originMs;
+        this.wheels = new Bucket[LEVELS][WHEEL_SIZE];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                wheels[level][slot] = new Bucket<>();
+            }
+        }
+    }
+
+    public synchronized Timer<T> schedule(T payload, long deadlineMs) {
+        long deadlineTick = Math.floorDiv(deadlineMs - originMs + tickMs - 1, tickMs);
+        Timer<T> timer = new Timer<>(payload, Math.max(deadlineTick, currentTick + 1));
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    public synchronized boolean cancel(Timer<T> timer) {
+        if (timer == null || timer.bucket == null) {
+            return false;
+        }
+        timer.bucket.remove(timer);
+        size--;
+        return true;
+    }
+
+    public synchronized List<T> advance(long nowMs) {
+        long targetTick = Math.floorDiv(nowMs - originMs, tickMs);
+        List<T> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            Bucket<T> due = wheels[0][(int) (currentTick & WHEEL_MASK)];
+            for (Timer<T> timer = due.pollFirst(); timer != null; timer = due.pollFirst()) {
+                size--;
+                expired.add(timer.payload);
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = WHEEL_BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                return;
+            }
+            Bucket<T> bucket = wheels[level][(int) ((currentTick >>> shift) & WHEEL_MASK)];
+            for (Timer<T> timer = bucket.pollFirst(); timer != null; timer = bucket.pollFirst()) {
+                place(timer);
+            }
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long slotTick = Math.min(timer.deadlineTick, currentTick + MAX_SPAN - 1);
+        long delta = slotTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((slotTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        wheels[level][slot].addLast(timer);
+    }
+
+    public static final class Timer<T> {
+        private final T payload;
+        private final long deadlineTick;
+        private Timer<T> prev;
+        private Timer<T> next;
+        private Bucket<T> bucket;
+
+        private Timer(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private static final class Bucket<T> {
+        private Timer<T> head;
+        private Timer<T> tail;
+
+        void addLast(Timer<T> timer) {
+            timer.bucket = this;
+            timer.prev = tail;
+            timer.next = null;
+            if (tail == null) {
+                head = timer;
+            } else {
+                tail.next = timer;
+            }
+            tail = timer;
+        }
+
+        void remove(Timer<T> timer) {
+            if (timer.prev == null) {
+                head = timer.next;
+            } else {
+                timer.prev.next = timer.next;
+            }
+            if (timer.next == null) {
+                tail = timer.prev;
+            } else {
+                timer.next.prev = timer.prev;
+            }
+            timer.prev = null;
+            timer.next = null;
+            timer.bucket = null;
+        }
+
+        Timer<T> pollFirst() {
+            Timer<T> first = head;
+            if (first != null) {
+                remove(first);
+            }
+            return first;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package recipeservice.config;
+
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import recipeservice.cache.InvalidationBus;
+import recipeservice.cache.InvalidationTransport;
+import recipeservice.cache.LoopbackTransport;
+import recipeservice.cache.PostgresNotifyTransport;
+import recipeservice.service.CacheService;
+import recipeservice.service.CuisineDictionary;
+import recipeservice.service.EntityCacheService;
+import recipeservice.service.PantryService;
+import recipeservice.service.RatingService;
+import recipeservice.service.SearchService;
+import recipeservice.service.VersionService;
+
+@Configuration
+public class CacheBusConfig {
+
+    @Bean
+    public InvalidationTransport invalidationTransport(
+            @Value("${recipe.cache.bus.transport:local}") String transport,
+            @Value("${recipe.cache.bus.channel:recipe_cache_invalidation}") String channel,
+            DataSource dataSource) {
+        return switch (transport) {
+            case "local" -> new LoopbackTransport();
+            case "postgres" -> new PostgresNotifyTransport(dataSource, channel);
+            default -> throw new IllegalArgumentException(
+                    "Unknown recipe.cache.bus.transport: " + transport);
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    public InvalidationBus invalidationBus(
+            InvalidationTransport transport,
+            @Value("${recipe.cache.bus.batch-window-ms:20}") long batchWindowMs,
+            @Value("${recipe.cache.bus.max-batch-size:256}") int maxBatchSize,
+            CacheService cacheService,
+            VersionService versionService,
+            RatingService ratingService,
+            SearchService searchService,
+            PantryService pantryService,
+            EntityCacheService entityCacheService,
+            CuisineDictionary cuisineDictionary) {
+        InvalidationBus bus = new InvalidationBus(transport, batchWindowMs, maxBatchSize);
+        cacheService.bindTo(bus);
+        versionService.bindTo(bus);
+        ratingService.bindTo(bus);
+        searchService.bindTo(bus);
+        pantryService.bindTo(bus);
+        entityCacheService.bindTo(bus);
+        cuisineDictionary.bindTo(bus);
+        return bus;
+    }
+}
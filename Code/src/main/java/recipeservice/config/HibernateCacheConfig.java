@@ -0,0 +1,71 @@
+package recipeservice.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import recipeservice.model.Cuisine;
+import recipeservice.model.Ingredient;
+import recipeservice.model.Recipe;
+
+/**
+ * In-process Hibernate second-level cache for the reference data: {@link Cuisine},
+ * {@link Ingredient}, the {@code Recipe.ingredients} collection and the results of the
+ * cacheable list queries.
+ *
+ * <p>Regions are bounded Caffeine caches created here, so that Hibernate fails at startup
+ * instead of silently creating an unbounded one for a region nobody configured. Entries also
+ * expire after a while: writes by other instances are evicted over the invalidation bus, and
+ * the expiry bounds how long a read racing such an eviction can keep a stale copy. The update
+ * timestamps region is neither bounded nor expiring, since a lost timestamp would let the
+ * query cache return results older than the last write to their tables.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${recipe.hibernate-cache.entity-max-entries:10000}") long entityMaxEntries,
+            @Value("${recipe.hibernate-cache.collection-max-entries:50000}")
+            long collectionMaxEntries,
+            @Value("${recipe.hibernate-cache.query-max-entries:100}") long queryMaxEntries,
+            @Value("${recipe.hibernate-cache.expire-after-ms:600000}") long expireAfterMs) {
+        CachingProvider provider = Caching.getCachingProvider(
+                CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                provider.getDefaultURI(), HibernateCacheConfig.class.getClassLoader());
+        cacheManager.createCache(Cuisine.CACHE_REGION, bounded(entityMaxEntries, expireAfterMs));
+        cacheManager.createCache(Ingredient.CACHE_REGION,
+                bounded(entityMaxEntries, expireAfterMs));
+        cacheManager.createCache(Recipe.INGREDIENTS_CACHE_REGION,
+                bounded(collectionMaxEntries, expireAfterMs));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                bounded(queryMaxEntries, expireAfterMs));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager cacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maxEntries,
+                                                                 long expireAfterMs) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(
+                OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(expireAfterMs)));
+        return configuration;
+    }
+}
@@ -0,0 +1,73 @@
+package recipeservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import recipeservice.datasource.ReadYourWritesFilter;
+import recipeservice.datasource.ReplicaHealthMonitor;
+import recipeservice.datasource.ReplicaRoutingDataSource;
+
+/**
+ * Replaces the single datasource with primary and replica pools when
+ * {@code recipe.datasource.replicas} lists replica URLs; without it Spring Boot's own
+ * datasource is used as before.
+ */
+@Configuration
+@ConditionalOnProperty("recipe.datasource.replicas")
+public class ReplicaDataSourceConfig {
+    // Недоступная реплика не должна надолго задерживать чтение перед переходом на первичную
+    private static final long REPLICA_CONNECTION_TIMEOUT_MS = 1000;
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties properties,
+            @Value("${recipe.datasource.replicas}") List<String> replicaUrls,
+            @Value("${recipe.datasource.replica.username:${spring.datasource.username:}}")
+            String replicaUsername,
+            @Value("${recipe.datasource.replica.password:${spring.datasource.password:}}")
+            String replicaPassword,
+            @Value("${recipe.datasource.replica.max-lag-ms:1000}") long maxLagMs,
+            @Value("${recipe.datasource.replica.check-interval-ms:500}") long checkIntervalMs) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .username(replicaUsername)
+                    .password(replicaPassword)
+                    .build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(REPLICA_CONNECTION_TIMEOUT_MS);
+            replicas.add(replica);
+        }
+        ReplicaHealthMonitor monitor =
+                new ReplicaHealthMonitor(replicas, maxLagMs, checkIntervalMs);
+        return new ReplicaRoutingDataSource(primary, replicas, monitor);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${recipe.datasource.read-your-writes-ms:5000}") long windowMs) {
+        return new ReadYourWritesFilter(windowMs);
+    }
+}
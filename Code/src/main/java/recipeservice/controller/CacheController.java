@@ -0,0 +1,47 @@
+package recipeservice.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.util.List;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import recipeservice.dto.CacheStatsDto;
+import recipeservice.dto.EntityCacheRegionStatsDto;
+import recipeservice.service.CacheService;
+import recipeservice.service.EntityCacheService;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final CacheService cacheService;
+    private final EntityCacheService entityCacheService;
+
+    public CacheController(CacheService cacheService, EntityCacheService entityCacheService) {
+        this.cacheService = cacheService;
+        this.entityCacheService = entityCacheService;
+    }
+
+    @Operation(summary = "Получить статистику кеша",
+            description = "Возвращает счетчики попаданий, промахов, вытеснений и загрузок кеша.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Статистика успешно получена")
+    })
+    @GetMapping("/stats")
+    public CacheStatsDto getStats() {
+        return cacheService.getStats();
+    }
+
+    @Operation(summary = "Получить статистику кеша второго уровня Hibernate",
+            description = "Возвращает попадания, промахи и записи по регионам кеша кухонь, "
+                    + "ингредиентов, состава рецептов и результатов запросов.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Статистика успешно получена")
+    })
+    @GetMapping("/entities")
+    public List<EntityCacheRegionStatsDto> getEntityCacheStats() {
+        return entityCacheService.getStats();
+    }
+}
@@ -14,10 +14,12 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import recipeservice.dto.CuisineDto;
 import recipeservice.exception.CustomException;
 import recipeservice.log.VisitCounter;
 import recipeservice.service.CuisineService;
+import recipeservice.service.VersionService;
 
 @RestController
 @RequestMapping("/api/cuisines")
@@ -25,33 +27,47 @@ public class CuisineController {
 
     private final CuisineService cuisineService;
     private final VisitCounter visitCounter;
+    private final VersionService versionService;
 
-    public CuisineController(CuisineService cuisineService, VisitCounter visitCounter) {
+    public CuisineController(CuisineService cuisineService, VisitCounter visitCounter,
+                             VersionService versionService) {
         this.cuisineService = cuisineService;
         this.visitCounter = visitCounter;
+        this.versionService = versionService;
     }
 
     @Operation(summary = "Получить все кухни",
             description = "Возвращает список всех доступных кухонь.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Успешно возвращен список кухонь"),
+        @ApiResponse(responseCode = "304", description = "Список кухонь не изменился"),
     })
     @GetMapping
-    public List<CuisineDto> getAllCuisines() {
+    public ResponseEntity<List<CuisineDto>> getAllCuisines(WebRequest request) {
         visitCounter.incrementVisit("/api/cuisines");
-        return cuisineService.getAllCuisines();
+        String etag = versionService.cuisinesETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(cuisineService.getAllCuisines());
     }
 
     @Operation(summary = "Получить кухню по ID", description = "Возвращает кухню по указанному ID.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Успешно возвращена кухня"),
+        @ApiResponse(responseCode = "304", description = "Кухня не изменилась"),
         @ApiResponse(responseCode = "404", description = "Кухня не найдена")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<CuisineDto> getCuisineById(@PathVariable Long id) {
+    public ResponseEntity<CuisineDto> getCuisineById(@PathVariable Long id, WebRequest request) {
         visitCounter.incrementVisit("/api/cuisines/" + id);
+        String etag = versionService.cuisineETag(id);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         CuisineDto cuisine = cuisineService.getCuisineById(id);
-        return cuisine != null ? ResponseEntity.ok(cuisine) : ResponseEntity.notFound().build();
+        return cuisine != null
+                ? ResponseEntity.ok().eTag(etag).body(cuisine) : ResponseEntity.notFound().build();
     }
 
     @Operation(summary = "Создать новую кухню",
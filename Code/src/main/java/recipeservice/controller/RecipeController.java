@@ -1,58 +1,247 @@
 package recipeservice.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import recipeservice.dto.BulkItemResultDto;
+import recipeservice.dto.PageDto;
+import recipeservice.dto.PantryMatchDto;
+import recipeservice.dto.RatingSummaryDto;
 import recipeservice.dto.RecipeDto;
+import recipeservice.dto.RecipeFields;
+import recipeservice.dto.RecipePatchDto;
+import recipeservice.dto.SearchHitDto;
 import recipeservice.exception.CustomException;
 import recipeservice.log.VisitCounter;
+import recipeservice.service.EncodedResponse;
+import recipeservice.service.PantryService;
+import recipeservice.service.RecipeImportService;
 import recipeservice.service.RecipeService;
+import recipeservice.service.SearchService;
+import recipeservice.service.VersionService;
 
 @RestController
 @RequestMapping("/api/recipes")
 public class RecipeController {
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String FIELDS_DESCRIPTION = "Параметр fields задает возвращаемые "
+            + "поля рецепта (id возвращается всегда), параметр include - связи ingredients и "
+            + "reviews; невыбранные данные не читаются из базы.";
+
     private final RecipeService recipeService;
+    private final RecipeImportService recipeImportService;
+    private final SearchService searchService;
+    private final PantryService pantryService;
     private final VisitCounter visitCounter;
+    private final VersionService versionService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter recipeWriter;
 
-    public RecipeController(RecipeService recipeService, VisitCounter visitCounter) {
+    public RecipeController(RecipeService recipeService, RecipeImportService recipeImportService,
+                            SearchService searchService, PantryService pantryService,
+                            VisitCounter visitCounter, VersionService versionService,
+                            ObjectMapper objectMapper) {
         this.recipeService = recipeService;
+        this.recipeImportService = recipeImportService;
+        this.searchService = searchService;
+        this.pantryService = pantryService;
         this.visitCounter = visitCounter;
+        this.versionService = versionService;
+        this.objectMapper = objectMapper;
+        // Поток ответа закрывает контейнер, а сбрасывает его буфер по мере заполнения
+        this.recipeWriter = objectMapper.writerFor(RecipeDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @Operation(summary = "Получить все рецепты",
-            description = "Возвращает список всех рецептов в системе.")
+            description = "Возвращает список всех рецептов в системе. С параметрами after или "
+                    + "limit возвращает страницу рецептов и курсор следующей страницы, с "
+                    + "параметром ids - рецепты с этими id в заданном порядке, без "
+                    + "несуществующих. " + FIELDS_DESCRIPTION)
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Успешно получены все рецепты"),
+        @ApiResponse(responseCode = "304", description = "Рецепты не изменились"),
+        @ApiResponse(responseCode = "400", description = "Некорректный курсор, размер "
+                + "страницы, список id или список полей"),
         @ApiResponse(responseCode = "500", description = "Ошибка сервера")
     })
     @GetMapping
-    public List<RecipeDto> getAllRecipes() {
+    public ResponseEntity<?> getAllRecipes(@RequestParam(required = false) String after,
+                                           @RequestParam(required = false) Integer limit,
+                                           @RequestParam(required = false) List<Long> ids,
+                                           @RequestParam(required = false) String fields,
+                                           @RequestParam(required = false) String include,
+                                           WebRequest request) {
         visitCounter.incrementVisit("/api/recipes");
-        return recipeService.getAllRecipes();
+        RecipeFields selection = RecipeFields.parse(fields, include);
+        // Версия берется до чтения данных: гонка с записью даст лишний 200, но не устаревший 304
+        String etag = versionService.recipesETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        if (ids != null) {
+            return ResponseEntity.ok().eTag(etag)
+                    .body(select(recipeService.getRecipesByIds(ids, selection), selection));
+        }
+        if (after == null && limit == null) {
+            // Без параметров ответ остается простым списком, как его ждет фронтенд
+            return ResponseEntity.ok().eTag(etag)
+                    .body(select(recipeService.getAllRecipes(selection), selection));
+        }
+        PageDto<RecipeDto> page = recipeService.getRecipesPage(after, limit, selection);
+        if (selection.isAll()) {
+            return ResponseEntity.ok().eTag(etag).body(page);
+        }
+        return ResponseEntity.ok().eTag(etag)
+                .body(new PageDto<>(select(page.getItems(), selection), page.getNextCursor()));
+    }
+
+    @Operation(summary = "Выгрузить все рецепты потоком",
+            description = "Возвращает все рецепты в формате NDJSON: по одному JSON-объекту "
+                    + "на строку, без загрузки всего каталога в память.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Рецепты выгружаются"),
+        @ApiResponse(responseCode = "500", description = "Ошибка сервера")
+    })
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public void streamRecipes(HttpServletResponse response) throws IOException {
+        visitCounter.incrementVisit("/api/recipes/stream");
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+        recipeService.streamAllRecipes(recipe -> {
+            try {
+                recipeWriter.writeValue(out, recipe);
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
+    @Operation(summary = "Искать рецепты",
+            description = "Полнотекстовый поиск по названию, описанию и ингредиентам рецептов "
+                    + "на русском и английском. Результаты упорядочены по релевантности.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Страница результатов поиска"),
+        @ApiResponse(responseCode = "400", description = "Пустой запрос, некорректный курсор или "
+                + "размер страницы")
+    })
+    @GetMapping("/search")
+    public PageDto<SearchHitDto> searchRecipes(@RequestParam("q") String query,
+                                               @RequestParam(required = false) String after,
+                                               @RequestParam(required = false) Integer limit) {
+        visitCounter.incrementVisit("/api/recipes/search");
+        return searchService.search(query, after, limit);
+    }
+
+    @Operation(summary = "Подобрать рецепты по имеющимся ингредиентам",
+            description = "Возвращает рецепты, в которых есть хотя бы один из указанных "
+                    + "ингредиентов, упорядоченные по числу недостающих ингредиентов. "
+                    + "Параметр maxMissing ограничивает это число.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Страница подходящих рецептов"),
+        @ApiResponse(responseCode = "400", description = "Пустой или слишком длинный список "
+                + "ингредиентов, некорректный maxMissing, курсор или размер страницы")
+    })
+    @GetMapping("/pantry")
+    public PageDto<PantryMatchDto> findCookableRecipes(
+            @RequestParam("ingredients") List<Long> ingredientIds,
+            @RequestParam(required = false) Integer maxMissing,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        visitCounter.incrementVisit("/api/recipes/pantry");
+        return pantryService.findCookable(ingredientIds, maxMissing, after, limit);
     }
 
     @Operation(summary = "Получить рецепт по ID",
-            description = "Возвращает рецепт с указанным ID.")
+            description = "Возвращает рецепт с указанным ID. " + FIELDS_DESCRIPTION)
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Рецепт найден"),
+        @ApiResponse(responseCode = "304", description = "Рецепт не изменился"),
+        @ApiResponse(responseCode = "400", description = "Некорректный список полей"),
         @ApiResponse(responseCode = "404", description = "Рецепт не найден")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<RecipeDto> getRecipeById(@PathVariable Long id) {
+    public ResponseEntity<?> getRecipeById(@PathVariable Long id,
+                                           @RequestParam(required = false) String fields,
+                                           @RequestParam(required = false) String include,
+                                           WebRequest request) {
         visitCounter.incrementVisit("/api/recipes/" + id);
-        RecipeDto recipe = recipeService.getRecipeById(id);
-        return recipe != null ? ResponseEntity.ok(recipe) : ResponseEntity.notFound().build();
+        RecipeFields selection = RecipeFields.parse(fields, include);
+        String etag = versionService.recipeETag(id);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            // 304 решается до чтения рецепта: версия строки берется из кеша или одним
+            // запросом по ключу, сам рецепт читается, только если ETag не совпал
+            Long rowVersion = recipeService.getRecipeVersion(id);
+            if (rowVersion == null) {
+                return ResponseEntity.notFound().build();
+            }
+            if (request.checkNotModified(VersionService.withRowVersion(etag, rowVersion))) {
+                return null;
+            }
+        }
+        RecipeDto recipe = recipeService.getRecipeById(id, selection);
+        if (recipe == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().eTag(VersionService.withRowVersion(etag, recipe.getVersion()))
+                .body(selection.isAll() ? recipe : select(recipe, selection));
+    }
+
+    @Operation(summary = "Получить сводку оценок рецепта",
+            description = "Возвращает число отзывов, сумму и среднее оценок и распределение "
+                    + "оценок от 1 до 5 без чтения самих отзывов.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Сводка оценок получена"),
+        @ApiResponse(responseCode = "304", description = "Оценки не изменились"),
+        @ApiResponse(responseCode = "404", description = "Рецепт не найден")
+    })
+    @GetMapping("/{id}/rating")
+    public ResponseEntity<RatingSummaryDto> getRecipeRating(@PathVariable Long id,
+                                                            WebRequest request) {
+        visitCounter.incrementVisit("/api/recipes/" + id + "/rating");
+        // Изменение отзыва меняет версию рецепта, поэтому ETag общий с рецептом
+        String etag = versionService.recipeETag(id);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        RatingSummaryDto rating = recipeService.getRatingSummary(id);
+        if (rating == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(rating);
     }
 
     @Operation(summary = "Создать новый рецепт",
@@ -94,6 +283,40 @@ public class RecipeController {
                 ? ResponseEntity.ok(updatedRecipe) : ResponseEntity.notFound().build();
     }
 
+    @Operation(summary = "Частично обновить рецепт по ID",
+            description = "Меняет только переданные поля рецепта и добавляет или удаляет "
+                    + "отдельные ингредиенты, не читая рецепт заранее. С заголовком If-Match "
+                    + "обновление выполняется, только если версия строки рецепта в базе "
+                    + "совпадает с версией в ETag; ETag любого экземпляра сервиса подходит. "
+                    + "Возвращает новый ETag рецепта.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Рецепт обновлен"),
+        @ApiResponse(responseCode = "400", description = "Ошибка валидации входных данных"),
+        @ApiResponse(responseCode = "404", description = "Рецепт не найден"),
+        @ApiResponse(responseCode = "412", description = "Рецепт изменился после выдачи ETag")
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchRecipe(@PathVariable Long id,
+                                            @RequestBody RecipePatchDto patch,
+                                            WebRequest request) {
+        visitCounter.incrementVisit("/api/recipes/" + id);
+        // Версия из If-Match сверяется в самом UPDATE, а не отдельной проверкой до записи
+        String ifMatch = request.getHeader(HttpHeaders.IF_MATCH);
+        boolean anyVersion = ifMatch == null || ifMatch.strip().equals("*");
+        Long expectedVersion = anyVersion ? null : VersionService.rowVersion(ifMatch, id);
+        if (!anyVersion && expectedVersion == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        // Рецепт другой версии сервис отклоняет с 412, null означает, что рецепта нет
+        Long version = recipeService.patchRecipe(id, patch, expectedVersion);
+        if (version == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent()
+                .eTag(VersionService.withRowVersion(versionService.recipeETag(id), version))
+                .build();
+    }
+
     @Operation(summary = "Удалить рецепт по ID",
             description = "Удаляет рецепт с указанным ID.")
     @ApiResponses(value = {
@@ -107,41 +330,105 @@ public class RecipeController {
     }
 
     @Operation(summary = "Получить рецепты по названию кухни",
-            description = "Возвращает список рецептов для указанной кухни.")
+            description = "Возвращает список рецептов для указанной кухни. "
+                    + FIELDS_DESCRIPTION)
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200",
-                    description = "Успешно получены рецепты для указанной кухни"),
+                    description = "Успешно получены рецепты для указанной кухни",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(
+                                    schema = @Schema(implementation = RecipeDto.class)))),
+        @ApiResponse(responseCode = "400",
+                    description = "Некорректный список полей"),
         @ApiResponse(responseCode = "404",
                     description = "Кухня не найдена")
     })
-    @GetMapping("/cuisine/{cuisineName}")
-    public List<RecipeDto> getRecipesByCuisineName(@PathVariable String cuisineName) {
+    @GetMapping(value = "/cuisine/{cuisineName}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getRecipesByCuisineName(
+            @PathVariable String cuisineName,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding) {
         visitCounter.incrementVisit("/api/recipes/cuisine/" + cuisineName);
-        return recipeService.getRecipesByCuisineName(cuisineName);
+        RecipeFields selection = RecipeFields.parse(fields, include);
+        if (!selection.isAll()) {
+            // Готовое тело в кеше только у полного списка, частичный собирается заново
+            List<RecipeDto> recipes =
+                    recipeService.getRecipesByCuisineName(cuisineName, selection);
+            return recipes != null
+                    ? ResponseEntity.ok().body(select(recipes, selection))
+                    : ResponseEntity.notFound().build();
+        }
+        // Тело берется из кеша уже сериализованным, Jackson на попадании не вызывается
+        boolean gzip = acceptsGzip(acceptEncoding);
+        EncodedResponse body = recipeService.getEncodedRecipesByCuisineName(cuisineName, gzip);
+        if (body == null) {
+            return ResponseEntity.notFound().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        // Несжатым уходит и тело, не попавшее в кеш: сжимать его ради одного ответа невыгодно
+        if (gzip && body.getGzip() != null) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.getGzip());
+        }
+        return response.body(body.getJson());
     }
 
     @Operation(summary = "Создать несколько рецептов",
-            description = "Создает несколько рецептов с заданными параметрами.")
+            description = "Создает несколько рецептов с заданными параметрами. Рецепты "
+                    + "сохраняются пакетами, для каждого возвращается результат: id созданного "
+                    + "рецепта или причина ошибки.")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "201", description = "Рецепты успешно созданы"),
-        @ApiResponse(responseCode = "400", description = "Ошибка валидации входных данных")
+        @ApiResponse(responseCode = "201", description = "Все рецепты успешно созданы"),
+        @ApiResponse(responseCode = "207", description = "Часть рецептов не создана"),
+        @ApiResponse(responseCode = "400", description = "Пустой список рецептов")
     })
     @PostMapping("/bulk")
-    public ResponseEntity<List<RecipeDto>> createRecipes(@RequestBody List<RecipeDto> recipeDtos) {
+    public ResponseEntity<List<BulkItemResultDto>> createRecipes(
+            @RequestBody List<RecipeDto> recipeDtos) {
         visitCounter.incrementVisit("/api/recipes/bulk");
         if (recipeDtos == null || recipeDtos.isEmpty()) {
             throw new CustomException("Список рецептов не может быть пустым");
         }
 
-        List<RecipeDto> createdRecipes = recipeDtos.stream()
-                .map(recipeDto -> {
-                    if (recipeDto.getTitle() == null || recipeDto.getDescription() == null) {
-                        throw new CustomException("Название и описание не могут быть пустыми");
-                    }
-                    return recipeService.createRecipe(recipeDto);
-                })
-                .toList();
+        List<BulkItemResultDto> results = recipeImportService.importRecipes(recipeDtos);
+        boolean allCreated = results.stream()
+                .allMatch(result -> result.getStatus() == BulkItemResultDto.Status.CREATED);
+        return ResponseEntity.status(allCreated ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS)
+                .body(results);
+    }
+
+    // Свойства, которые не выбраны, убираются из ответа, а не отдаются как null
+    private JsonNode select(RecipeDto recipe, RecipeFields fields) {
+        ObjectNode node = objectMapper.valueToTree(recipe);
+        return node.retain(fields.jsonNames());
+    }
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdRecipes);
+    private List<?> select(List<RecipeDto> recipes, RecipeFields fields) {
+        if (fields.isAll()) {
+            return recipes;
+        }
+        return recipes.stream().map(recipe -> select(recipe, fields)).toList();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                if (parts[i].trim().matches("q=0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
     }
 }
\ No newline at end of file
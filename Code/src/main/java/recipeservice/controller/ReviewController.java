@@ -5,6 +5,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import recipeservice.dto.RecipeDto;
 import recipeservice.dto.ReviewDto;
@@ -40,14 +42,20 @@ public class ReviewController {
     }
 
     @Operation(summary = "Получить все отзывы",
-        description = "Возвращает список всех отзывов в системе.")
+        description = "Возвращает список всех отзывов в системе. С параметрами after или limit "
+                + "возвращает страницу отзывов и курсор следующей страницы.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Успешно получены все отзывы"),
+        @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер страницы"),
     })
     @GetMapping
-    public List<ReviewDto> getAllReviews() {
+    public ResponseEntity<?> getAllReviews(@RequestParam(required = false) String after,
+                                           @RequestParam(required = false) Integer limit) {
         visitCounter.incrementVisit("/api/reviews");
-        return reviewService.getAllReviews();
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(reviewService.getAllReviews());
+        }
+        return ResponseEntity.ok(reviewService.getReviewsPage(after, limit));
     }
 
     @Operation(summary = "Получить отзыв по ID",
@@ -1,11 +1,14 @@
 package recipeservice.dao;
 
 import java.util.List;
+import java.util.Map;
 import recipeservice.model.Cuisine;
 
 public interface CuisineDao {
     List<Cuisine> getAllCuisines();
 
+    Map<Long, String> getCuisineNames();
+
     Cuisine getCuisineById(Long id);
 
     Cuisine createCuisine(Cuisine cuisine);
@@ -12,5 +12,5 @@ public interface IngredientDao {
 
     Ingredient updateIngredient(Long id, Ingredient ingredient);
 
-    void deleteIngredient(Long id);
+    List<Long> deleteIngredient(Long id);
 }
\ No newline at end of file
@@ -1,15 +1,40 @@
 package recipeservice.dao;
 
 
+import java.util.Collection;
 import java.util.List;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
+import java.util.Map;
+import java.util.Set;
+import recipeservice.dto.RecipeDto;
+import recipeservice.dto.RecipeFields;
 import recipeservice.model.Recipe;
 
 public interface RecipeDao {
-    List<Recipe> getAllRecipes();
+    List<Recipe> getRecipesAfter(long afterId, int limit);
 
-    List<Recipe> findRecipesByIngredientId(Long ingredientId);
+    void detachAll();
+
+    List<RecipeDto> findAllRecipeDtos(RecipeFields fields);
+
+    RecipeDto findRecipeDtoById(Long id);
+
+    List<RecipeDto> findRecipeDtosByIds(Collection<Long> ids, RecipeFields fields);
+
+    List<RecipeDto> findRecipeDtosByCuisineIds(Collection<Long> cuisineIds, RecipeFields fields);
+
+    List<Long> getRecipeIdsAfter(long afterId, int limit);
+
+    List<RecipeDto> findRecipeDtosWithoutReviews(Collection<Long> ids);
+
+    Map<Long, List<Long>> getIngredientIdsByRecipe(Collection<Long> recipeIds);
+
+    List<Long> allocateRecipeIds(int count);
+
+    void insertRecipes(List<Recipe> recipes);
+
+    Map<Long, String> getCuisineNames(Collection<Long> ids);
+
+    Set<Long> getExistingIngredientIds(Collection<Long> ids);
 
     Recipe getRecipeById(Long id);
 
@@ -17,14 +42,14 @@ public interface RecipeDao {
 
     Recipe updateRecipe(Long id, Recipe recipe);
 
-    void deleteRecipe(Long id);
+    Long patchRecipe(Long id, Long expectedVersion, String title, String description,
+                     Long cuisineId);
 
-    @Query("SELECT r FROM Recipe r JOIN r.cuisine c WHERE c.name = :cuisineName")
-    List<Recipe> findRecipesByCuisineNameJpql(@Param("cuisineName") String cuisineName);
+    Long getRecipeVersion(Long id);
 
-    @Query(value =
-            "SELECT r.* FROM recipe r JOIN cuisine c "
-                    + "ON r.cuisine_id = c.id WHERE c.name = :cuisineName",
-            nativeQuery = true)
-    List<Recipe> findRecipesByCuisineNameNative(@Param("cuisineName") String cuisineName);
+    void linkIngredients(Long recipeId, Collection<Long> ingredientIds);
+
+    void unlinkIngredients(Long recipeId, Collection<Long> ingredientIds);
+
+    void deleteRecipe(Long id);
 }
\ No newline at end of file
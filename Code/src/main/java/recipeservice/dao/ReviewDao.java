@@ -1,18 +1,25 @@
 package recipeservice.dao;
 
 import java.util.List;
+import java.util.Map;
 import recipeservice.model.Review;
 
 public interface ReviewDao {
     List<Review> getAllReviews();
 
+    List<Review> getReviewsAfter(long afterId, int limit);
+
     Review getReviewById(Long id);
 
     Review createReview(Review review);
 
-    Review updateReview(Long id, Review review);
+    ReviewUpdate updateReview(Long id, Review review);
 
-    void deleteReview(Long id);
+    Review deleteReview(Long id);
 
     List<Review> getReviewsByRecipeId(Long recipeId);
+
+    Map<Integer, Long> getRatingCounts(Long recipeId);
+
+    Map<Long, Map<Integer, Long>> getAllRatingCounts();
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package recipeservice.dao;
+
+import recipeservice.model.Review;
+
+/**
+ * A review as saved by an update, together with the rating it had before, read under the
+ * row lock of the same transaction.
+ */
+public final class ReviewUpdate {
+    private final Review review;
+    private final Integer previousRating;
+
+    public ReviewUpdate(Review review, Integer previousRating) {
+        this.review = review;
+        this.previousRating = previousRating;
+    }
+
+    public Review getReview() {
+        return review;
+    }
+
+    public Integer getPreviousRating() {
+        return previousRating;
+    }
+}
@@ -3,7 +3,10 @@ package recipeservice.dao.impl;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 import recipeservice.dao.CuisineDao;
 import recipeservice.model.Cuisine;
@@ -16,7 +19,23 @@ public class CuisineDaoImpl implements CuisineDao {
 
     @Override
     public List<Cuisine> getAllCuisines() {
-        return entityManager.createQuery("FROM Cuisine", Cuisine.class).getResultList();
+        return entityManager.createQuery("FROM Cuisine", Cuisine.class)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList();
+    }
+
+    /**
+     * Reads the names straight from the table, bypassing the second-level and query caches,
+     * for callers that must see every committed change.
+     */
+    @Override
+    public Map<Long, String> getCuisineNames() {
+        Map<Long, String> names = new LinkedHashMap<>();
+        entityManager.createQuery("SELECT c.id, c.name FROM Cuisine c ORDER BY c.id",
+                        Object[].class)
+                .getResultStream()
+                .forEach(row -> names.put((Long) row[0], (String) row[1]));
+        return names;
     }
 
     @Override
@@ -1,9 +1,12 @@
 package recipeservice.dao.impl;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import java.util.List;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
 import recipeservice.dao.IngredientDao;
 import recipeservice.model.Ingredient;
@@ -11,12 +14,16 @@ import recipeservice.model.Ingredient;
 @Repository
 @Transactional
 public class IngredientDaoImpl implements IngredientDao {
+    private static final String RECIPE_INGREDIENTS_TABLE = "recipe_ingredients";
+
     @PersistenceContext
     private EntityManager entityManager;
 
     @Override
     public List<Ingredient> getAllIngredients() {
-        return entityManager.createQuery("FROM Ingredient", Ingredient.class).getResultList();
+        return entityManager.createQuery("FROM Ingredient", Ingredient.class)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList();
     }
 
     @Override
@@ -36,11 +43,35 @@ public class IngredientDaoImpl implements IngredientDao {
         return entityManager.merge(ingredient);
     }
 
+    /**
+     * Unlinks the ingredient from every recipe and deletes it with set-based statements, so
+     * no recipe or collection is loaded. Returns the ids of the recipes it was unlinked
+     * from, or null if the ingredient does not exist.
+     *
+     * <p>The ingredient row is locked first: a concurrent link to it waits on its foreign key
+     * check until the deletion commits and then fails, so the ids read here are exactly the
+     * links the deletion removes. The native statement declares the table it touches;
+     * otherwise Hibernate would have to assume it changed anything and clear the whole
+     * second-level cache.
+     */
     @Override
-    public void deleteIngredient(Long id) {
-        Ingredient ingredient = getIngredientById(id);
-        if (ingredient != null) {
-            entityManager.remove(ingredient);
+    public List<Long> deleteIngredient(Long id) {
+        Ingredient ingredient = entityManager.find(Ingredient.class, id,
+                LockModeType.PESSIMISTIC_WRITE);
+        if (ingredient == null) {
+            return null;
         }
+        List<Long> recipeIds = entityManager.createQuery(
+                        "SELECT r.id FROM Recipe r JOIN r.ingredients i WHERE i.id = :id "
+                                + "ORDER BY r.id", Long.class)
+                .setParameter("id", id)
+                .getResultList();
+        entityManager.createNativeQuery("DELETE FROM recipe_ingredients WHERE ingredient_id = ?1")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(RECIPE_INGREDIENTS_TABLE)
+                .setParameter(1, id)
+                .executeUpdate();
+        entityManager.remove(ingredient);
+        return recipeIds;
     }
-}
\ No newline at end of file
+}
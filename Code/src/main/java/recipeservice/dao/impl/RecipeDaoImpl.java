@@ -2,26 +2,154 @@ package recipeservice.dao.impl;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import org.hibernate.Hibernate;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import recipeservice.dao.RecipeDao;
+import recipeservice.dto.RecipeDto;
+import recipeservice.dto.RecipeFields;
+import recipeservice.model.Ingredient;
 import recipeservice.model.Recipe;
 
 @Repository
 @Transactional
 public class RecipeDaoImpl implements RecipeDao {
+    private static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+    private static final RecipeFields WITHOUT_REVIEWS =
+            RecipeFields.ALL.without(RecipeFields.Field.REVIEWS);
+    private static final String REVIEW_ROWS =
+            "SELECT r.id, v.id, v.text, v.rating FROM Review v JOIN v.recipe r";
+
+    // Пул id забирается из последовательности столбца одним запросом на весь пакет
+    private static final String ALLOCATE_IDS =
+            "SELECT nextval(pg_get_serial_sequence('recipe', 'id')) FROM generate_series(1, ?)";
+    private static final String INSERT_RECIPE =
+            "INSERT INTO recipe (id, title, description, cuisine_id) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_RECIPE_INGREDIENT =
+            "INSERT INTO recipe_ingredients (recipe_id, ingredient_id) VALUES (?, ?)";
+    private static final String RECIPE_VERSION = "SELECT version FROM recipe WHERE id = ?";
+    private static final String LINK_INGREDIENT =
+            "INSERT INTO recipe_ingredients (recipe_id, ingredient_id) SELECT ?, ? "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM recipe_ingredients "
+                    + "WHERE recipe_id = ? AND ingredient_id = ?)";
+    private static final String UNLINK_INGREDIENT =
+            "DELETE FROM recipe_ingredients WHERE recipe_id = ? AND ingredient_id = ?";
+
     @PersistenceContext
     private EntityManager entityManager;
 
+    private final JdbcTemplate jdbcTemplate;
+
+    public RecipeDaoImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Recipe> getRecipesAfter(long afterId, int limit) {
+        // Сначала страница идентификаторов: LIMIT вместе с JOIN FETCH коллекций
+        // Hibernate применил бы уже в памяти, прочитав всю таблицу
+        List<Long> ids = getRecipeIdsAfter(afterId, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return findWithDetails("SELECT r FROM Recipe r WHERE r.id IN :ids ORDER BY r.id",
+                query -> query.setParameter("ids", ids));
+    }
+
+    @Override
+    public void detachAll() {
+        entityManager.clear();
+    }
+
+    @Override
+    public List<Long> getRecipeIdsAfter(long afterId, int limit) {
+        return entityManager.createQuery(
+                        "SELECT r.id FROM Recipe r WHERE r.id > :afterId ORDER BY r.id", Long.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<RecipeDto> findAllRecipeDtos(RecipeFields fields) {
+        return findDtos("", UnaryOperator.identity(), fields);
+    }
+
+    @Override
+    public RecipeDto findRecipeDtoById(Long id) {
+        List<RecipeDto> recipes = findDtos(" WHERE r.id = :id",
+                query -> query.setParameter("id", id), RecipeFields.ALL);
+        return recipes.isEmpty() ? null : recipes.get(0);
+    }
+
+    @Override
+    public List<RecipeDto> findRecipeDtosByIds(Collection<Long> ids, RecipeFields fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return findDtos(" WHERE r.id IN :ids", query -> query.setParameter("ids", ids), fields);
+    }
+
+    @Override
+    public List<RecipeDto> findRecipeDtosByCuisineIds(Collection<Long> cuisineIds,
+                                                      RecipeFields fields) {
+        if (cuisineIds.isEmpty()) {
+            return List.of();
+        }
+        // Условие по внешнему ключу recipe.cuisine_id, без соединения с таблицей кухонь
+        return findDtos(" WHERE r.cuisine.id IN :cuisineIds",
+                query -> query.setParameter("cuisineIds", cuisineIds), fields);
+    }
+
+    @Override
+    public List<RecipeDto> findRecipeDtosWithoutReviews(Collection<Long> ids) {
+        return findRecipeDtosByIds(ids, WITHOUT_REVIEWS);
+    }
+
+    /**
+     * Returns the ingredient ids of the given recipes straight from the join table; recipes
+     * without ingredients, or that no longer exist, are absent from the map.
+     */
     @Override
-    public List<Recipe> getAllRecipes() {
-        return entityManager.createQuery("FROM Recipe", Recipe.class).getResultList();
+    public Map<Long, List<Long>> getIngredientIdsByRecipe(Collection<Long> recipeIds) {
+        Map<Long, List<Long>> ingredientIds = new HashMap<>();
+        if (recipeIds.isEmpty()) {
+            return ingredientIds;
+        }
+        entityManager.createQuery(
+                        "SELECT r.id, i.id FROM Recipe r JOIN r.ingredients i WHERE r.id IN :ids",
+                        Object[].class)
+                .setParameter("ids", recipeIds)
+                .getResultStream()
+                .forEach(row -> ingredientIds
+                        .computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                        .add((Long) row[1]));
+        return ingredientIds;
     }
 
     @Override
     public Recipe getRecipeById(Long id) {
-        return entityManager.find(Recipe.class, id);
+        Recipe recipe = entityManager.find(Recipe.class, id, Map.of(FETCH_GRAPH,
+                entityManager.getEntityGraph(Recipe.WITH_CUISINE_AND_INGREDIENTS)));
+        if (recipe != null) {
+            Hibernate.initialize(recipe.getReviews());
+        }
+        return recipe;
     }
 
     @Override
@@ -30,6 +158,147 @@ public class RecipeDaoImpl implements RecipeDao {
         return recipe;
     }
 
+    @Override
+    public List<Long> allocateRecipeIds(int count) {
+        return jdbcTemplate.queryForList(ALLOCATE_IDS, Long.class, count);
+    }
+
+    /**
+     * Inserts recipes whose ids were taken from {@link #allocateRecipeIds} as two JDBC
+     * batches, recipes and then their ingredient links, bypassing the persistence context.
+     */
+    @Override
+    public void insertRecipes(List<Recipe> recipes) {
+        jdbcTemplate.batchUpdate(INSERT_RECIPE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                Recipe recipe = recipes.get(i);
+                statement.setLong(1, recipe.getId());
+                statement.setString(2, recipe.getTitle());
+                statement.setString(3, recipe.getDescription());
+                if (recipe.getCuisine() != null) {
+                    statement.setLong(4, recipe.getCuisine().getId());
+                } else {
+                    statement.setNull(4, Types.BIGINT);
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return recipes.size();
+            }
+        });
+
+        List<Long[]> links = new ArrayList<>();
+        for (Recipe recipe : recipes) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                links.add(new Long[]{recipe.getId(), ingredient.getId()});
+            }
+        }
+        if (!links.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_RECIPE_INGREDIENT, links, links.size(),
+                    (statement, link) -> {
+                        statement.setLong(1, link[0]);
+                        statement.setLong(2, link[1]);
+                    });
+        }
+    }
+
+    /**
+     * Sets only the given non-null columns and bumps the row version with one UPDATE, so
+     * nothing is read first. With {@code expectedVersion} the row is only updated if its
+     * version still matches, which makes the If-Match check and the write one atomic step.
+     * Returns the new version, or null if no row was updated. The row stays locked until
+     * commit, which serializes concurrent patches of one recipe, including their ingredient
+     * links.
+     */
+    @Override
+    public Long patchRecipe(Long id, Long expectedVersion, String title, String description,
+                            Long cuisineId) {
+        List<String> columns = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        columns.add("version = version + 1");
+        if (title != null) {
+            columns.add("title = ?");
+            values.add(title);
+        }
+        if (description != null) {
+            columns.add("description = ?");
+            values.add(description);
+        }
+        if (cuisineId != null) {
+            columns.add("cuisine_id = ?");
+            values.add(cuisineId);
+        }
+        String sql = "UPDATE recipe SET " + String.join(", ", columns) + " WHERE id = ?";
+        values.add(id);
+        if (expectedVersion != null) {
+            sql += " AND version = ?";
+            values.add(expectedVersion);
+        }
+        List<Long> versions = jdbcTemplate.queryForList(sql + " RETURNING version", Long.class,
+                values.toArray());
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    @Override
+    public Long getRecipeVersion(Long id) {
+        List<Long> versions = jdbcTemplate.queryForList(RECIPE_VERSION, Long.class, id);
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    // Уже существующие связи пропускаются, поэтому повторный PATCH ничего не меняет
+    @Override
+    public void linkIngredients(Long recipeId, Collection<Long> ingredientIds) {
+        if (ingredientIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(LINK_INGREDIENT, ingredientIds, ingredientIds.size(),
+                (statement, ingredientId) -> {
+                    statement.setLong(1, recipeId);
+                    statement.setLong(2, ingredientId);
+                    statement.setLong(3, recipeId);
+                    statement.setLong(4, ingredientId);
+                });
+    }
+
+    @Override
+    public void unlinkIngredients(Long recipeId, Collection<Long> ingredientIds) {
+        if (ingredientIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UNLINK_INGREDIENT, ingredientIds, ingredientIds.size(),
+                (statement, ingredientId) -> {
+                    statement.setLong(1, recipeId);
+                    statement.setLong(2, ingredientId);
+                });
+    }
+
+    @Override
+    public Map<Long, String> getCuisineNames(Collection<Long> ids) {
+        Map<Long, String> names = new LinkedHashMap<>();
+        if (ids.isEmpty()) {
+            return names;
+        }
+        entityManager.createQuery(
+                        "SELECT c.id, c.name FROM Cuisine c WHERE c.id IN :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultStream()
+                .forEach(row -> names.put((Long) row[0], (String) row[1]));
+        return names;
+    }
+
+    @Override
+    public Set<Long> getExistingIngredientIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(entityManager.createQuery(
+                        "SELECT i.id FROM Ingredient i WHERE i.id IN :ids", Long.class)
+                .setParameter("ids", ids)
+                .getResultList());
+    }
+
     @Override
     public Recipe updateRecipe(Long id, Recipe recipe) {
         recipe.setId(id);
@@ -38,38 +307,75 @@ public class RecipeDaoImpl implements RecipeDao {
 
     @Override
     public void deleteRecipe(Long id) {
-        Recipe recipe = getRecipeById(id);
+        Recipe recipe = entityManager.find(Recipe.class, id);
         if (recipe != null) {
             entityManager.remove(recipe);
         }
     }
 
-    @Override
-    public List<Recipe> findRecipesByIngredientId(Long ingredientId) {
-        return entityManager.createQuery(
-                "SELECT r FROM Recipe r JOIN r.ingredients i WHERE i.id = :ingredientId",
-                        Recipe.class)
-                .setParameter("ingredientId", ingredientId)
-                .getResultList();
+    /**
+     * Builds RecipeDto graphs straight from scalar rows: nothing is hydrated into the
+     * persistence context, so there are no entity instances, snapshots or dirty checks.
+     * Ingredients come with the recipe rows and reviews from a second query with the same
+     * condition, so the row count is ingredients plus reviews rather than their product.
+     * Columns, joins and the review query of fields that were not selected are left out.
+     */
+    private List<RecipeDto> findDtos(String where,
+                                     UnaryOperator<TypedQuery<Object[]>> parameters,
+                                     RecipeFields fields) {
+        RecipeDtoAssembler assembler = new RecipeDtoAssembler(fields);
+        parameters.apply(entityManager.createQuery(
+                        recipeRows(fields) + where + " ORDER BY r.id", Object[].class))
+                .getResultStream()
+                .forEach(assembler::addRecipeRow);
+        if (fields.has(RecipeFields.Field.REVIEWS) && !assembler.isEmpty()) {
+            parameters.apply(entityManager.createQuery(
+                            REVIEW_ROWS + where + " ORDER BY v.id", Object[].class))
+                    .getResultStream()
+                    .forEach(assembler::addReviewRow);
+        }
+        return assembler.build();
     }
 
-    @Override
-    public List<Recipe> findRecipesByCuisineNameJpql(String cuisineName) {
-        return entityManager.createQuery(
-                        "SELECT r FROM Recipe r WHERE r.cuisine.name = :cuisineName",
-                        Recipe.class)
-                .setParameter("cuisineName", cuisineName)
-                .getResultList();
+    // Порядок столбцов должен совпадать с тем, что ожидает RecipeDtoAssembler
+    private static String recipeRows(RecipeFields fields) {
+        StringBuilder select = new StringBuilder("SELECT r.id");
+        StringBuilder from = new StringBuilder(" FROM Recipe r");
+        if (fields.has(RecipeFields.Field.TITLE)) {
+            select.append(", r.title");
+        }
+        if (fields.has(RecipeFields.Field.DESCRIPTION)) {
+            select.append(", r.description");
+        }
+        if (fields.has(RecipeFields.Field.CUISINE)) {
+            select.append(", c.id, c.name");
+            from.append(" LEFT JOIN r.cuisine c");
+        }
+        if (fields.has(RecipeFields.Field.INGREDIENTS)) {
+            select.append(", i.id, i.name");
+            from.append(" LEFT JOIN r.ingredients i");
+        }
+        return select.append(", r.version").append(from).toString();
     }
 
-    @Override
-    @SuppressWarnings("unchecked")
-    public List<Recipe> findRecipesByCuisineNameNative(String cuisineName) {
-        return entityManager.createNativeQuery(
-                        "SELECT r.* FROM recipe r JOIN cuisine c "
-                                + "ON r.cuisine_id = c.id WHERE c.name = :cuisineName",
-                        Recipe.class)
-                .setParameter("cuisineName", cuisineName)
+    /**
+     * Loads recipes together with everything a RecipeDto needs in two statements, whatever
+     * the number of rows: cuisine and ingredients are joined into the main query, and reviews
+     * are filled in by a second query with the same condition. Fetching both lists in one
+     * join would multiply ingredient rows by review rows.
+     */
+    private List<Recipe> findWithDetails(String jpql,
+                                         UnaryOperator<TypedQuery<Recipe>> parameters) {
+        List<Recipe> recipes = parameters.apply(entityManager.createQuery(jpql, Recipe.class)
+                        .setHint(FETCH_GRAPH,
+                                entityManager.getEntityGraph(Recipe.WITH_CUISINE_AND_INGREDIENTS)))
                 .getResultList();
+        if (!recipes.isEmpty()) {
+            // Рецепты уже в контексте персистентности, запрос только инициализирует их отзывы
+            parameters.apply(entityManager.createQuery(jpql, Recipe.class)
+                            .setHint(FETCH_GRAPH, entityManager.getEntityGraph(Recipe.WITH_REVIEWS)))
+                    .getResultList();
+        }
+        return recipes;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,116 @@
+package recipeservice.dao.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import recipeservice.dto.CuisineDto;
+import recipeservice.dto.IngredientDto;
+import recipeservice.dto.RecipeDto;
+import recipeservice.dto.RecipeFields;
+import recipeservice.dto.ReviewDto;
+
+/**
+ * Folds flat projection rows into nested RecipeDto graphs in a single pass, keeping the
+ * order in which recipes first appear.
+ *
+ * <p>Recipe rows are {@code [recipeId, title, description, cuisineId, cuisineName,
+ * ingredientId, ingredientName, version]}, one per ingredient (nulls from left joins allowed),
+ * less the columns of fields that were not selected; review rows are {@code [recipeId,
+ * reviewId, text, rating]}. Collections that were not selected are left null rather than empty.
+ */
+final class RecipeDtoAssembler {
+    private static final int ABSENT = -1;
+
+    private final Map<Long, Row> recipes = new LinkedHashMap<>();
+    private final int titleColumn;
+    private final int descriptionColumn;
+    private final int cuisineColumn;
+    private final int ingredientColumn;
+    private final int versionColumn;
+    private final boolean withReviews;
+
+    RecipeDtoAssembler() {
+        this(RecipeFields.ALL);
+    }
+
+    RecipeDtoAssembler(RecipeFields fields) {
+        int column = 1;
+        titleColumn = fields.has(RecipeFields.Field.TITLE) ? column++ : ABSENT;
+        descriptionColumn = fields.has(RecipeFields.Field.DESCRIPTION) ? column++ : ABSENT;
+        cuisineColumn = fields.has(RecipeFields.Field.CUISINE) ? column : ABSENT;
+        if (cuisineColumn != ABSENT) {
+            column += 2;
+        }
+        ingredientColumn = fields.has(RecipeFields.Field.INGREDIENTS) ? column : ABSENT;
+        if (ingredientColumn != ABSENT) {
+            column += 2;
+        }
+        versionColumn = column;
+        withReviews = fields.has(RecipeFields.Field.REVIEWS);
+    }
+
+    void addRecipeRow(Object[] row) {
+        Row recipe = recipes.computeIfAbsent((Long) row[0], id -> new Row(
+                id,
+                (String) column(row, titleColumn),
+                (String) column(row, descriptionColumn),
+                column(row, cuisineColumn) != null
+                        ? new CuisineDto((Long) row[cuisineColumn],
+                                (String) row[cuisineColumn + 1])
+                        : null,
+                (Long) row[versionColumn],
+                ingredientColumn != ABSENT,
+                withReviews));
+        if (column(row, ingredientColumn) != null) {
+            recipe.ingredients.add(new IngredientDto(
+                    (Long) row[ingredientColumn], (String) row[ingredientColumn + 1]));
+        }
+    }
+
+    void addReviewRow(Object[] row) {
+        Row recipe = recipes.get((Long) row[0]);
+        if (recipe != null && recipe.reviews != null) {
+            recipe.reviews.add(
+                    new ReviewDto((Long) row[1], (String) row[2], (Integer) row[3], recipe.id));
+        }
+    }
+
+    boolean isEmpty() {
+        return recipes.isEmpty();
+    }
+
+    List<RecipeDto> build() {
+        List<RecipeDto> result = new ArrayList<>(recipes.size());
+        for (Row recipe : recipes.values()) {
+            result.add(new RecipeDto(recipe.id, recipe.title, recipe.description,
+                    recipe.ingredients, recipe.reviews, recipe.cuisine, recipe.version));
+        }
+        return result;
+    }
+
+    private static Object column(Object[] row, int column) {
+        return column != ABSENT ? row[column] : null;
+    }
+
+    private static final class Row {
+        final Long id;
+        final String title;
+        final String description;
+        final CuisineDto cuisine;
+        final Long version;
+        final List<IngredientDto> ingredients;
+        final List<ReviewDto> reviews;
+
+        Row(Long id, String title, String description, CuisineDto cuisine, Long version,
+            boolean withIngredients, boolean withReviews) {
+            this.id = id;
+            this.title = title;
+            this.description = description;
+            this.cuisine = cuisine;
+            this.version = version;
+            this.ingredients = withIngredients ? new ArrayList<>() : null;
+            this.reviews = withReviews ? new ArrayList<>() : null;
+        }
+    }
+}
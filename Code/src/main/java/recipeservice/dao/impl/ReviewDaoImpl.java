@@ -1,11 +1,15 @@
 package recipeservice.dao.impl;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.springframework.stereotype.Repository;
 import recipeservice.dao.ReviewDao;
+import recipeservice.dao.ReviewUpdate;
 import recipeservice.model.Review;
 
 @Repository
@@ -19,6 +23,15 @@ public class ReviewDaoImpl implements ReviewDao {
         return entityManager.createQuery("SELECT r FROM Review r", Review.class).getResultList();
     }
 
+    @Override
+    public List<Review> getReviewsAfter(long afterId, int limit) {
+        return entityManager.createQuery(
+                        "SELECT r FROM Review r WHERE r.id > :afterId ORDER BY r.id", Review.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
     @Override
     public Review getReviewById(Long id) {
         return entityManager.find(Review.class, id);
@@ -31,25 +44,34 @@ public class ReviewDaoImpl implements ReviewDao {
         return review;
     }
 
+    /**
+     * Updates the review under a row lock taken when it is read, so concurrent updates and
+     * deletes of the same review run one after another and each sees the rating the previous
+     * one left. Returns null if there is no such review.
+     */
     @Override
     @Transactional
-    public Review updateReview(Long id, Review review) {
-        Review existingReview = entityManager.find(Review.class, id);
-        if (existingReview != null) {
-            existingReview.setText(review.getText());
-            existingReview.setRating(review.getRating());
-            return existingReview;
+    public ReviewUpdate updateReview(Long id, Review review) {
+        Review existingReview =
+                entityManager.find(Review.class, id, LockModeType.PESSIMISTIC_WRITE);
+        if (existingReview == null) {
+            return null;
         }
-        return null;
+        Integer previousRating = existingReview.getRating();
+        existingReview.setText(review.getText());
+        existingReview.setRating(review.getRating());
+        return new ReviewUpdate(existingReview, previousRating);
     }
 
+    // Строка блокируется при чтении, поэтому удаленная оценка та, что была на момент удаления
     @Override
     @Transactional
-    public void deleteReview(Long id) {
-        Review review = entityManager.find(Review.class, id);
+    public Review deleteReview(Long id) {
+        Review review = entityManager.find(Review.class, id, LockModeType.PESSIMISTIC_WRITE);
         if (review != null) {
             entityManager.remove(review);
         }
+        return review;
     }
 
     @Override
@@ -60,4 +82,28 @@ public class ReviewDaoImpl implements ReviewDao {
                 .setParameter("recipeId", recipeId)
                 .getResultList();
     }
+
+    @Override
+    public Map<Integer, Long> getRatingCounts(Long recipeId) {
+        Map<Integer, Long> counts = new HashMap<>();
+        entityManager.createQuery(
+                        "SELECT r.rating, COUNT(r) FROM Review r WHERE r.recipe.id = :recipeId "
+                                + "GROUP BY r.rating", Object[].class)
+                .setParameter("recipeId", recipeId)
+                .getResultStream()
+                .forEach(row -> counts.put((Integer) row[0], (Long) row[1]));
+        return counts;
+    }
+
+    @Override
+    public Map<Long, Map<Integer, Long>> getAllRatingCounts() {
+        Map<Long, Map<Integer, Long>> counts = new HashMap<>();
+        entityManager.createQuery(
+                        "SELECT r.recipe.id, r.rating, COUNT(r) FROM Review r "
+                                + "GROUP BY r.recipe.id, r.rating", Object[].class)
+                .getResultStream()
+                .forEach(row -> counts.computeIfAbsent((Long) row[0], id -> new HashMap<>())
+                        .put((Integer) row[1], (Long) row[2]));
+        return counts;
+    }
 }
\ No newline at end of file
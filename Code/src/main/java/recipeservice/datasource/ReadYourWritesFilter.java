@@ -0,0 +1,85 @@
+package recipeservice.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Set;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Lets a client read its own writes from the replicas. A write request runs on the primary
+ * and gets a cookie with the time its transactions had committed by, and for a while
+ * afterwards requests carrying the cookie are served only by replicas that have applied
+ * every commit up to that time. The cookie travels with the client, so this holds
+ * whichever instance served the write, including before the other instances have heard of
+ * it.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    static final String COOKIE = "recipe_last_write";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final long windowMs;
+
+    public ReadYourWritesFilter(long windowMs) {
+        if (windowMs < 0) {
+            throw new IllegalArgumentException("windowMs must not be negative: " + windowMs);
+        }
+        this.windowMs = windowMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            // Тело придерживается, чтобы cookie со временем после коммита успела в заголовки
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            ReplicaRoutingDataSource.setPrimaryRequired(true);
+            try {
+                chain.doFilter(request, wrapper);
+            } finally {
+                ReplicaRoutingDataSource.setPrimaryRequired(false);
+            }
+            Cookie cookie = new Cookie(COOKIE, Long.toString(System.currentTimeMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (windowMs + 999) / 1000));
+            wrapper.addCookie(cookie);
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        Long writtenAt = lastWrite(request, System.currentTimeMillis());
+        if (writtenAt == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ReplicaRoutingDataSource.setLastWriteMillis(writtenAt);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.setLastWriteMillis(null);
+        }
+    }
+
+    private Long lastWrite(HttpServletRequest request, long now) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    long writtenAt = Long.parseLong(cookie.getValue());
+                    return now - writtenAt < windowMs ? writtenAt : null;
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+}
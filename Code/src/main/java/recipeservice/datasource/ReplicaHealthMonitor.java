@@ -0,0 +1,128 @@
+package recipeservice.datasource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Polls every replica for its replay lag and tracks, per replica, the time up to which it is
+ * known to have applied every primary commit: a replica that reported lag {@code L} in a check
+ * started at {@code t} holds everything committed before {@code t - L}. Replicas that fail the
+ * check or lag more than {@code maxLagMs} are reported as unavailable until a later check
+ * passes.
+ */
+public class ReplicaHealthMonitor implements AutoCloseable {
+    static final long UNAVAILABLE = Long.MIN_VALUE;
+
+    // Реплика, догнавшая полученный WAL, не отстает, даже если на первичной давно не было записей
+    static final String LAG_QUERY = "SELECT CAST(CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 "
+            + "END AS bigint)";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+
+    private final List<JdbcTemplate> replicas;
+    private final long maxLagMs;
+    private final ScheduledExecutorService scheduler;
+    private volatile long[] caughtUpTo;
+
+    public ReplicaHealthMonitor(List<DataSource> replicas, long maxLagMs, long checkIntervalMs) {
+        this(templates(replicas), maxLagMs);
+        scheduler.scheduleWithFixedDelay(this::check, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    ReplicaHealthMonitor(List<JdbcTemplate> replicas, long maxLagMs) {
+        if (maxLagMs < 0) {
+            throw new IllegalArgumentException("maxLagMs must not be negative: " + maxLagMs);
+        }
+        this.replicas = replicas;
+        this.maxLagMs = maxLagMs;
+        this.caughtUpTo = new long[replicas.size()];
+        Arrays.fill(caughtUpTo, UNAVAILABLE);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Per replica, the wall-clock time before which it has every primary commit, or
+     * {@link #UNAVAILABLE}. The returned array must not be modified.
+     */
+    long[] caughtUpTo() {
+        return caughtUpTo;
+    }
+
+    int replicaCount() {
+        return replicas.size();
+    }
+
+    void check() {
+        long[] next = new long[replicas.size()];
+        for (int i = 0; i < replicas.size(); i++) {
+            long startedAt = System.currentTimeMillis();
+            Long lagMs;
+            try {
+                lagMs = replicas.get(i).queryForObject(LAG_QUERY, Long.class);
+            } catch (DataAccessException e) {
+                logger.debug("Проверка реплики {} не прошла", i, e);
+                lagMs = null;
+            }
+            boolean available = lagMs != null && lagMs <= maxLagMs;
+            next[i] = available ? startedAt - Math.max(lagMs, 0) : UNAVAILABLE;
+        }
+        synchronized (this) {
+            logTransitions(caughtUpTo, next);
+            caughtUpTo = next;
+        }
+    }
+
+    /**
+     * Takes a replica out of rotation until the next successful check, after a failure seen
+     * outside of the checks.
+     */
+    synchronized void markDown(int replica) {
+        if (caughtUpTo[replica] == UNAVAILABLE) {
+            return;
+        }
+        long[] next = caughtUpTo.clone();
+        next[replica] = UNAVAILABLE;
+        logTransitions(caughtUpTo, next);
+        caughtUpTo = next;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private static void logTransitions(long[] previous, long[] next) {
+        for (int i = 0; i < next.length; i++) {
+            if (previous[i] == UNAVAILABLE && next[i] != UNAVAILABLE) {
+                logger.info("Реплика {} доступна для чтения", i);
+            } else if (previous[i] != UNAVAILABLE && next[i] == UNAVAILABLE) {
+                logger.warn("Реплика {} недоступна или отстает, чтение идет с первичной базы", i);
+            }
+        }
+    }
+
+    private static List<JdbcTemplate> templates(List<DataSource> replicas) {
+        List<JdbcTemplate> templates = new ArrayList<>(replicas.size());
+        for (DataSource replica : replicas) {
+            JdbcTemplate template = new JdbcTemplate(replica);
+            template.setQueryTimeout(5);
+            templates.add(template);
+        }
+        return templates;
+    }
+}
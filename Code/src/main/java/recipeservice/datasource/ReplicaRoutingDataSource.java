@@ -0,0 +1,130 @@
+package recipeservice.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections to
+ * everything else. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so that the
+ * choice is made at the first statement, once the transaction is marked read-only.
+ *
+ * <p>A replica is eligible if the {@link ReplicaHealthMonitor} reports it as available and,
+ * when {@link #setLastWriteMillis} gives the time of the current client's last write, as
+ * having applied every commit up to a later point. Writes by other clients do not matter, so
+ * a steady write rate does not push the reads to the primary; in exchange a read may miss
+ * them by up to the monitor's maximum lag. While {@link #setPrimaryRequired} is in effect for
+ * the thread, or no replica is eligible, reads go to the primary. Eligible replicas take
+ * turns; one that refuses a connection is taken out of rotation and the read falls back to
+ * the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+    private static final ThreadLocal<Long> LAST_WRITE_MILLIS = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final ReplicaHealthMonitor monitor;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                    ReplicaHealthMonitor monitor) {
+        if (replicas.size() != monitor.replicaCount()) {
+            throw new IllegalArgumentException("Monitor must check every replica");
+        }
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+        this.monitor = monitor;
+    }
+
+    public static void setPrimaryRequired(boolean required) {
+        if (required) {
+            PRIMARY_REQUIRED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    /**
+     * Sets, for the current thread, the wall-clock time by which the last write of the client
+     * being served had committed, or clears it with null.
+     */
+    public static void setLastWriteMillis(Long millis) {
+        if (millis != null) {
+            LAST_WRITE_MILLIS.set(millis);
+        } else {
+            LAST_WRITE_MILLIS.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int replica = selectReplica();
+        if (replica < 0) {
+            return primary.getConnection();
+        }
+        try {
+            return replicas.get(replica).getConnection();
+        } catch (SQLException e) {
+            logger.warn("Реплика {} не выдала соединение, чтение с первичной базы", replica, e);
+            monitor.markDown(replica);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Returns the replica for the current thread's next connection, or -1 for the primary.
+     */
+    int selectReplica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || isPrimaryRequired()) {
+            return -1;
+        }
+        long[] caughtUpTo = monitor.caughtUpTo();
+        if (caughtUpTo.length == 0) {
+            return -1;
+        }
+        Long clientWrite = LAST_WRITE_MILLIS.get();
+        // Без своей записи клиенту подходит любая доступная реплика
+        long lastWrite = clientWrite != null ? clientWrite : ReplicaHealthMonitor.UNAVAILABLE;
+        int start = Math.floorMod(next.getAndIncrement(), caughtUpTo.length);
+        for (int i = 0; i < caughtUpTo.length; i++) {
+            int replica = (start + i) % caughtUpTo.length;
+            if (caughtUpTo[replica] > lastWrite) {
+                return replica;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws Exception {
+        monitor.close();
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package recipeservice.dto;
+
+public class BulkItemResultDto {
+    public enum Status {
+        CREATED,
+        REJECTED,
+        FAILED
+    }
+
+    private final int index;
+    private final Status status;
+    private final Long id;
+    private final String error;
+
+    public BulkItemResultDto(int index, Status status, Long id, String error) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.error = error;
+    }
+
+    public static BulkItemResultDto created(int index, Long id) {
+        return new BulkItemResultDto(index, Status.CREATED, id, null);
+    }
+
+    public static BulkItemResultDto rejected(int index, String error) {
+        return new BulkItemResultDto(index, Status.REJECTED, null, error);
+    }
+
+    public static BulkItemResultDto failed(int index, String error) {
+        return new BulkItemResultDto(index, Status.FAILED, null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
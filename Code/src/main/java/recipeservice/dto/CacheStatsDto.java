@@ -0,0 +1,147 @@
+package recipeservice.dto;
+
+public class CacheStatsDto {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long entryCount;
+    private final long weightedSize;
+    private final long maximumWeight;
+    private final long loadCount;
+    private final long deduplicatedLoadCount;
+    private final long staleHitCount;
+    private final long refreshCount;
+    private final long estimatedBytes;
+    private final long sweptEntryCount;
+    private final long sweptBytes;
+    private final long recipeEntryCount;
+    private final long recipeHitCount;
+    private final long recipeMissCount;
+    private final long tagInvalidationCount;
+    private final long emptyResultEntryCount;
+    private final long emptyResultHitCount;
+    private final long encodedHitCount;
+
+    public CacheStatsDto(
+            long hitCount,
+            long missCount,
+            long evictionCount,
+            long entryCount,
+            long weightedSize,
+            long maximumWeight,
+            long loadCount,
+            long deduplicatedLoadCount,
+            long staleHitCount,
+            long refreshCount,
+            long estimatedBytes,
+            long sweptEntryCount,
+            long sweptBytes,
+            long recipeEntryCount,
+            long recipeHitCount,
+            long recipeMissCount,
+            long tagInvalidationCount,
+            long emptyResultEntryCount,
+            long emptyResultHitCount,
+            long encodedHitCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.entryCount = entryCount;
+        this.weightedSize = weightedSize;
+        this.maximumWeight = maximumWeight;
+        this.loadCount = loadCount;
+        this.deduplicatedLoadCount = deduplicatedLoadCount;
+        this.staleHitCount = staleHitCount;
+        this.refreshCount = refreshCount;
+        this.estimatedBytes = estimatedBytes;
+        this.sweptEntryCount = sweptEntryCount;
+        this.sweptBytes = sweptBytes;
+        this.recipeEntryCount = recipeEntryCount;
+        this.recipeHitCount = recipeHitCount;
+        this.recipeMissCount = recipeMissCount;
+        this.tagInvalidationCount = tagInvalidationCount;
+        this.emptyResultEntryCount = emptyResultEntryCount;
+        this.emptyResultHitCount = emptyResultHitCount;
+        this.encodedHitCount = encodedHitCount;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    public long getDeduplicatedLoadCount() {
+        return deduplicatedLoadCount;
+    }
+
+    public long getStaleHitCount() {
+        return staleHitCount;
+    }
+
+    public long getRefreshCount() {
+        return refreshCount;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public long getSweptEntryCount() {
+        return sweptEntryCount;
+    }
+
+    public long getSweptBytes() {
+        return sweptBytes;
+    }
+
+    public long getRecipeEntryCount() {
+        return recipeEntryCount;
+    }
+
+    public long getRecipeHitCount() {
+        return recipeHitCount;
+    }
+
+    public long getRecipeMissCount() {
+        return recipeMissCount;
+    }
+
+    public long getTagInvalidationCount() {
+        return tagInvalidationCount;
+    }
+
+    public long getEmptyResultEntryCount() {
+        return emptyResultEntryCount;
+    }
+
+    public long getEmptyResultHitCount() {
+        return emptyResultHitCount;
+    }
+
+    public long getEncodedHitCount() {
+        return encodedHitCount;
+    }
+}
@@ -0,0 +1,36 @@
+package recipeservice.dto;
+
+public class EntityCacheRegionStatsDto {
+    private final String region;
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+
+    public EntityCacheRegionStatsDto(String region, long hitCount, long missCount, long putCount) {
+        this.region = region;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public Double getHitRatio() {
+        long requests = hitCount + missCount;
+        return requests > 0 ? (double) hitCount / requests : null;
+    }
+}
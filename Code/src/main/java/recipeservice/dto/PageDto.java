@@ -0,0 +1,21 @@
+package recipeservice.dto;
+
+import java.util.List;
+
+public class PageDto<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public PageDto(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,40 @@
+package recipeservice.dto;
+
+import java.util.List;
+
+public class PantryMatchDto {
+    private final Long id;
+    private final String title;
+    private final int matchedCount;
+    private final int missingCount;
+    private final List<IngredientDto> missingIngredients;
+
+    public PantryMatchDto(Long id, String title, int matchedCount, int missingCount,
+                          List<IngredientDto> missingIngredients) {
+        this.id = id;
+        this.title = title;
+        this.matchedCount = matchedCount;
+        this.missingCount = missingCount;
+        this.missingIngredients = missingIngredients;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public int getMatchedCount() {
+        return matchedCount;
+    }
+
+    public int getMissingCount() {
+        return missingCount;
+    }
+
+    public List<IngredientDto> getMissingIngredients() {
+        return missingIngredients;
+    }
+}
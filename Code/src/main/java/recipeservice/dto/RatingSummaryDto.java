@@ -0,0 +1,34 @@
+package recipeservice.dto;
+
+import java.util.List;
+
+public class RatingSummaryDto {
+    private final long count;
+    private final long sum;
+    private final List<Long> histogram;
+
+    public RatingSummaryDto(long count, long sum, List<Long> histogram) {
+        this.count = count;
+        this.sum = sum;
+        this.histogram = histogram;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public Double getAverage() {
+        return count > 0 ? (double) sum / count : null;
+    }
+
+    /**
+     * Number of reviews with each rating, from 1 to 5.
+     */
+    public List<Long> getHistogram() {
+        return histogram;
+    }
+}
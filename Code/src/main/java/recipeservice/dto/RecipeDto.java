@@ -1,5 +1,7 @@
 package recipeservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.util.List;
@@ -17,19 +19,52 @@ public class RecipeDto {
     private final List<ReviewDto> reviews;
     @NotNull(message = "Кухня не может быть пустой")
     private final CuisineDto cuisine;
+    private final RatingSummaryDto rating;
+    // Версия строки рецепта попадает в ETag, а не в тело ответа
+    @JsonIgnore
+    private final Long version;
 
+    @JsonCreator
     public RecipeDto(
             Long id, String title,
             String description,
             List<IngredientDto> ingredients,
             List<ReviewDto> reviews,
             CuisineDto cuisine) {
+        this(id, title, description, ingredients, reviews, cuisine, null);
+    }
+
+    public RecipeDto(
+            Long id, String title,
+            String description,
+            List<IngredientDto> ingredients,
+            List<ReviewDto> reviews,
+            CuisineDto cuisine,
+            Long version) {
         this.id = id;
         this.title = title;
         this.description = description;
         this.ingredients = ingredients;
         this.reviews = reviews;
         this.cuisine = cuisine;
+        this.rating = null;
+        this.version = version;
+    }
+
+    // Сводка оценок вычисляется сервером, поэтому во входящем JSON не читается
+    private RecipeDto(RecipeDto recipe, RatingSummaryDto rating) {
+        this.id = recipe.id;
+        this.title = recipe.title;
+        this.description = recipe.description;
+        this.ingredients = recipe.ingredients;
+        this.reviews = recipe.reviews;
+        this.cuisine = recipe.cuisine;
+        this.rating = rating;
+        this.version = recipe.version;
+    }
+
+    public RecipeDto withRating(RatingSummaryDto rating) {
+        return new RecipeDto(this, rating);
     }
 
     public Long getId() {
@@ -55,4 +90,12 @@ public class RecipeDto {
     public CuisineDto getCuisine() {
         return cuisine;
     }
+
+    public RatingSummaryDto getRating() {
+        return rating;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
 }
\ No newline at end of file
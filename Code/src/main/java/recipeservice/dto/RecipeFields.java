@@ -0,0 +1,95 @@
+package recipeservice.dto;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import recipeservice.exception.CustomException;
+
+/**
+ * The parts of a recipe a response carries, taken from the {@code fields} and {@code include}
+ * request parameters. The DAO reads only the selected columns and joins, and reviews and
+ * ratings are not looked up unless selected.
+ *
+ * <p>{@code fields} lists the properties to return; the id is always returned. {@code include}
+ * lists the collections, {@code ingredients} and {@code reviews}, and overrides whatever
+ * {@code fields} says about them. Without either parameter the whole recipe is returned.
+ */
+public final class RecipeFields {
+    public enum Field {
+        ID, TITLE, DESCRIPTION, CUISINE, INGREDIENTS, REVIEWS, RATING;
+
+        public String jsonName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public static final RecipeFields ALL = new RecipeFields(EnumSet.allOf(Field.class));
+
+    private static final Set<Field> INCLUDABLE = EnumSet.of(Field.INGREDIENTS, Field.REVIEWS);
+
+    private final Set<Field> fields;
+    private final Set<String> jsonNames;
+
+    private RecipeFields(Set<Field> fields) {
+        this.fields = Collections.unmodifiableSet(fields);
+        Set<String> names = new LinkedHashSet<>();
+        fields.forEach(field -> names.add(field.jsonName()));
+        this.jsonNames = Collections.unmodifiableSet(names);
+    }
+
+    public static RecipeFields parse(String fields, String include) {
+        if (fields == null && include == null) {
+            return ALL;
+        }
+        Set<Field> selected = EnumSet.allOf(Field.class);
+        if (fields != null) {
+            selected = EnumSet.of(Field.ID);
+            selected.addAll(parseList(fields, EnumSet.allOf(Field.class),
+                    "Неизвестное поле рецепта: "));
+        }
+        if (include != null) {
+            selected.removeAll(INCLUDABLE);
+            selected.addAll(parseList(include, INCLUDABLE, "Неизвестная связь рецепта: "));
+        }
+        return selected.size() == Field.values().length ? ALL : new RecipeFields(selected);
+    }
+
+    public RecipeFields without(Field field) {
+        Set<Field> selected = EnumSet.copyOf(fields);
+        selected.remove(field);
+        return new RecipeFields(selected);
+    }
+
+    public boolean has(Field field) {
+        return fields.contains(field);
+    }
+
+    public boolean isAll() {
+        return fields.size() == Field.values().length;
+    }
+
+    /**
+     * Returns the JSON property names of the selected fields.
+     */
+    public Set<String> jsonNames() {
+        return jsonNames;
+    }
+
+    private static Set<Field> parseList(String list, Set<Field> allowed, String error) {
+        Set<Field> parsed = EnumSet.noneOf(Field.class);
+        for (String name : list.split(",")) {
+            String normalized = name.strip().toLowerCase(Locale.ROOT);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            Field field = allowed.stream()
+                    .filter(candidate -> candidate.jsonName().equals(normalized))
+                    .findFirst()
+                    .orElseThrow(() -> new CustomException(error + name.strip()));
+            parsed.add(field);
+        }
+        return parsed;
+    }
+}
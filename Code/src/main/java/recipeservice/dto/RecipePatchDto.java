@@ -0,0 +1,49 @@
+package recipeservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import java.util.List;
+
+/**
+ * Partial update of a recipe: null properties are left as they are, and ingredients are
+ * linked or unlinked one by one instead of the whole list being replaced.
+ */
+public class RecipePatchDto {
+    private final String title;
+    private final String description;
+    private final Long cuisineId;
+    private final List<Long> addIngredientIds;
+    private final List<Long> removeIngredientIds;
+
+    @JsonCreator
+    public RecipePatchDto(String title,
+                          String description,
+                          Long cuisineId,
+                          List<Long> addIngredientIds,
+                          List<Long> removeIngredientIds) {
+        this.title = title;
+        this.description = description;
+        this.cuisineId = cuisineId;
+        this.addIngredientIds = addIngredientIds != null ? addIngredientIds : List.of();
+        this.removeIngredientIds = removeIngredientIds != null ? removeIngredientIds : List.of();
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Long getCuisineId() {
+        return cuisineId;
+    }
+
+    public List<Long> getAddIngredientIds() {
+        return addIngredientIds;
+    }
+
+    public List<Long> getRemoveIngredientIds() {
+        return removeIngredientIds;
+    }
+}
@@ -0,0 +1,25 @@
+package recipeservice.dto;
+
+public class SearchHitDto {
+    private final Long id;
+    private final String title;
+    private final float score;
+
+    public SearchHitDto(Long id, String title, float score) {
+        this.id = id;
+        this.title = title;
+        this.score = score;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public float getScore() {
+        return score;
+    }
+}
@@ -1,12 +1,19 @@
 package recipeservice.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Cuisine.CACHE_REGION)
 public class Cuisine {
+    public static final String CACHE_REGION = "cuisine";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -1,12 +1,19 @@
 package recipeservice.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Ingredient.CACHE_REGION)
 public class Ingredient {
+    public static final String CACHE_REGION = "ingredient";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -10,12 +10,27 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Version;
 import java.util.ArrayList;
 import java.util.List;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@NamedEntityGraph(name = Recipe.WITH_CUISINE_AND_INGREDIENTS, attributeNodes = {
+    @NamedAttributeNode("cuisine"),
+    @NamedAttributeNode("ingredients")
+})
+@NamedEntityGraph(name = Recipe.WITH_REVIEWS, attributeNodes = @NamedAttributeNode("reviews"))
 public class Recipe {
+    public static final String WITH_CUISINE_AND_INGREDIENTS = "Recipe.withCuisineAndIngredients";
+    public static final String WITH_REVIEWS = "Recipe.withReviews";
+    public static final String INGREDIENTS_ROLE = "recipeservice.model.Recipe.ingredients";
+    public static final String INGREDIENTS_CACHE_REGION = "recipe.ingredients";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -23,7 +38,12 @@ public class Recipe {
     private String title;
     private String description;
 
+    // Версия строки для If-Match: PUT проверяет ее через merge, PATCH - условием в UPDATE
+    @Version
+    private Long version;
+
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = INGREDIENTS_CACHE_REGION)
     @JoinTable(
             name = "recipe_ingredients",
             joinColumns = @JoinColumn(name = "recipe_id"),
@@ -63,6 +83,14 @@ public class Recipe {
         return cuisine;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -0,0 +1,205 @@
+package recipeservice.search;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Set of non-negative ints split by their high 16 bits into chunks of 65536 values. A chunk
+ * with few members keeps them as a sorted {@code char[]}, two bytes each; once it holds more
+ * than {@value #MAX_ARRAY_SIZE} it switches to a plain 8 KB bit set, which is smaller from that
+ * point on. Sparse and dense id ranges both stay compact, and iteration is in ascending order.
+ */
+final class CompressedBitmap {
+    static final int MAX_ARRAY_SIZE = 4096;
+
+    private char[] keys = new char[4];
+    private Object[] chunks = new Object[4];
+    private int[] sizes = new int[4];
+    private int chunkCount;
+    private int cardinality;
+
+    boolean add(int value) {
+        checkValue(value);
+        int index = findChunk(highBits(value));
+        if (index < 0) {
+            index = -index - 1;
+            insertChunk(index, highBits(value));
+        }
+        char low = (char) value;
+        Object chunk = chunks[index];
+        int size = sizes[index];
+        if (chunk instanceof long[] words) {
+            long mask = 1L << low;
+            if ((words[low >>> 6] & mask) != 0) {
+                return false;
+            }
+            words[low >>> 6] |= mask;
+        } else {
+            char[] values = (char[]) chunk;
+            int position = Arrays.binarySearch(values, 0, size, low);
+            if (position >= 0) {
+                return false;
+            }
+            position = -position - 1;
+            if (size == MAX_ARRAY_SIZE) {
+                long[] words = toWords(values, size);
+                words[low >>> 6] |= 1L << low;
+                chunks[index] = words;
+            } else {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, values.length * 2));
+                    chunks[index] = values;
+                }
+                System.arraycopy(values, position, values, position + 1, size - position);
+                values[position] = low;
+            }
+        }
+        sizes[index]++;
+        cardinality++;
+        return true;
+    }
+
+    boolean remove(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = findChunk(highBits(value));
+        if (index < 0) {
+            return false;
+        }
+        char low = (char) value;
+        Object chunk = chunks[index];
+        int size = sizes[index];
+        if (chunk instanceof long[] words) {
+            long mask = 1L << low;
+            if ((words[low >>> 6] & mask) == 0) {
+                return false;
+            }
+            words[low >>> 6] &= ~mask;
+            if (size - 1 == MAX_ARRAY_SIZE) {
+                chunks[index] = toValues(words, MAX_ARRAY_SIZE);
+            }
+        } else {
+            char[] values = (char[]) chunk;
+            int position = Arrays.binarySearch(values, 0, size, low);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+        }
+        cardinality--;
+        if (--sizes[index] == 0) {
+            removeChunk(index);
+        }
+        return true;
+    }
+
+    boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = findChunk(highBits(value));
+        if (index < 0) {
+            return false;
+        }
+        char low = (char) value;
+        if (chunks[index] instanceof long[] words) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) chunks[index], 0, sizes[index], low) >= 0;
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    long bytes() {
+        long bytes = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            bytes += chunks[i] instanceof long[] words ? words.length * 8L : sizes[i] * 2L;
+        }
+        return bytes;
+    }
+
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < chunkCount; i++) {
+            int high = keys[i] << 16;
+            if (chunks[i] instanceof long[] words) {
+                for (int word = 0; word < words.length; word++) {
+                    long bits = words[word];
+                    while (bits != 0) {
+                        action.accept(high | word << 6 | Long.numberOfTrailingZeros(bits));
+                        bits &= bits - 1;
+                    }
+                }
+            } else {
+                char[] values = (char[]) chunks[i];
+                for (int j = 0; j < sizes[i]; j++) {
+                    action.accept(high | values[j]);
+                }
+            }
+        }
+    }
+
+    private int findChunk(char key) {
+        return Arrays.binarySearch(keys, 0, chunkCount, key);
+    }
+
+    private void insertChunk(int index, char key) {
+        if (chunkCount == keys.length) {
+            keys = Arrays.copyOf(keys, chunkCount * 2);
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            sizes = Arrays.copyOf(sizes, chunkCount * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, chunkCount - index);
+        System.arraycopy(chunks, index, chunks, index + 1, chunkCount - index);
+        System.arraycopy(sizes, index, sizes, index + 1, chunkCount - index);
+        keys[index] = key;
+        chunks[index] = new char[4];
+        sizes[index] = 0;
+        chunkCount++;
+    }
+
+    private void removeChunk(int index) {
+        System.arraycopy(keys, index + 1, keys, index, chunkCount - index - 1);
+        System.arraycopy(chunks, index + 1, chunks, index, chunkCount - index - 1);
+        System.arraycopy(sizes, index + 1, sizes, index, chunkCount - index - 1);
+        chunkCount--;
+        chunks[chunkCount] = null;
+    }
+
+    private static long[] toWords(char[] values, int size) {
+        long[] words = new long[1024];
+        for (int i = 0; i < size; i++) {
+            words[values[i] >>> 6] |= 1L << values[i];
+        }
+        return words;
+    }
+
+    private static char[] toValues(long[] words, int size) {
+        char[] values = new char[size];
+        int next = 0;
+        for (int word = 0; word < words.length; word++) {
+            long bits = words[word];
+            while (bits != 0) {
+                values[next++] = (char) (word << 6 | Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        return values;
+    }
+
+    private static char highBits(int value) {
+        return (char) (value >>> 16);
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+    }
+}
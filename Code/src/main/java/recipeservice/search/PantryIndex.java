@@ -0,0 +1,244 @@
+package recipeservice.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the recipe-ingredient links for "what can I cook" queries: a
+ * {@link CompressedBitmap} of recipe ids per ingredient and the number of ingredients of
+ * every recipe. Matching a pantry walks only the bitmaps of the ingredients in it, counting
+ * per recipe how many of its ingredients are at hand; the rest are missing.
+ *
+ * <p>Recipe ids are used as bitmap values directly and must fit in an int. A recipe without
+ * ingredients is not indexed. Not thread-safe: callers serialize writes against queries.
+ */
+public class PantryIndex {
+    private final Map<Long, CompressedBitmap> recipesByIngredient = new HashMap<>();
+    private int[] ingredientCounts = new int[16];
+    private int recipeCount;
+
+    /**
+     * Replaces the ingredients of a recipe; an empty collection removes it.
+     */
+    public void put(long recipeId, Collection<Long> ingredientIds) {
+        int recipe = toValue(recipeId);
+        remove(recipeId);
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>(ingredientIds);
+        if (distinct.isEmpty()) {
+            return;
+        }
+        ensureCapacity(recipe + 1);
+        for (Long ingredientId : distinct) {
+            recipesByIngredient.computeIfAbsent(ingredientId, id -> new CompressedBitmap())
+                    .add(recipe);
+        }
+        ingredientCounts[recipe] = distinct.size();
+        recipeCount++;
+    }
+
+    public boolean remove(long recipeId) {
+        int recipe = toValue(recipeId);
+        int remaining = recipe < ingredientCounts.length ? ingredientCounts[recipe] : 0;
+        if (remaining == 0) {
+            return false;
+        }
+        // Состав рецепта не хранится: он снимается со всех битовых карт, пока счетчик не обнулится
+        Iterator<Map.Entry<Long, CompressedBitmap>> entries =
+                recipesByIngredient.entrySet().iterator();
+        while (remaining > 0 && entries.hasNext()) {
+            CompressedBitmap recipes = entries.next().getValue();
+            if (recipes.remove(recipe)) {
+                remaining--;
+                if (recipes.isEmpty()) {
+                    entries.remove();
+                }
+            }
+        }
+        ingredientCounts[recipe] = 0;
+        recipeCount--;
+        return true;
+    }
+
+    /**
+     * Drops an ingredient from every recipe that used it. Recipes left without ingredients
+     * are no longer indexed.
+     */
+    public void removeIngredient(long ingredientId) {
+        CompressedBitmap recipes = recipesByIngredient.remove(ingredientId);
+        if (recipes == null) {
+            return;
+        }
+        recipes.forEach(recipe -> {
+            if (--ingredientCounts[recipe] == 0) {
+                recipeCount--;
+            }
+        });
+    }
+
+    public int size() {
+        return recipeCount;
+    }
+
+    public int ingredientCount() {
+        return recipesByIngredient.size();
+    }
+
+    public long bitmapBytes() {
+        long bytes = 0;
+        for (CompressedBitmap recipes : recipesByIngredient.values()) {
+            bytes += recipes.bytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns recipes sharing at least one ingredient with the pantry and missing at most
+     * {@code maxMissing} ingredients: fewest missing first, then most matched, then by recipe
+     * id. Skips the first {@code offset} of them and returns up to {@code limit}.
+     */
+    public List<Match> match(Collection<Long> pantry, int maxMissing, int offset, int limit) {
+        List<CompressedBitmap> bitmaps = new ArrayList<>();
+        long postingCount = 0;
+        for (Long ingredientId : new LinkedHashSet<>(pantry)) {
+            CompressedBitmap recipes = recipesByIngredient.get(ingredientId);
+            if (recipes != null) {
+                bitmaps.add(recipes);
+                postingCount += recipes.cardinality();
+            }
+        }
+        if (bitmaps.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // Кандидатов немного: запоминаем их по ходу, иначе дешевле пройти по всем рецептам подряд
+        boolean sparse = postingCount < ingredientCounts.length / 16;
+        int[] matched = new int[ingredientCounts.length];
+        int[] candidates = new int[sparse ? (int) postingCount : 0];
+        int[] candidateCount = new int[1];
+        for (CompressedBitmap recipes : bitmaps) {
+            recipes.forEach(recipe -> {
+                if (matched[recipe]++ == 0 && sparse) {
+                    candidates[candidateCount[0]++] = recipe;
+                }
+            });
+        }
+
+        // Ключ сортировки упакован в long: недостающие, затем совпавшие по убыванию, затем id
+        int total = sparse ? candidateCount[0] : matched.length;
+        long[] heap = new long[(int) Math.min((long) offset + limit, Math.min(total, recipeCount))];
+        int heapSize = 0;
+        for (int i = 0; i < total; i++) {
+            int recipe = sparse ? candidates[i] : i;
+            if (matched[recipe] == 0) {
+                continue;
+            }
+            int missing = ingredientCounts[recipe] - matched[recipe];
+            if (missing > maxMissing) {
+                continue;
+            }
+            long key = sortKey(missing, matched[recipe], recipe);
+            if (heapSize < heap.length) {
+                heap[heapSize++] = key;
+                siftUp(heap, heapSize - 1);
+            } else if (key < heap[0]) {
+                heap[0] = key;
+                siftDown(heap, heapSize);
+            }
+        }
+
+        long[] keys = Arrays.copyOf(heap, heapSize);
+        Arrays.sort(keys);
+        List<Match> matches = new ArrayList<>();
+        for (int i = offset; i < keys.length; i++) {
+            int recipe = (int) (keys[i] & Integer.MAX_VALUE);
+            matches.add(new Match(recipe, matched[recipe],
+                    ingredientCounts[recipe] - matched[recipe]));
+        }
+        return matches;
+    }
+
+    private static long sortKey(int missing, int matched, int recipe) {
+        long missingPart = Math.min(missing, 0xFFFF);
+        long matchedPart = 0xFFFF - Math.min(matched, 0xFFFF);
+        return missingPart << 47 | matchedPart << 31 | recipe;
+    }
+
+    // Куча держит худший из отобранных ключей в вершине
+    private static void siftUp(long[] heap, int index) {
+        long key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= key) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ingredientCounts.length) {
+            int newLength = (int) Math.min(Integer.MAX_VALUE,
+                    Math.max(capacity, (long) ingredientCounts.length * 2));
+            ingredientCounts = Arrays.copyOf(ingredientCounts, newLength);
+        }
+    }
+
+    private static int toValue(long recipeId) {
+        if (recipeId < 0 || recipeId >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Recipe id out of range: " + recipeId);
+        }
+        return (int) recipeId;
+    }
+
+    public static final class Match {
+        private final long recipeId;
+        private final int matched;
+        private final int missing;
+
+        Match(long recipeId, int matched, int missing) {
+            this.recipeId = recipeId;
+            this.matched = matched;
+            this.missing = missing;
+        }
+
+        public long getRecipeId() {
+            return recipeId;
+        }
+
+        public int getMatched() {
+            return matched;
+        }
+
+        public int getMissing() {
+            return missing;
+        }
+    }
+}
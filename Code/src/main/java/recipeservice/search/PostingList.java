@@ -0,0 +1,89 @@
+package recipeservice.search;
+
+import java.util.Arrays;
+
+/**
+ * Postings of one term: ascending document numbers with their term frequencies, stored as
+ * variable-length encoded gaps. A document number and a small frequency usually take two or
+ * three bytes instead of the twelve a pair of int fields would.
+ */
+final class PostingList {
+    private byte[] data = new byte[8];
+    private int length;
+    private int lastDoc = -1;
+    private int size;
+
+    void add(int doc, int frequency) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("Documents must be added in ascending order");
+        }
+        writeVarInt(doc - lastDoc);
+        writeVarInt(frequency);
+        lastDoc = doc;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int bytes() {
+        return length;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void writeVarInt(int value) {
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+        }
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    /**
+     * Forward-only reader; {@link #next()} must return true before the first access.
+     */
+    final class Cursor {
+        private int position;
+        private int doc = -1;
+        private int frequency;
+
+        boolean next() {
+            if (position >= length) {
+                return false;
+            }
+            doc += readVarInt();
+            frequency = readVarInt();
+            return true;
+        }
+
+        int doc() {
+            return doc;
+        }
+
+        int frequency() {
+            return frequency;
+        }
+
+        private int readVarInt() {
+            byte b = data[position++];
+            if (b >= 0) {
+                return b; // Частота и короткий разрыв почти всегда помещаются в байт
+            }
+            int value = b & 0x7F;
+            int shift = 7;
+            do {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package recipeservice.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory inverted index over recipe titles and bodies, ranked with BM25.
+ *
+ * <p>Each indexed version of a recipe is a document with a dense number. Postings only ever
+ * grow at the end: replacing a recipe retires its old document and appends a new one, and
+ * removing it just retires the document. Retired documents are skipped while scoring and
+ * dropped, with the remaining documents renumbered, once they make up a quarter of the index.
+ * Until then they still count in document frequencies, which only shifts idf slightly.
+ *
+ * <p>Title terms count {@value #TITLE_WEIGHT} times. A recipe may be put with the ids of its
+ * ingredients, so that the recipes to reindex after an ingredient changes are known without
+ * asking the database. Not thread-safe: callers serialize writes against searches.
+ */
+public class SearchIndex {
+    static final int TITLE_WEIGHT = 2;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MIN_RETIRED_TO_COMPACT = 1024;
+    private static final double LENGTH_STEP = 1.05;
+    private static final int TABULATED_FREQUENCIES = 8;
+
+    private Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> docByRecipe = new HashMap<>();
+    private final Map<Long, long[]> ingredientsByRecipe = new HashMap<>();
+    private final Map<Long, Set<Long>> recipesByIngredient = new HashMap<>();
+    private long[] recipeIds = new long[16];
+    private String[] titles = new String[16];
+    private int[] lengths = new int[16];
+    private byte[] lengthCodes = new byte[16];
+    private BitSet live = new BitSet();
+    private int docCount;
+    private int liveCount;
+    private long liveLength;
+
+    public void put(long recipeId, String title, String body) {
+        put(recipeId, title, body, List.of());
+    }
+
+    public void put(long recipeId, String title, String body, Collection<Long> ingredientIds) {
+        retire(recipeId);
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String term : Tokenizer.tokenize(title)) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String term : Tokenizer.tokenize(body)) {
+            frequencies.merge(term, 1, Integer::sum);
+            length++;
+        }
+
+        int doc = docCount++;
+        ensureCapacity(docCount);
+        recipeIds[doc] = recipeId;
+        titles[doc] = title;
+        lengths[doc] = length;
+        lengthCodes[doc] = encodeLength(length);
+        live.set(doc);
+        liveCount++;
+        liveLength += length;
+        docByRecipe.put(recipeId, doc);
+        frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, t -> new PostingList()).add(doc, frequency));
+        if (!ingredientIds.isEmpty()) {
+            long[] ingredients = ingredientIds.stream()
+                    .mapToLong(Long::longValue)
+                    .distinct()
+                    .toArray();
+            ingredientsByRecipe.put(recipeId, ingredients);
+            for (long ingredientId : ingredients) {
+                recipesByIngredient.computeIfAbsent(ingredientId, id -> new HashSet<>())
+                        .add(recipeId);
+            }
+        }
+        compactIfNeeded();
+    }
+
+    public boolean remove(long recipeId) {
+        boolean removed = retire(recipeId);
+        if (removed) {
+            compactIfNeeded();
+        }
+        return removed;
+    }
+
+    public int size() {
+        return liveCount;
+    }
+
+    /**
+     * Returns the ids of the indexed recipes put with the given ingredient.
+     */
+    public List<Long> recipesWithIngredient(long ingredientId) {
+        Set<Long> recipes = recipesByIngredient.get(ingredientId);
+        return recipes != null ? new ArrayList<>(recipes) : List.of();
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    public long postingBytes() {
+        long bytes = 0;
+        for (PostingList list : postings.values()) {
+            bytes += list.bytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns up to {@code limit} hits after skipping the best {@code offset}, best first;
+     * equal scores are ordered by recipe id.
+     */
+    public List<Hit> search(String query, int offset, int limit) {
+        if (liveCount == 0 || limit <= 0) {
+            return List.of();
+        }
+        List<PostingList> lists = new ArrayList<>();
+        long postingCount = 0;
+        for (String term : new LinkedHashSet<>(Tokenizer.tokenize(query))) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                lists.add(list);
+                postingCount += list.size();
+            }
+        }
+        if (lists.isEmpty()) {
+            return List.of();
+        }
+
+        // Нормировка BM25 зависит только от длины документа: 256 значений на запрос
+        float averageLength = (float) liveLength / liveCount;
+        float[] norms = new float[256];
+        for (int code = 0; code < norms.length; code++) {
+            norms[code] = K1 * (1 - B + B * decodeLength(code) / averageLength);
+        }
+        // Кандидатов немного: запоминаем их по ходу, иначе дешевле пройти по всем документам
+        boolean sparse = postingCount < docCount / 16;
+        float[] scores = new float[docCount];
+        int[] touched = new int[sparse ? (int) postingCount : 0];
+        int touchedCount = 0;
+        for (PostingList list : lists) {
+            double df = list.size();
+            // Списанные документы входят в df, и idf частого термина может уйти в минус
+            float idf = Math.max((float) Math.log(1 + (liveCount - df + 0.5) / (df + 0.5)), 1e-6f);
+            touchedCount = accumulate(list, idf * (K1 + 1), norms, scores, touched, touchedCount);
+        }
+
+        // Списанные документы отсеиваются здесь, а не в цикле подсчёта
+        int candidates = sparse ? touchedCount : docCount;
+        int[] heap = new int[(int) Math.min((long) offset + limit, sparse ? touchedCount : liveCount)];
+        int heapSize = 0;
+        float threshold = 0;
+        for (int i = 0; i < candidates; i++) {
+            int doc = sparse ? touched[i] : i;
+            // Порог отсекает почти всех кандидатов одним сравнением
+            if (scores[doc] < threshold || scores[doc] == 0 || !live.get(doc)) {
+                continue;
+            }
+            if (heapSize < heap.length) {
+                heap[heapSize++] = doc;
+                siftUp(heap, heapSize - 1, scores);
+            } else if (better(doc, heap[0], scores)) {
+                heap[0] = doc;
+                siftDown(heap, heapSize, scores);
+            } else {
+                continue;
+            }
+            if (heapSize == heap.length) {
+                threshold = scores[heap[0]];
+            }
+        }
+        Hit[] hits = new Hit[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            int doc = heap[0];
+            hits[i] = new Hit(recipeIds[doc], titles[doc], scores[doc]);
+            heap[0] = heap[i];
+            siftDown(heap, i, scores);
+        }
+        return offset >= hits.length
+                ? List.of() : Arrays.asList(hits).subList(offset, hits.length);
+    }
+
+    /**
+     * Adds one term's contribution to the scores; when {@code touched} has room, also records
+     * documents scored for the first time. Returns the new count of recorded documents.
+     */
+    private int accumulate(PostingList list, float weight, float[] norms, float[] scores,
+                           int[] touched, int touchedCount) {
+        // Вклад частых пар (частота, длина) считается заранее, без деления на каждую запись
+        float[] contributions = new float[TABULATED_FREQUENCIES << 8];
+        for (int tf = 1; tf < TABULATED_FREQUENCIES; tf++) {
+            for (int code = 0; code < 256; code++) {
+                contributions[tf << 8 | code] = weight * tf / (tf + norms[code]);
+            }
+        }
+        boolean track = touched.length > 0;
+        PostingList.Cursor cursor = list.cursor();
+        while (cursor.next()) {
+            int doc = cursor.doc();
+            int tf = cursor.frequency();
+            int code = lengthCodes[doc] & 0xFF;
+            if (track && scores[doc] == 0) {
+                touched[touchedCount++] = doc;
+            }
+            scores[doc] += tf < TABULATED_FREQUENCIES
+                    ? contributions[tf << 8 | code] : weight * tf / (tf + norms[code]);
+        }
+        return touchedCount;
+    }
+
+    // Куча держит худший из лучших документов в вершине, без упаковки в Integer
+    private boolean better(int doc, int other, float[] scores) {
+        if (scores[doc] != scores[other]) {
+            return scores[doc] > scores[other];
+        }
+        return recipeIds[doc] < recipeIds[other];
+    }
+
+    private void siftUp(int[] heap, int index, float[] scores) {
+        int doc = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!better(heap[parent], doc, scores)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = doc;
+    }
+
+    private void siftDown(int[] heap, int size, float[] scores) {
+        if (size == 0) {
+            return;
+        }
+        int doc = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && better(heap[child], heap[child + 1], scores)) {
+                child++;
+            }
+            if (!better(doc, heap[child], scores)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = doc;
+    }
+
+    private boolean retire(long recipeId) {
+        Integer doc = docByRecipe.remove(recipeId);
+        if (doc == null) {
+            return false;
+        }
+        long[] ingredients = ingredientsByRecipe.remove(recipeId);
+        if (ingredients != null) {
+            for (long ingredientId : ingredients) {
+                Set<Long> recipes = recipesByIngredient.get(ingredientId);
+                recipes.remove(recipeId);
+                if (recipes.isEmpty()) {
+                    recipesByIngredient.remove(ingredientId);
+                }
+            }
+        }
+        live.clear(doc);
+        titles[doc] = null;
+        liveCount--;
+        liveLength -= lengths[doc];
+        return true;
+    }
+
+    private void compactIfNeeded() {
+        int retired = docCount - liveCount;
+        if (retired >= MIN_RETIRED_TO_COMPACT && retired * 4 >= docCount) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        int[] renumbered = new int[docCount];
+        long[] newRecipeIds = new long[Math.max(16, liveCount)];
+        String[] newTitles = new String[newRecipeIds.length];
+        int[] newLengths = new int[newRecipeIds.length];
+        byte[] newLengthCodes = new byte[newRecipeIds.length];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (live.get(doc)) {
+                renumbered[doc] = next;
+                newRecipeIds[next] = recipeIds[doc];
+                newTitles[next] = titles[doc];
+                newLengths[next] = lengths[doc];
+                newLengthCodes[next] = lengthCodes[doc];
+                docByRecipe.put(recipeIds[doc], next);
+                next++;
+            } else {
+                renumbered[doc] = -1;
+            }
+        }
+
+        Map<String, PostingList> newPostings = new HashMap<>();
+        postings.forEach((term, list) -> {
+            PostingList compacted = new PostingList();
+            PostingList.Cursor cursor = list.cursor();
+            while (cursor.next()) {
+                int doc = renumbered[cursor.doc()];
+                if (doc >= 0) {
+                    compacted.add(doc, cursor.frequency());
+                }
+            }
+            if (compacted.size() > 0) {
+                newPostings.put(term, compacted);
+            }
+        });
+
+        postings = newPostings;
+        recipeIds = newRecipeIds;
+        titles = newTitles;
+        lengths = newLengths;
+        lengthCodes = newLengthCodes;
+        live = new BitSet(next);
+        live.set(0, next);
+        docCount = next;
+    }
+
+    /**
+     * Packs a document length into a byte: exact below 128, then in 5% steps, which is finer
+     * than BM25 length normalization can tell apart.
+     */
+    static byte encodeLength(int length) {
+        if (length < 128) {
+            return (byte) length;
+        }
+        long code = 128 + Math.round(Math.log(length / 128.0) / Math.log(LENGTH_STEP));
+        return (byte) Math.min(code, 255);
+    }
+
+    static float decodeLength(int code) {
+        return code < 128 ? code : (float) (128 * Math.pow(LENGTH_STEP, code - 128));
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > recipeIds.length) {
+            int newLength = Math.max(capacity, recipeIds.length * 2);
+            recipeIds = Arrays.copyOf(recipeIds, newLength);
+            titles = Arrays.copyOf(titles, newLength);
+            lengths = Arrays.copyOf(lengths, newLength);
+            lengthCodes = Arrays.copyOf(lengthCodes, newLength);
+        }
+    }
+
+    public static final class Hit {
+        private final long recipeId;
+        private final String title;
+        private final float score;
+
+        Hit(long recipeId, String title, float score) {
+            this.recipeId = recipeId;
+            this.title = title;
+            this.score = score;
+        }
+
+        public long getRecipeId() {
+            return recipeId;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+}
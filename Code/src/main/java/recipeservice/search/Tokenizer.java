@@ -0,0 +1,81 @@
+package recipeservice.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits Russian and English text into index terms: lower-cased runs of letters and digits,
+ * with {@code ё} folded into {@code е}, stop words dropped and common inflectional endings
+ * stripped, so that "томаты", "томатов" and "томат" meet on one term. The stemming is
+ * deliberately light; documents and queries go through the same rules, which is all ranking
+ * needs.
+ */
+public final class Tokenizer {
+    private static final int MIN_STEM_LENGTH = 3;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "и", "в", "во", "на", "с", "со", "по", "для", "из", "к", "ко", "о", "об", "от",
+            "до", "за", "не", "но", "а", "или", "как", "что", "это", "то", "же", "бы", "у",
+            "the", "a", "an", "and", "or", "of", "in", "on", "to", "for", "with", "by",
+            "at", "from", "is", "are", "be", "it", "as", "this", "that");
+
+    // Окончания проверяются от длинных к коротким
+    private static final String[] RUSSIAN_ENDINGS = {
+        "иями", "ями", "ами", "его", "ого", "ему", "ому", "ыми", "ими", "иях", "ах", "ях",
+        "ов", "ев", "ей", "ой", "ий", "ый", "ая", "яя", "ое", "ее", "ые", "ие", "ам", "ям",
+        "ом", "ем", "ую", "юю", "ы", "и", "а", "я", "о", "е", "у", "ю", "ь", "й"
+    };
+
+    private static final String[] ENGLISH_ENDINGS = {"ing", "ed", "es", "s"};
+
+    private Tokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length()
+                    && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addTerm(normalized.substring(start, i), terms);
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerm(String word, List<String> terms) {
+        if (word.length() < 2 || STOP_WORDS.contains(word)) {
+            return;
+        }
+        terms.add(stem(word));
+    }
+
+    static String stem(String word) {
+        String[] endings = isCyrillic(word.charAt(word.length() - 1))
+                ? RUSSIAN_ENDINGS : ENGLISH_ENDINGS;
+        for (String ending : endings) {
+            if (word.endsWith(ending) && word.length() - ending.length() >= MIN_STEM_LENGTH) {
+                String stem = word.substring(0, word.length() - ending.length());
+                if (ending.equals("s") && stem.endsWith("s")) {
+                    return word; // "glass", "grass"
+                }
+                return stem;
+            }
+        }
+        return word;
+    }
+
+    private static boolean isCyrillic(char c) {
+        return Character.UnicodeBlock.of(c) == Character.UnicodeBlock.CYRILLIC;
+    }
+}
@@ -1,90 +1,558 @@
 package recipeservice.service;
 
+import jakarta.annotation.PreDestroy;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import recipeservice.cache.BoundedCache;
+import recipeservice.cache.InvalidationBus;
+import recipeservice.cache.RemovalCause;
+import recipeservice.cache.SingleFlight;
+import recipeservice.cache.TagIndex;
+import recipeservice.cache.TimingWheel;
+import recipeservice.dto.CacheStatsDto;
 import recipeservice.dto.RecipeDto;
 
 @Service
 public class CacheService {
     private static final Logger logger = LoggerFactory.getLogger(CacheService.class);
 
-    private final int maxCacheSize = 100;
-    private final Map<String, CacheEntry> cache;
+    private static final long DEFAULT_MAX_WEIGHT = 10_000;
+    private static final long DEFAULT_REFRESH_AFTER_MS = 1000;
+    private static final long DEFAULT_EXPIRE_AFTER_MS = 10_000;
+    private static final int DEFAULT_REFRESH_THREADS = 2;
+    private static final int DEFAULT_REFRESH_QUEUE_CAPACITY = 64;
+    private static final long DEFAULT_SWEEP_INTERVAL_MS = 100;
+    private static final long DEFAULT_RECIPE_MAX_ENTRIES = 5000;
+    private static final long DEFAULT_EMPTY_RESULT_TTL_MS = 1000;
+    private static final long DEFAULT_EMPTY_RESULT_MAX_ENTRIES = 1000;
+    private static final String TAG_TOPIC = "cache.tag";
+    private static final String KEY_TOPIC = "cache.key";
+    private static final String EMPTY_RESULT_TOPIC = "cache.empty";
+
+    private final long refreshAfterMs;
+    private final long expireAfterMs;
+    private final BoundedCache<String, CacheEntry> cache;
+    private final SingleFlight<String, List<RecipeDto>> loads = new SingleFlight<>();
+    private final ThreadPoolExecutor refreshExecutor;
+    private final Set<String> refreshesInFlight = ConcurrentHashMap.newKeySet();
+    private final LongAdder refreshCount = new LongAdder();
+    private final LongAdder staleHitCount = new LongAdder();
+    private final TimingWheel<CacheEntry> expiryWheel;
+    private final ScheduledExecutorService sweeper;
+    private final LongAdder estimatedBytes = new LongAdder();
+    private final LongAdder sweptEntryCount = new LongAdder();
+    private final LongAdder sweptBytes = new LongAdder();
+    private final BoundedCache<Long, RecipeDto> recipeCache;
+    private final SingleFlight<Long, RecipeDto> recipeLoads = new SingleFlight<>();
+    private final AtomicLong invalidationGeneration = new AtomicLong();
+    private final TagIndex<CacheEntry> listTags = new TagIndex<>();
+    private final TagIndex<RecipeDto> recipeTags = new TagIndex<>();
+    private final LongAdder tagInvalidationCount = new LongAdder();
+    private final long emptyResultTtlMs;
+    private final BoundedCache<String, Long> emptyResults;
+    private final LongAdder emptyResultHitCount = new LongAdder();
+    private final LongAdder encodedHitCount = new LongAdder();
+    private volatile InvalidationBus invalidationBus;
 
     private static class CacheEntry {
-        List<RecipeDto> recipes;
-        long expiryTime;
+        final String key;
+        final List<RecipeDto> recipes;
+        final long refreshTime;
+        final long expiryTime;
+        final long estimatedBytes;
+        final Set<String> tags;
+        TimingWheel.Timer<CacheEntry> expiryTimer;
+        private EncodedResponse encoded;
+        private boolean removed;
 
-        CacheEntry(List<RecipeDto> recipes, long ttl) {
+        CacheEntry(String key, List<RecipeDto> recipes, long refreshTime, long expiryTime) {
+            this.key = key;
             this.recipes = recipes;
-            this.expiryTime = System.currentTimeMillis() + ttl;
+            this.refreshTime = refreshTime;
+            this.expiryTime = expiryTime;
+            this.estimatedBytes = RecipeSizeEstimator.estimate(recipes);
+            this.tags = CacheTags.of(recipes);
+        }
+
+        boolean needsRefresh() {
+            return System.currentTimeMillis() > refreshTime;
         }
 
         boolean isExpired() {
             return System.currentTimeMillis() > expiryTime;
         }
+
+        long weight() {
+            // Пустой список тоже занимает место, иначе такие ключи никогда не вытесняются
+            return Math.max(1, recipes.size());
+        }
     }
 
     public CacheService() {
-        this.cache = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
-                if (size() > maxCacheSize) {
-                    logger.info("Cache is full, removing eldest entry: {}", eldest.getKey());
-                    return true;
-                }
-                return false;
-            }
-        };
+        this(DEFAULT_MAX_WEIGHT);
     }
 
-    public List<RecipeDto> getCachedRecipes(String key) {
-        CacheEntry entry = cache.get(key);
-        if (entry == null || entry.isExpired()) {
-            cache.remove(key);
-            logger.debug("Cache miss for key: {}", key);
-            return null;
+    public CacheService(long maxWeight) {
+        this(maxWeight, DEFAULT_REFRESH_AFTER_MS, DEFAULT_EXPIRE_AFTER_MS,
+                DEFAULT_REFRESH_THREADS, DEFAULT_REFRESH_QUEUE_CAPACITY,
+                DEFAULT_SWEEP_INTERVAL_MS, DEFAULT_RECIPE_MAX_ENTRIES);
+    }
+
+    public CacheService(long maxWeight, long refreshAfterMs, long expireAfterMs,
+                        int refreshThreads, int refreshQueueCapacity,
+                        long sweepIntervalMs, long recipeMaxEntries) {
+        this(maxWeight, refreshAfterMs, expireAfterMs, refreshThreads, refreshQueueCapacity,
+                sweepIntervalMs, recipeMaxEntries,
+                DEFAULT_EMPTY_RESULT_TTL_MS, DEFAULT_EMPTY_RESULT_MAX_ENTRIES);
+    }
+
+    @Autowired
+    public CacheService(@Value("${recipe.cache.max-weight:10000}") long maxWeight,
+                        @Value("${recipe.cache.refresh-after-ms:1000}") long refreshAfterMs,
+                        @Value("${recipe.cache.expire-after-ms:10000}") long expireAfterMs,
+                        @Value("${recipe.cache.refresh-threads:2}") int refreshThreads,
+                        @Value("${recipe.cache.refresh-queue-capacity:64}")
+                        int refreshQueueCapacity,
+                        @Value("${recipe.cache.sweep-interval-ms:100}") long sweepIntervalMs,
+                        @Value("${recipe.cache.recipe-max-entries:5000}")
+                        long recipeMaxEntries,
+                        @Value("${recipe.cache.empty-result-ttl-ms:1000}")
+                        long emptyResultTtlMs,
+                        @Value("${recipe.cache.empty-result-max-entries:1000}")
+                        long emptyResultMaxEntries) {
+        if (refreshAfterMs > expireAfterMs) {
+            throw new IllegalArgumentException("refresh-after-ms must not exceed expire-after-ms");
         }
-        logger.info("Cache hit for key: {}", key);
-        return entry.recipes;
+        this.refreshAfterMs = refreshAfterMs;
+        this.expireAfterMs = expireAfterMs;
+        this.expiryWheel = new TimingWheel<>(sweepIntervalMs, System.currentTimeMillis());
+        this.cache = new BoundedCache<>(maxWeight, CacheEntry::weight, this::onRemoval);
+        this.recipeCache = new BoundedCache<>(recipeMaxEntries, recipe -> 1,
+                (id, recipe, cause) -> recipeTags.remove(recipe, CacheTags.of(recipe)));
+        this.emptyResultTtlMs = emptyResultTtlMs;
+        this.emptyResults = new BoundedCache<>(emptyResultMaxEntries, deadline -> 1);
+        this.refreshExecutor = newRefreshExecutor(refreshThreads, refreshQueueCapacity);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-expiry-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleAtFixedRate(this::sweepExpired,
+                sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
     }
 
-    public void cacheRecipes(String key, List<RecipeDto> recipes) {
-        long ttl = 1000;
+    public List<RecipeDto> getCachedRecipes(String key) {
+        CacheEntry entry = lookup(key);
+        return entry != null ? entry.recipes : null;
+    }
 
-        if (cache.size() >= maxCacheSize) {
-            String eldestKey = cache.keySet().iterator().next();
-            cache.remove(eldestKey);
-            logger.info("Evicting entry {} to make room", eldestKey);
+    public List<RecipeDto> getOrLoad(String key, Supplier<List<RecipeDto>> loader) {
+        CacheEntry entry = lookup(key);
+        if (entry != null) {
+            if (entry.needsRefresh()) {
+                staleHitCount.increment();
+                scheduleRefresh(key, loader);
+            }
+            return entry.recipes;
+        }
+        if (isKnownEmpty(key)) {
+            emptyResultHitCount.increment();
+            return List.of();
         }
 
-        cache.put(key, new CacheEntry(recipes, ttl));
+        return loads.load(key, () -> {
+            // Пока мы ждали своей очереди, предыдущая загрузка могла уже положить результат
+            CacheEntry current = cache.peek(key);
+            if (current != null && !current.isExpired()) {
+                return current.recipes;
+            }
+            if (isKnownEmpty(key)) {
+                return List.of();
+            }
+            return loadAndCache(key, loader);
+        });
+    }
+
+    /**
+     * Returns the list under the key as an encoded body, kept with the cache entry. The gzip
+     * variant is compressed on the first request that asks for it; bodies of results that did
+     * not end up in the cache are encoded for this request only and never compressed.
+     */
+    public EncodedResponse getOrLoadEncoded(String key, Supplier<List<RecipeDto>> loader,
+                                            Function<List<RecipeDto>, byte[]> serializer,
+                                            boolean gzip) {
+        List<RecipeDto> recipes = getOrLoad(key, loader);
+        CacheEntry entry = cache.peek(key);
+        if (entry == null || entry.recipes != recipes) {
+            // Результат не попал в кеш (пустой или уже инвалидирован): кодируем разово
+            return EncodedResponse.of(serializer.apply(recipes));
+        }
+        EncodedResponse encoded;
+        synchronized (entry) {
+            encoded = entry.encoded;
+        }
+        if (encoded != null) {
+            encodedHitCount.increment();
+            if (!gzip || encoded.getGzip() != null) {
+                return encoded;
+            }
+        }
+        EncodedResponse updated = encoded != null
+                ? encoded : EncodedResponse.of(serializer.apply(recipes));
+        if (gzip) {
+            updated = updated.withGzip();
+        }
+        synchronized (entry) {
+            EncodedResponse current = entry.encoded;
+            if (current != null && (!gzip || current.getGzip() != null)) {
+                return current;
+            }
+            if (!entry.removed) {
+                if (current != null) {
+                    estimatedBytes.add(-current.estimatedBytes());
+                }
+                entry.encoded = updated;
+                estimatedBytes.add(updated.estimatedBytes());
+            }
+        }
+        return updated;
+    }
+
+    public void cacheRecipes(String key, List<RecipeDto> recipes) {
+        long now = System.currentTimeMillis();
+        cache.put(key, newEntry(key, recipes, now + refreshAfterMs, now + expireAfterMs));
         logger.info("Cache put for key: {}", key);
     }
 
     public void removeCachedRecipes(String key) {
-        if (cache.containsKey(key)) {
-            cache.remove(key);
+        removeKey(key);
+        publish(KEY_TOPIC, key);
+    }
+
+    private void removeKey(String key) {
+        invalidationGeneration.incrementAndGet();
+        if (cache.remove(key) != null) {
             logger.info("Удалена запись кеша для ключа: {}", key);
         } else {
             logger.info("Запись кеша не найдена для ключа: {}", key);
         }
     }
 
-    public void updateCache(String key, RecipeDto newRecipe) {
-        List<RecipeDto> cachedRecipes = getCachedRecipes(key);
+    public void evictEmptyResult(String key) {
+        if (key == null) {
+            return;
+        }
+        removeEmptyResult(key);
+        publish(EMPTY_RESULT_TOPIC, key);
+    }
 
-        if (cachedRecipes != null) {
-            cachedRecipes.add(newRecipe); // Здесь возникает ошибка
-            logger.info("Обновлен кеш для ключа: {}", key);
-        } else {
-            cacheRecipes(key, new ArrayList<>(List.of(newRecipe))); // Изменяемый список
-            logger.info("Создан новый кеш для ключа: {}", key);
+    private void removeEmptyResult(String key) {
+        invalidationGeneration.incrementAndGet();
+        if (emptyResults.remove(key) != null) {
+            logger.info("Удален отрицательный результат из кеша: {}", key);
+        }
+    }
+
+    public RecipeDto getCachedRecipe(Long id) {
+        return id != null ? recipeCache.get(id) : null;
+    }
+
+    public RecipeDto getOrLoadRecipe(Long id, Supplier<RecipeDto> loader) {
+        if (id == null) {
+            return loader.get();
+        }
+        RecipeDto cachedRecipe = recipeCache.get(id);
+        if (cachedRecipe != null) {
+            logger.debug("Recipe cache hit for id: {}", id);
+            return cachedRecipe;
+        }
+
+        return recipeLoads.load(id, () -> {
+            RecipeDto current = recipeCache.peek(id);
+            if (current != null) {
+                return current;
+            }
+            // Если во время загрузки что-то инвалидировали, прочитанное значение может быть устаревшим
+            long generation = invalidationGeneration.get();
+            RecipeDto recipe = loader.get();
+            cacheLoadedRecipe(id, recipe, generation);
+            return recipe;
+        });
+    }
+
+    /**
+     * Returns the cached recipes among {@code ids} and loads all the others with one call of
+     * the loader. Ids that are neither cached nor loaded are left out of the result.
+     */
+    public Map<Long, RecipeDto> getOrLoadRecipes(
+            Collection<Long> ids, Function<List<Long>, Map<Long, RecipeDto>> loader) {
+        Map<Long, RecipeDto> recipes = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            RecipeDto cachedRecipe = recipeCache.get(id);
+            if (cachedRecipe != null) {
+                recipes.put(id, cachedRecipe);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return recipes;
+        }
+        long generation = invalidationGeneration.get();
+        Map<Long, RecipeDto> loaded = loader.apply(missing);
+        for (Long id : missing) {
+            RecipeDto recipe = loaded.get(id);
+            if (recipe != null) {
+                recipes.put(id, recipe);
+                cacheLoadedRecipe(id, recipe, generation);
+            }
+        }
+        return recipes;
+    }
+
+    private void cacheLoadedRecipe(Long id, RecipeDto recipe, long generation) {
+        if (recipe != null && generation == invalidationGeneration.get()) {
+            recipeTags.add(recipe, CacheTags.of(recipe));
+            recipeCache.put(id, recipe);
+            if (generation != invalidationGeneration.get()) {
+                recipeCache.remove(id, recipe);
+            }
         }
     }
-}
\ No newline at end of file
+
+    public void evictRecipe(Long id) {
+        if (id != null) {
+            invalidateTag(CacheTags.recipe(id));
+        }
+    }
+
+    public void invalidateTag(String tag) {
+        removeTag(tag);
+        publish(TAG_TOPIC, tag);
+    }
+
+    /**
+     * Connects this cache to its peers: local invalidations are broadcast on the bus and
+     * invalidations received from it are applied here without being sent back out.
+     */
+    public void bindTo(InvalidationBus bus) {
+        bus.subscribe(TAG_TOPIC, this::removeTag);
+        bus.subscribe(KEY_TOPIC, this::removeKey);
+        bus.subscribe(EMPTY_RESULT_TOPIC, this::removeEmptyResult);
+        bus.onReset(this::invalidateAll);
+        this.invalidationBus = bus;
+    }
+
+    public void invalidateAll() {
+        invalidationGeneration.incrementAndGet();
+        cache.invalidateAll();
+        recipeCache.invalidateAll();
+        emptyResults.invalidateAll();
+        logger.info("Кеш полностью очищен");
+    }
+
+    private void publish(String topic, String value) {
+        InvalidationBus bus = invalidationBus;
+        if (bus != null && value != null) {
+            bus.publish(topic, value);
+        }
+    }
+
+    private void removeTag(String tag) {
+        invalidationGeneration.incrementAndGet();
+        int removed = 0;
+        for (CacheEntry entry : listTags.entries(tag)) {
+            if (cache.remove(entry.key, entry)) {
+                removed++;
+            }
+        }
+        for (RecipeDto recipe : recipeTags.entries(tag)) {
+            if (recipeCache.remove(recipe.getId(), recipe)) {
+                removed++;
+            }
+        }
+        tagInvalidationCount.increment();
+        logger.info("Инвалидирован тег {}, удалено записей: {}", tag, removed);
+    }
+
+    public long getWeightedSize() {
+        return cache.weightedSize();
+    }
+
+    public CacheStatsDto getStats() {
+        return new CacheStatsDto(
+                cache.hitCount(),
+                cache.missCount(),
+                cache.evictionCount(),
+                cache.estimatedSize(),
+                cache.weightedSize(),
+                cache.maximumWeight(),
+                loads.loadCount(),
+                loads.deduplicatedCount(),
+                staleHitCount.sum(),
+                refreshCount.sum(),
+                estimatedBytes.sum(),
+                sweptEntryCount.sum(),
+                sweptBytes.sum(),
+                recipeCache.estimatedSize(),
+                recipeCache.hitCount(),
+                recipeCache.missCount(),
+                tagInvalidationCount.sum(),
+                emptyResults.estimatedSize(),
+                emptyResultHitCount.sum(),
+                encodedHitCount.sum());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        refreshExecutor.shutdownNow();
+    }
+
+    void sweepExpired() {
+        try {
+            for (CacheEntry entry : expiryWheel.advance(System.currentTimeMillis())) {
+                if (cache.expire(entry.key, entry)) {
+                    sweptEntryCount.increment();
+                    sweptBytes.add(entry.estimatedBytes);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Очистка просроченных записей кеша не удалась", e);
+        }
+    }
+
+    private CacheEntry newEntry(String key, List<RecipeDto> recipes,
+                                long refreshTime, long expiryTime) {
+        CacheEntry entry = new CacheEntry(key, recipes, refreshTime, expiryTime);
+        entry.expiryTimer = expiryWheel.schedule(entry, expiryTime);
+        estimatedBytes.add(entry.estimatedBytes);
+        listTags.add(entry, entry.tags);
+        return entry;
+    }
+
+    private void onRemoval(String key, CacheEntry entry, RemovalCause cause) {
+        expiryWheel.cancel(entry.expiryTimer);
+        estimatedBytes.add(-entry.estimatedBytes);
+        synchronized (entry) {
+            entry.removed = true;
+            if (entry.encoded != null) {
+                estimatedBytes.add(-entry.encoded.estimatedBytes());
+            }
+        }
+        listTags.remove(entry, entry.tags);
+        if (cause == RemovalCause.EVICTED) {
+            logger.info("Cache is full, evicted entry: {}", key);
+        }
+    }
+
+    private CacheEntry lookup(String key) {
+        CacheEntry entry = cache.get(key);
+        if (entry == null) {
+            logger.debug("Cache miss for key: {}", key);
+            return null;
+        }
+        if (entry.isExpired()) {
+            cache.expire(key, entry);
+            logger.debug("Cache entry expired for key: {}", key);
+            return null;
+        }
+        logger.info("Cache hit for key: {}", key);
+        return entry;
+    }
+
+    private List<RecipeDto> loadAndCache(String key, Supplier<List<RecipeDto>> loader) {
+        long generation = invalidationGeneration.get();
+        List<RecipeDto> recipes = loader.get();
+        if (recipes.isEmpty()) {
+            cache.remove(key);
+            if (generation == invalidationGeneration.get()) {
+                Long deadline = System.currentTimeMillis() + emptyResultTtlMs;
+                emptyResults.put(key, deadline);
+                if (generation != invalidationGeneration.get()) {
+                    emptyResults.remove(key, deadline);
+                }
+            }
+        } else if (generation == invalidationGeneration.get()) {
+            long now = System.currentTimeMillis();
+            CacheEntry entry = newEntry(key, recipes, now + refreshAfterMs, now + expireAfterMs);
+            cache.put(key, entry);
+            if (generation != invalidationGeneration.get()) {
+                cache.remove(key, entry);
+            }
+        }
+        return recipes;
+    }
+
+    private boolean isKnownEmpty(String key) {
+        Long deadline = emptyResults.get(key);
+        if (deadline == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() > deadline) {
+            emptyResults.expire(key, deadline);
+            return false;
+        }
+        return true;
+    }
+
+    private void scheduleRefresh(String key, Supplier<List<RecipeDto>> loader) {
+        if (!refreshesInFlight.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    loads.load(key, () -> loadAndCache(key, loader));
+                    refreshCount.increment();
+                } catch (RuntimeException e) {
+                    logger.warn("Фоновое обновление кеша для ключа {} не удалось", key, e);
+                } finally {
+                    refreshesInFlight.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Очередь обновлений переполнена: запись отдается устаревшей до жесткого истечения
+            refreshesInFlight.remove(key);
+            logger.debug("Refresh queue is full, skipping refresh for key: {}", key);
+        }
+    }
+
+    private static ThreadPoolExecutor newRefreshExecutor(int threads, int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable,
+                            "cache-refresh-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
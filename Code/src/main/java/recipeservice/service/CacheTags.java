@@ -0,0 +1,55 @@
+package recipeservice.service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import recipeservice.dto.IngredientDto;
+import recipeservice.dto.RecipeDto;
+
+public final class CacheTags {
+
+    private CacheTags() {
+    }
+
+    public static String recipe(Long id) {
+        return "recipe:" + id;
+    }
+
+    public static String cuisine(Long id) {
+        return "cuisine:" + id;
+    }
+
+    public static String ingredient(Long id) {
+        return "ingredient:" + id;
+    }
+
+    static Set<String> of(RecipeDto recipe) {
+        Set<String> tags = new HashSet<>();
+        collect(recipe, tags);
+        return tags;
+    }
+
+    static Set<String> of(Collection<RecipeDto> recipes) {
+        Set<String> tags = new HashSet<>();
+        for (RecipeDto recipe : recipes) {
+            collect(recipe, tags);
+        }
+        return tags;
+    }
+
+    private static void collect(RecipeDto recipe, Set<String> tags) {
+        if (recipe.getId() != null) {
+            tags.add(recipe(recipe.getId()));
+        }
+        if (recipe.getCuisine() != null && recipe.getCuisine().getId() != null) {
+            tags.add(cuisine(recipe.getCuisine().getId()));
+        }
+        if (recipe.getIngredients() != null) {
+            for (IngredientDto ingredient : recipe.getIngredients()) {
+                if (ingredient.getId() != null) {
+                    tags.add(ingredient(ingredient.getId()));
+                }
+            }
+        }
+    }
+}
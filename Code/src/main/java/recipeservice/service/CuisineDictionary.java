@@ -0,0 +1,131 @@
+package recipeservice.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.stereotype.Service;
+import recipeservice.cache.InvalidationBus;
+import recipeservice.dao.CuisineDao;
+
+/**
+ * In-memory map from cuisine names to ids, so that lookups by name need neither a join nor a
+ * database round trip for names that do not exist.
+ *
+ * <p>Names are compared after {@link #normalize}. Several cuisines may share a normalized
+ * name; a name then resolves to all of them. The table is read on first use, kept current by
+ * {@link CuisineService} writes, and dropped to be read again when another instance changes a
+ * cuisine or the invalidation bus is reset. Loads and writes are serialized, so a load cannot
+ * overwrite a later write with what it read before.
+ */
+@Service
+public class CuisineDictionary {
+    private static final String TOPIC = "cuisine.dictionary";
+
+    private final CuisineDao cuisineDao;
+    private final Object lock = new Object();
+    private Map<Long, String> namesById;
+    private volatile Map<String, List<Long>> idsByName;
+    private volatile InvalidationBus invalidationBus;
+
+    public CuisineDictionary(CuisineDao cuisineDao) {
+        this.cuisineDao = cuisineDao;
+    }
+
+    public static String normalize(String name) {
+        return name != null ? name.strip().toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Returns the ids of the cuisines with the given name, or null if there are none.
+     */
+    public List<Long> resolve(String name) {
+        if (name == null) {
+            return null;
+        }
+        Map<String, List<Long>> ids = idsByName;
+        if (ids == null) {
+            ids = load();
+        }
+        return ids.get(normalize(name));
+    }
+
+    /**
+     * Returns the normalized name of the cuisine with the given id, or null if there is none.
+     */
+    public String name(Long id) {
+        synchronized (lock) {
+            if (namesById == null) {
+                load();
+            }
+            return namesById.get(id);
+        }
+    }
+
+    public void cuisineChanged(Long id, String name) {
+        synchronized (lock) {
+            if (namesById != null) {
+                namesById.put(id, normalize(name));
+                idsByName = index(namesById);
+            }
+        }
+        publish(id);
+    }
+
+    public void cuisineDeleted(Long id) {
+        synchronized (lock) {
+            if (namesById != null && namesById.remove(id) != null) {
+                idsByName = index(namesById);
+            }
+        }
+        publish(id);
+    }
+
+    public void bindTo(InvalidationBus bus) {
+        bus.subscribe(TOPIC, id -> invalidate());
+        bus.onReset(this::invalidate);
+        this.invalidationBus = bus;
+    }
+
+    public void invalidate() {
+        synchronized (lock) {
+            namesById = null;
+            idsByName = null;
+        }
+    }
+
+    private Map<String, List<Long>> load() {
+        synchronized (lock) {
+            if (idsByName == null) {
+                Map<Long, String> names = new HashMap<>();
+                cuisineDao.getCuisineNames().forEach((id, name) -> names.put(id, normalize(name)));
+                namesById = names;
+                idsByName = index(names);
+            }
+            return idsByName;
+        }
+    }
+
+    private static Map<String, List<Long>> index(Map<Long, String> namesById) {
+        Map<String, List<Long>> ids = new HashMap<>();
+        namesById.forEach((id, name) -> {
+            if (name != null) {
+                ids.computeIfAbsent(name, key -> new ArrayList<>(1)).add(id);
+            }
+        });
+        ids.replaceAll((name, list) -> {
+            Collections.sort(list);
+            return List.copyOf(list);
+        });
+        return ids;
+    }
+
+    private void publish(Long id) {
+        InvalidationBus bus = invalidationBus;
+        if (bus != null && id != null) {
+            bus.publish(TOPIC, id.toString());
+        }
+    }
+}
@@ -3,6 +3,7 @@ package recipeservice.service;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import recipeservice.dao.CuisineDao;
 import recipeservice.dto.CuisineDto;
 import recipeservice.model.Cuisine;
@@ -11,17 +12,29 @@ import recipeservice.model.Cuisine;
 public class CuisineService {
 
     private final CuisineDao cuisineDao;
+    private final CacheService cacheService;
+    private final VersionService versionService;
+    private final EntityCacheService entityCacheService;
+    private final CuisineDictionary cuisineDictionary;
 
-    public CuisineService(CuisineDao cuisineDao) {
+    public CuisineService(CuisineDao cuisineDao, CacheService cacheService,
+                          VersionService versionService, EntityCacheService entityCacheService,
+                          CuisineDictionary cuisineDictionary) {
         this.cuisineDao = cuisineDao;
+        this.cacheService = cacheService;
+        this.versionService = versionService;
+        this.entityCacheService = entityCacheService;
+        this.cuisineDictionary = cuisineDictionary;
     }
 
+    @Transactional(readOnly = true)
     public List<CuisineDto> getAllCuisines() {
         return cuisineDao.getAllCuisines().stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public CuisineDto getCuisineById(Long id) {
         Cuisine cuisine = cuisineDao.getCuisineById(id);
         return convertToDto(cuisine);
@@ -30,17 +43,32 @@ public class CuisineService {
     public CuisineDto createCuisine(CuisineDto cuisineDto) {
         Cuisine cuisine = convertToEntity(cuisineDto);
         Cuisine createdCuisine = cuisineDao.createCuisine(cuisine);
+        versionService.cuisineChanged(createdCuisine.getId());
+        entityCacheService.cuisineChanged(createdCuisine.getId());
+        cuisineDictionary.cuisineChanged(createdCuisine.getId(), createdCuisine.getName());
+        cacheService.evictEmptyResult(CuisineDictionary.normalize(createdCuisine.getName()));
         return convertToDto(createdCuisine);
     }
 
     public CuisineDto updateCuisine(Long id, CuisineDto cuisineDto) {
         Cuisine cuisine = convertToEntity(cuisineDto);
         Cuisine updatedCuisine = cuisineDao.updateCuisine(id, cuisine);
+        versionService.cuisineChanged(id);
+        entityCacheService.cuisineChanged(id);
+        cacheService.invalidateTag(CacheTags.cuisine(id));
+        if (updatedCuisine != null) {
+            cuisineDictionary.cuisineChanged(updatedCuisine.getId(), updatedCuisine.getName());
+            cacheService.evictEmptyResult(CuisineDictionary.normalize(updatedCuisine.getName()));
+        }
         return convertToDto(updatedCuisine);
     }
 
     public void deleteCuisine(Long id) {
         cuisineDao.deleteCuisine(id);
+        cuisineDictionary.cuisineDeleted(id);
+        versionService.cuisineChanged(id);
+        entityCacheService.cuisineChanged(id);
+        cacheService.invalidateTag(CacheTags.cuisine(id));
     }
 
     private CuisineDto convertToDto(Cuisine cuisine) {
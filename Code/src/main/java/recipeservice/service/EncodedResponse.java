@@ -0,0 +1,56 @@
+package recipeservice.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON response body encoded once and kept next to the cached value, so cache hits are
+ * written to the client without touching Jackson. The gzip variant is added only when a
+ * client asks for it and the body is cached, and is then reused by later hits.
+ */
+public final class EncodedResponse {
+    private final byte[] json;
+    private final byte[] gzip;
+
+    private EncodedResponse(byte[] json, byte[] gzip) {
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    public static EncodedResponse of(byte[] json) {
+        return new EncodedResponse(json, null);
+    }
+
+    /**
+     * Returns this body with its gzip variant, compressing the JSON if not done yet.
+     */
+    EncodedResponse withGzip() {
+        if (gzip != null) {
+            return this;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(32, json.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new EncodedResponse(json, buffer.toByteArray());
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    /**
+     * Returns the gzip body, or null if it was not compressed.
+     */
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    long estimatedBytes() {
+        return 2 * 16L + json.length + (gzip != null ? gzip.length : 0);
+    }
+}
@@ -0,0 +1,105 @@
+package recipeservice.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import recipeservice.cache.InvalidationBus;
+import recipeservice.dto.EntityCacheRegionStatsDto;
+import recipeservice.model.Cuisine;
+import recipeservice.model.Ingredient;
+import recipeservice.model.Recipe;
+
+/**
+ * Keeps the Hibernate second-level cache of the other instances in step with this one.
+ *
+ * <p>Hibernate evicts what a local write touches by itself, but knows nothing of writes made
+ * by other instances. Services report their writes here, and the ids are announced over the
+ * invalidation bus; receivers evict the entity or collection and the cached query results,
+ * which may list the changed row or miss a created one.
+ */
+@Service
+public class EntityCacheService {
+    private static final String CUISINE_TOPIC = "entity-cache.cuisine";
+    private static final String INGREDIENT_TOPIC = "entity-cache.ingredient";
+    private static final String RECIPE_TOPIC = "entity-cache.recipe";
+    private static final List<String> DOMAIN_REGIONS = List.of(
+            Cuisine.CACHE_REGION, Ingredient.CACHE_REGION, Recipe.INGREDIENTS_CACHE_REGION);
+
+    private final SessionFactory sessionFactory;
+    private volatile InvalidationBus invalidationBus;
+
+    public EntityCacheService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public void cuisineChanged(Long id) {
+        publish(CUISINE_TOPIC, id);
+    }
+
+    public void ingredientChanged(Long id) {
+        publish(INGREDIENT_TOPIC, id);
+    }
+
+    public void recipeChanged(Long id) {
+        publish(RECIPE_TOPIC, id);
+    }
+
+    public List<EntityCacheRegionStatsDto> getStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        List<EntityCacheRegionStatsDto> stats = new ArrayList<>();
+        for (String region : DOMAIN_REGIONS) {
+            stats.add(toDto(region, statistics.getDomainDataRegionStatistics(region)));
+        }
+        String queryRegion = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+        stats.add(toDto(queryRegion, statistics.getQueryRegionStatistics(queryRegion)));
+        return stats;
+    }
+
+    public void bindTo(InvalidationBus bus) {
+        bus.subscribe(CUISINE_TOPIC, id -> evictCuisine(Long.valueOf(id)));
+        bus.subscribe(INGREDIENT_TOPIC, id -> evictIngredient(Long.valueOf(id)));
+        bus.subscribe(RECIPE_TOPIC, id -> evictRecipe(Long.valueOf(id)));
+        bus.onReset(() -> sessionFactory.getCache().evictAllRegions());
+        this.invalidationBus = bus;
+    }
+
+    private void evictCuisine(Long id) {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(Cuisine.class, id);
+        cache.evictDefaultQueryRegion();
+    }
+
+    private void evictIngredient(Long id) {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(Ingredient.class, id);
+        // Удаление ингредиента снимает его со всех рецептов, а какие это рецепты, неизвестно
+        cache.evictCollectionData(Recipe.INGREDIENTS_ROLE);
+        cache.evictDefaultQueryRegion();
+    }
+
+    private void evictRecipe(Long id) {
+        sessionFactory.getCache().evictCollectionData(Recipe.INGREDIENTS_ROLE, id);
+    }
+
+    private void publish(String topic, Long id) {
+        InvalidationBus bus = invalidationBus;
+        if (bus != null && id != null) {
+            bus.publish(topic, id.toString());
+        }
+    }
+
+    private static EntityCacheRegionStatsDto toDto(String region,
+                                                   CacheRegionStatistics statistics) {
+        if (statistics == null) {
+            return new EntityCacheRegionStatsDto(region, 0, 0, 0);
+        }
+        return new EntityCacheRegionStatsDto(region, statistics.getHitCount(),
+                statistics.getMissCount(), statistics.getPutCount());
+    }
+}
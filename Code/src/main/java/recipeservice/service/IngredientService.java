@@ -1,25 +1,33 @@
 package recipeservice.service;
 
-import jakarta.transaction.Transactional;
 import java.util.List;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import recipeservice.dao.IngredientDao;
-import recipeservice.dao.RecipeDao;
 import recipeservice.dto.IngredientDto;
 import recipeservice.model.Ingredient;
-import recipeservice.model.Recipe;
 
 @Service
 public class IngredientService {
-
     private final IngredientDao ingredientDao;
-    private final RecipeDao recipeDao;
+    private final CacheService cacheService;
+    private final VersionService versionService;
+    private final PantryService pantryService;
+    private final EntityCacheService entityCacheService;
+    private final SearchService searchService;
 
-    public IngredientService(IngredientDao ingredientDao, RecipeDao recipeDao) {
+    public IngredientService(IngredientDao ingredientDao, CacheService cacheService,
+                             VersionService versionService, PantryService pantryService,
+                             EntityCacheService entityCacheService, SearchService searchService) {
         this.ingredientDao = ingredientDao;
-        this.recipeDao = recipeDao;
+        this.cacheService = cacheService;
+        this.versionService = versionService;
+        this.pantryService = pantryService;
+        this.entityCacheService = entityCacheService;
+        this.searchService = searchService;
     }
 
+    @Transactional(readOnly = true)
     public List<IngredientDto> getAllIngredients() {
         List<Ingredient> ingredients = ingredientDao.getAllIngredients();
         return ingredients.stream()
@@ -27,6 +35,7 @@ public class IngredientService {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public IngredientDto getIngredientById(Long id) {
         Ingredient ingredient = ingredientDao.getIngredientById(id);
         return ingredient != null ? convertToDto(ingredient) : null;
@@ -38,6 +47,7 @@ public class IngredientService {
         }
         Ingredient ingredient = convertToEntity(ingredientDto);
         Ingredient createdIngredient = ingredientDao.createIngredient(ingredient);
+        entityCacheService.ingredientChanged(createdIngredient.getId());
         return convertToDto(createdIngredient);
     }
 
@@ -48,19 +58,26 @@ public class IngredientService {
         Ingredient ingredient = convertToEntity(ingredientDto);
         ingredient.setId(id);
         Ingredient updatedIngredient = ingredientDao.updateIngredient(id, ingredient);
+        versionService.ingredientChanged(id);
+        entityCacheService.ingredientChanged(id);
+        cacheService.invalidateTag(CacheTags.ingredient(id));
+        // Название ингредиента входит в поисковые документы всех рецептов с ним
+        searchService.ingredientChanged(id, List.of());
         return updatedIngredient != null ? convertToDto(updatedIngredient) : null;
     }
 
-    @Transactional
     public void deleteIngredient(Long id) {
-        List<Recipe> recipes = recipeDao.findRecipesByIngredientId(id);
-        for (Recipe recipe : recipes) {
-            List<Ingredient> ingredients = recipe.getIngredients();
-            if (ingredients != null) {
-                ingredients.removeIf(ingredient -> ingredient.getId().equals(id));
-            }
+        // Связи удаляются вместе с ингредиентом, поэтому рецепты для поиска возвращает удаление
+        List<Long> recipeIds = ingredientDao.deleteIngredient(id);
+        if (recipeIds == null) {
+            return;
         }
-        ingredientDao.deleteIngredient(id);
+        // Тег ингредиента есть ровно у тех закешированных рецептов и списков, где он встречался
+        versionService.ingredientChanged(id);
+        entityCacheService.ingredientChanged(id);
+        cacheService.invalidateTag(CacheTags.ingredient(id));
+        pantryService.ingredientDeleted(id);
+        searchService.ingredientChanged(id, recipeIds);
     }
 
     private IngredientDto convertToDto(Ingredient ingredient) {
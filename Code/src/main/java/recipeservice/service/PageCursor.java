@@ -0,0 +1,66 @@
+package recipeservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import recipeservice.dto.PageDto;
+import recipeservice.exception.CustomException;
+
+/**
+ * Opaque keyset cursors for paged listings. A cursor wraps the last id of the previous page,
+ * so clients cannot depend on its format and the next page is a primary-key seek, not an
+ * OFFSET scan.
+ */
+public final class PageCursor {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final String PREFIX = "id:";
+
+    private PageCursor() {
+    }
+
+    public static String encode(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (value.startsWith(PREFIX)) {
+                return Long.parseLong(value.substring(PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // Ниже общий ответ для любого испорченного курсора
+        }
+        throw new CustomException("Некорректный курсор страницы");
+    }
+
+    /**
+     * Builds a page from rows fetched with {@code pageSize + 1} as the limit: the extra row only
+     * signals that another page exists and is not returned.
+     */
+    static <E, D> PageDto<D> toPage(List<E> rows, int pageSize,
+                                    Function<E, Long> idOf, Function<E, D> mapper) {
+        List<E> pageRows = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+        String nextCursor = rows.size() > pageSize
+                ? encode(idOf.apply(pageRows.get(pageRows.size() - 1)))
+                : null;
+        return new PageDto<>(pageRows.stream().map(mapper).toList(), nextCursor);
+    }
+
+    public static int limit(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (requested < 1) {
+            throw new CustomException("Размер страницы должен быть положительным");
+        }
+        return Math.min(requested, MAX_LIMIT);
+    }
+}
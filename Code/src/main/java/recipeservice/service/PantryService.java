@@ -0,0 +1,252 @@
+package recipeservice.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import recipeservice.cache.InvalidationBus;
+import recipeservice.dao.RecipeDao;
+import recipeservice.dto.IngredientDto;
+import recipeservice.dto.PageDto;
+import recipeservice.dto.PantryMatchDto;
+import recipeservice.dto.RecipeDto;
+import recipeservice.exception.CustomException;
+import recipeservice.search.PantryIndex;
+
+/**
+ * "What can I cook" queries: recipes ranked by how many of their ingredients are missing from
+ * a given set.
+ *
+ * <p>Matching runs on a {@link PantryIndex} of the {@code recipe_ingredients} links. It is
+ * built in the background once the application is ready and then follows the writes that
+ * change links: recipe writes reload the links of the recipe, and an ingredient deletion
+ * drops the ingredient everywhere. Both are announced to the other instances. A build skips
+ * recipes changed while it runs and the ingredients deleted meanwhile, the same way the
+ * search index build does.
+ */
+@Service
+public class PantryService {
+    static final int MAX_PANTRY_SIZE = 500;
+
+    private static final Logger logger = LoggerFactory.getLogger(PantryService.class);
+    private static final String RECIPE_TOPIC = "pantry.recipe";
+    private static final String INGREDIENT_TOPIC = "pantry.ingredient";
+    private static final int BUILD_CHUNK_SIZE = 500;
+
+    private final RecipeDao recipeDao;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pantry-index-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private PantryIndex index = new PantryIndex();
+    private PantryIndex building;
+    private final Set<Long> changedDuringBuild = new HashSet<>();
+    private final Set<Long> ingredientsDeletedDuringBuild = new HashSet<>();
+    private volatile InvalidationBus invalidationBus;
+
+    public PantryService(RecipeDao recipeDao) {
+        this.recipeDao = recipeDao;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        builder.execute(this::rebuild);
+    }
+
+    public PageDto<PantryMatchDto> findCookable(Collection<Long> ingredientIds,
+                                                Integer maxMissing, String after, Integer limit) {
+        if (ingredientIds == null || ingredientIds.isEmpty()) {
+            throw new CustomException("Список ингредиентов не может быть пустым");
+        }
+        if (ingredientIds.size() > MAX_PANTRY_SIZE) {
+            throw new CustomException("Слишком много ингредиентов: не больше " + MAX_PANTRY_SIZE);
+        }
+        if (maxMissing != null && maxMissing < 0) {
+            throw new CustomException("Число недостающих ингредиентов не может быть отрицательным");
+        }
+        int pageSize = PageCursor.limit(limit);
+        long offset = PageCursor.decode(after);
+        if (offset > Integer.MAX_VALUE - PageCursor.MAX_LIMIT - 1) {
+            throw new CustomException("Некорректный курсор страницы");
+        }
+        List<PantryIndex.Match> matches;
+        lock.readLock().lock();
+        try {
+            int missingLimit = maxMissing != null ? maxMissing : Integer.MAX_VALUE;
+            matches = index.match(ingredientIds, missingLimit, (int) offset, pageSize + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Порядок задан числом недостающих ингредиентов, поэтому курсор хранит смещение
+        List<PantryIndex.Match> page = matches.size() > pageSize
+                ? matches.subList(0, pageSize) : matches;
+        String nextCursor = matches.size() > pageSize ? PageCursor.encode(offset + pageSize) : null;
+        return new PageDto<>(describe(page, new HashSet<>(ingredientIds)), nextCursor);
+    }
+
+    public void recipeChanged(Long id) {
+        recipesChanged(List.of(id));
+    }
+
+    public void recipesChanged(Collection<Long> ids) {
+        reload(ids);
+        InvalidationBus bus = invalidationBus;
+        if (bus != null) {
+            ids.forEach(id -> bus.publish(RECIPE_TOPIC, id.toString()));
+        }
+    }
+
+    public void ingredientDeleted(Long id) {
+        dropIngredient(id);
+        InvalidationBus bus = invalidationBus;
+        if (bus != null) {
+            bus.publish(INGREDIENT_TOPIC, id.toString());
+        }
+    }
+
+    public int getIndexedCount() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void bindTo(InvalidationBus bus) {
+        bus.subscribe(RECIPE_TOPIC, id -> reload(List.of(Long.valueOf(id))));
+        bus.subscribe(INGREDIENT_TOPIC, id -> dropIngredient(Long.valueOf(id)));
+        bus.onReset(this::rebuildInBackground);
+        this.invalidationBus = bus;
+    }
+
+    public void rebuild() {
+        PantryIndex target = new PantryIndex();
+        lock.writeLock().lock();
+        try {
+            building = target;
+            changedDuringBuild.clear();
+            ingredientsDeletedDuringBuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        boolean completed = false;
+        try {
+            long after = 0;
+            while (true) {
+                List<Long> ids = recipeDao.getRecipeIdsAfter(after, BUILD_CHUNK_SIZE);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                Map<Long, List<Long>> links = recipeDao.getIngredientIdsByRecipe(ids);
+                lock.writeLock().lock();
+                try {
+                    if (building != target) {
+                        return; // Начата более новая перестройка
+                    }
+                    links.forEach((recipeId, ingredientIds) -> {
+                        if (!changedDuringBuild.contains(recipeId)) {
+                            List<Long> kept = new ArrayList<>(ingredientIds);
+                            kept.removeAll(ingredientsDeletedDuringBuild);
+                            target.put(recipeId, kept);
+                        }
+                    });
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                after = ids.get(ids.size() - 1);
+            }
+            completed = true;
+        } catch (RuntimeException e) {
+            logger.warn("Не удалось построить индекс ингредиентов", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (building == target) {
+                    if (completed) {
+                        index = target;
+                    }
+                    building = null;
+                    changedDuringBuild.clear();
+                    ingredientsDeletedDuringBuild.clear();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        if (completed) {
+            logger.info("Индекс ингредиентов построен: {} рецептов", target.size());
+        }
+    }
+
+    private List<PantryMatchDto> describe(List<PantryIndex.Match> matches, Set<Long> pantry) {
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = matches.stream().map(PantryIndex.Match::getRecipeId).toList();
+        Map<Long, RecipeDto> recipes = new HashMap<>();
+        for (RecipeDto recipe : recipeDao.findRecipeDtosWithoutReviews(ids)) {
+            recipes.put(recipe.getId(), recipe);
+        }
+        List<PantryMatchDto> result = new ArrayList<>(matches.size());
+        for (PantryIndex.Match match : matches) {
+            RecipeDto recipe = recipes.get(match.getRecipeId());
+            if (recipe == null) {
+                continue; // Рецепт удален после поиска
+            }
+            List<IngredientDto> missing = recipe.getIngredients() == null ? List.of()
+                    : recipe.getIngredients().stream()
+                            .filter(ingredient -> !pantry.contains(ingredient.getId()))
+                            .toList();
+            result.add(new PantryMatchDto(recipe.getId(), recipe.getTitle(),
+                    match.getMatched(), match.getMissing(), missing));
+        }
+        return result;
+    }
+
+    private void reload(Collection<Long> ids) {
+        Map<Long, List<Long>> links = recipeDao.getIngredientIdsByRecipe(new ArrayList<>(ids));
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                // Рецепт без ингредиентов или удаленный просто уходит из индекса
+                List<Long> ingredientIds = links.getOrDefault(id, List.of());
+                index.put(id, ingredientIds);
+                if (building != null) {
+                    building.put(id, ingredientIds);
+                    changedDuringBuild.add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void dropIngredient(Long id) {
+        lock.writeLock().lock();
+        try {
+            index.removeIngredient(id);
+            if (building != null) {
+                building.removeIngredient(id);
+                ingredientsDeletedDuringBuild.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package recipeservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.stereotype.Service;
+import recipeservice.cache.InvalidationBus;
+import recipeservice.dao.ReviewDao;
+import recipeservice.dto.RatingSummaryDto;
+
+/**
+ * Per-recipe review count, rating sum and 1-5 histogram kept in memory.
+ *
+ * <p>The histograms are seeded with one grouped query on first use and then maintained from
+ * review writes, so reading a summary is a map lookup. Review writes run between
+ * {@link #beginReviewChange()} and {@link #endReviewChange()}; seeding excludes them, so the
+ * seed query never misses a committed write whose delta was skipped, nor counts one twice.
+ * Ratings outside 1-5 (or missing) are not counted.
+ */
+@Service
+public class RatingService {
+    private static final String TOPIC = "rating.recipe";
+    private static final int MAX_RATING = 5;
+    private static final long[] EMPTY = new long[MAX_RATING];
+
+    private final ReviewDao reviewDao;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Map<Long, long[]> histograms;
+    private volatile InvalidationBus invalidationBus;
+
+    public RatingService(ReviewDao reviewDao) {
+        this.reviewDao = reviewDao;
+    }
+
+    /**
+     * Returns the summary of the recipe; a recipe without reviews, like an unknown id, gets an
+     * all-zero summary, so callers check that the recipe exists.
+     */
+    public RatingSummaryDto getSummary(Long recipeId) {
+        long[] histogram = seeded().get(recipeId);
+        return toDto(histogram != null ? histogram : EMPTY);
+    }
+
+    public void beginReviewChange() {
+        lock.readLock().lock();
+    }
+
+    public void endReviewChange() {
+        lock.readLock().unlock();
+    }
+
+    public void reviewAdded(Long recipeId, Integer rating) {
+        apply(recipeId, rating, 1);
+    }
+
+    public void reviewRemoved(Long recipeId, Integer rating) {
+        apply(recipeId, rating, -1);
+    }
+
+    public void recipeDeleted(Long recipeId) {
+        Map<Long, long[]> current = histograms;
+        if (current != null) {
+            current.remove(recipeId);
+        }
+        publish(recipeId);
+    }
+
+    public void bindTo(InvalidationBus bus) {
+        bus.subscribe(TOPIC, id -> reload(Long.valueOf(id)));
+        // Пропущенные изменения других экземпляров: пересчитываем при следующем чтении
+        bus.onReset(() -> histograms = null);
+        this.invalidationBus = bus;
+    }
+
+    private void apply(Long recipeId, Integer rating, int delta) {
+        if (recipeId == null || rating == null || rating < 1 || rating > MAX_RATING) {
+            return;
+        }
+        Map<Long, long[]> current = histograms;
+        if (current != null) {
+            current.compute(recipeId, (id, histogram) -> {
+                long[] updated = histogram != null ? histogram.clone() : new long[MAX_RATING];
+                // Без ограничения снизу: расхождение с базой должно быть заметно, а не скрыто
+                updated[rating - 1] += delta;
+                return updated;
+            });
+        }
+        publish(recipeId);
+    }
+
+    private void publish(Long recipeId) {
+        InvalidationBus bus = invalidationBus;
+        if (bus != null && recipeId != null) {
+            bus.publish(TOPIC, recipeId.toString());
+        }
+    }
+
+    private void reload(Long recipeId) {
+        lock.writeLock().lock();
+        try {
+            Map<Long, long[]> current = histograms;
+            if (current != null) {
+                current.put(recipeId, toHistogram(reviewDao.getRatingCounts(recipeId)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<Long, long[]> seeded() {
+        Map<Long, long[]> current = histograms;
+        if (current != null) {
+            return current;
+        }
+        lock.writeLock().lock();
+        try {
+            if (histograms == null) {
+                Map<Long, long[]> seed = new ConcurrentHashMap<>();
+                reviewDao.getAllRatingCounts().forEach(
+                        (recipeId, counts) -> seed.put(recipeId, toHistogram(counts)));
+                histograms = seed;
+            }
+            return histograms;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long[] toHistogram(Map<Integer, Long> counts) {
+        long[] histogram = new long[MAX_RATING];
+        counts.forEach((rating, count) -> {
+            if (rating != null && rating >= 1 && rating <= MAX_RATING) {
+                histogram[rating - 1] = count;
+            }
+        });
+        return histogram;
+    }
+
+    private static RatingSummaryDto toDto(long[] histogram) {
+        long count = 0;
+        long sum = 0;
+        List<Long> buckets = new ArrayList<>(MAX_RATING);
+        for (int i = 0; i < MAX_RATING; i++) {
+            count += histogram[i];
+            sum += histogram[i] * (i + 1);
+            buckets.add(histogram[i]);
+        }
+        return new RatingSummaryDto(count, sum, buckets);
+    }
+}
@@ -0,0 +1,201 @@
+package recipeservice.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import recipeservice.dao.RecipeDao;
+import recipeservice.dto.BulkItemResultDto;
+import recipeservice.dto.IngredientDto;
+import recipeservice.dto.RecipeDto;
+import recipeservice.model.Cuisine;
+import recipeservice.model.Ingredient;
+import recipeservice.model.Recipe;
+
+/**
+ * Bulk import of recipes. Items are written in chunks, each in its own transaction: one
+ * query allocates the chunk's ids, and recipes and ingredient links go out as JDBC batches.
+ * Invalid items are rejected up front; a chunk that still fails in the database is reported
+ * as failed without affecting the chunks committed before or after it.
+ */
+@Service
+public class RecipeImportService {
+    private static final Logger logger = LoggerFactory.getLogger(RecipeImportService.class);
+
+    private final RecipeDao recipeDao;
+    private final CacheService cacheService;
+    private final VersionService versionService;
+    private final TransactionOperations transactionOperations;
+    private final SearchService searchService;
+    private final PantryService pantryService;
+    private final int chunkSize;
+
+    public RecipeImportService(RecipeDao recipeDao,
+                               CacheService cacheService,
+                               VersionService versionService,
+                               TransactionOperations transactionOperations,
+                               SearchService searchService,
+                               PantryService pantryService,
+                               @Value("${recipe.bulk.chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.recipeDao = recipeDao;
+        this.cacheService = cacheService;
+        this.versionService = versionService;
+        this.transactionOperations = transactionOperations;
+        this.searchService = searchService;
+        this.pantryService = pantryService;
+        this.chunkSize = chunkSize;
+    }
+
+    public List<BulkItemResultDto> importRecipes(List<RecipeDto> recipeDtos) {
+        BulkItemResultDto[] results = new BulkItemResultDto[recipeDtos.size()];
+        for (int from = 0; from < recipeDtos.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, recipeDtos.size());
+            importChunk(recipeDtos, from, to, results);
+        }
+        return List.of(results);
+    }
+
+    private void importChunk(List<RecipeDto> recipeDtos, int from, int to,
+                             BulkItemResultDto[] results) {
+        Set<Long> cuisineIds = new HashSet<>();
+        Set<Long> ingredientIds = new HashSet<>();
+        for (int i = from; i < to; i++) {
+            RecipeDto recipeDto = recipeDtos.get(i);
+            if (recipeDto == null) {
+                continue;
+            }
+            if (recipeDto.getCuisine() != null && recipeDto.getCuisine().getId() != null) {
+                cuisineIds.add(recipeDto.getCuisine().getId());
+            }
+            if (recipeDto.getIngredients() != null) {
+                for (IngredientDto ingredient : recipeDto.getIngredients()) {
+                    if (ingredient != null && ingredient.getId() != null) {
+                        ingredientIds.add(ingredient.getId());
+                    }
+                }
+            }
+        }
+
+        Map<Long, String> cuisineNames;
+        List<Integer> accepted = new ArrayList<>();
+        try {
+            cuisineNames = transactionOperations.execute(status -> {
+                Map<Long, String> names = recipeDao.getCuisineNames(cuisineIds);
+                Set<Long> knownIngredients = recipeDao.getExistingIngredientIds(ingredientIds);
+                List<Recipe> recipes = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    String error = validate(recipeDtos.get(i), names, knownIngredients);
+                    if (error != null) {
+                        results[i] = BulkItemResultDto.rejected(i, error);
+                    } else {
+                        accepted.add(i);
+                        recipes.add(convertToEntity(recipeDtos.get(i)));
+                    }
+                }
+                if (recipes.isEmpty()) {
+                    return names;
+                }
+
+                List<Long> ids = recipeDao.allocateRecipeIds(recipes.size());
+                for (int i = 0; i < recipes.size(); i++) {
+                    recipes.get(i).setId(ids.get(i));
+                }
+                recipeDao.insertRecipes(recipes);
+                for (int i = 0; i < recipes.size(); i++) {
+                    int index = accepted.get(i);
+                    results[index] = BulkItemResultDto.created(index, ids.get(i));
+                    versionService.recipeChanged(ids.get(i));
+                }
+                return names;
+            });
+        } catch (DataAccessException e) {
+            logger.warn("Не удалось сохранить пакет рецептов {}-{}", from, to - 1, e);
+            for (int i = from; i < to; i++) {
+                if (results[i] == null
+                        || results[i].getStatus() == BulkItemResultDto.Status.CREATED) {
+                    results[i] = BulkItemResultDto.failed(i, "Не удалось сохранить рецепт");
+                }
+            }
+            return;
+        }
+
+        List<Long> createdIds = new ArrayList<>(accepted.size());
+        for (int i : accepted) {
+            createdIds.add(results[i].getId());
+        }
+        searchService.recipesChanged(createdIds);
+        pantryService.recipesChanged(createdIds);
+
+        // Списки рецептов по кухням пополнились новыми рецептами
+        Set<Long> touchedCuisines = new HashSet<>();
+        for (int i : accepted) {
+            RecipeDto recipeDto = recipeDtos.get(i);
+            if (recipeDto.getCuisine() == null) {
+                continue;
+            }
+            Long cuisineId = recipeDto.getCuisine().getId();
+            if (touchedCuisines.add(cuisineId)) {
+                cacheService.invalidateTag(CacheTags.cuisine(cuisineId));
+                cacheService.evictEmptyResult(
+                        CuisineDictionary.normalize(cuisineNames.get(cuisineId)));
+            }
+        }
+    }
+
+    private static String validate(RecipeDto recipeDto, Map<Long, String> cuisineNames,
+                                   Set<Long> knownIngredients) {
+        if (recipeDto == null || recipeDto.getTitle() == null
+                || recipeDto.getDescription() == null) {
+            return "Название и описание не могут быть пустыми";
+        }
+        if (recipeDto.getCuisine() != null
+                && !cuisineNames.containsKey(recipeDto.getCuisine().getId())) {
+            return "Кухня не найдена";
+        }
+        if (recipeDto.getIngredients() != null) {
+            for (IngredientDto ingredient : recipeDto.getIngredients()) {
+                if (ingredient == null || !knownIngredients.contains(ingredient.getId())) {
+                    return "Ингредиент не найден";
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Recipe convertToEntity(RecipeDto recipeDto) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle(recipeDto.getTitle());
+        recipe.setDescription(recipeDto.getDescription());
+
+        if (recipeDto.getCuisine() != null) {
+            Cuisine cuisine = new Cuisine();
+            cuisine.setId(recipeDto.getCuisine().getId());
+            recipe.setCuisine(cuisine);
+        }
+
+        List<Ingredient> ingredients = new ArrayList<>();
+        if (recipeDto.getIngredients() != null) {
+            // Повтор одного ингредиента нарушил бы первичный ключ recipe_ingredients
+            Set<Long> seen = new HashSet<>();
+            for (IngredientDto ingredientDto : recipeDto.getIngredients()) {
+                if (seen.add(ingredientDto.getId())) {
+                    Ingredient ingredient = new Ingredient();
+                    ingredient.setId(ingredientDto.getId());
+                    ingredients.add(ingredient);
+                }
+            }
+        }
+        recipe.setIngredients(ingredients);
+        return recipe;
+    }
+}
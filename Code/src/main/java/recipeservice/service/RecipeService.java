@@ -1,67 +1,270 @@
 package recipeservice.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import recipeservice.cache.BatchLoader;
 import recipeservice.dao.RecipeDao;
+import recipeservice.datasource.ReplicaRoutingDataSource;
 import recipeservice.dto.CuisineDto;
 import recipeservice.dto.IngredientDto;
+import recipeservice.dto.PageDto;
+import recipeservice.dto.RatingSummaryDto;
 import recipeservice.dto.RecipeDto;
+import recipeservice.dto.RecipeFields;
+import recipeservice.dto.RecipePatchDto;
 import recipeservice.dto.ReviewDto;
 import recipeservice.exception.CustomException;
+import recipeservice.exception.PreconditionFailedException;
 import recipeservice.model.Cuisine;
 import recipeservice.model.Ingredient;
 import recipeservice.model.Recipe;
 
 @Service
 public class RecipeService {
+    static final int MAX_MULTI_GET_SIZE = 100;
+
+    private static final int STREAM_CHUNK_SIZE = 200;
+    private static final long BATCH_WINDOW_MICROS = 300;
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final RecipeFields CUISINE_ONLY = RecipeFields.parse("cuisine", "");
 
     private final RecipeDao recipeDao;
     private final CacheService cacheService;
+    private final TransactionOperations transactionOperations;
+    private final TransactionOperations readOnlyTransactions;
+    private final ObjectWriter recipeListWriter;
+    private final VersionService versionService;
+    private final RatingService ratingService;
+    private final SearchService searchService;
+    private final PantryService pantryService;
+    private final EntityCacheService entityCacheService;
+    private final CuisineDictionary cuisineDictionary;
+    // Одиночные запросы по id, пришедшие почти одновременно, читаются одним запросом IN
+    private final BatchLoader<Long, RecipeDto> recipeBatches =
+            new BatchLoader<>(this::loadRecipes, BATCH_WINDOW_MICROS, MAX_BATCH_SIZE);
 
-    public RecipeService(RecipeDao recipeDao, CacheService cacheService) {
+    public RecipeService(RecipeDao recipeDao,
+                         CacheService cacheService,
+                         TransactionOperations transactionOperations,
+                         @Qualifier("readOnlyTransactionTemplate")
+                         TransactionOperations readOnlyTransactions,
+                         ObjectMapper objectMapper,
+                         VersionService versionService,
+                         RatingService ratingService,
+                         SearchService searchService,
+                         PantryService pantryService,
+                         EntityCacheService entityCacheService,
+                         CuisineDictionary cuisineDictionary) {
         this.recipeDao = recipeDao;
         this.cacheService = cacheService;
+        this.transactionOperations = transactionOperations;
+        this.readOnlyTransactions = readOnlyTransactions;
+        this.versionService = versionService;
+        this.ratingService = ratingService;
+        this.searchService = searchService;
+        this.pantryService = pantryService;
+        this.entityCacheService = entityCacheService;
+        this.cuisineDictionary = cuisineDictionary;
+        this.recipeListWriter = objectMapper.writerFor(new TypeReference<List<RecipeDto>>() { });
     }
 
+    @Transactional(readOnly = true)
     public List<RecipeDto> getAllRecipes() {
-        List<Recipe> recipes = recipeDao.getAllRecipes();
-        return recipes.stream()
-                .map(recipe -> {
-                    List<IngredientDto> ingredientDtos = (recipe.getIngredients() != null)
-                            ? recipe.getIngredients().stream()
-                            .map(ingredient ->
-                                    new IngredientDto(ingredient.getId(), ingredient.getName()))
-                            .toList() : List.of();
-
-                    List<ReviewDto> reviewDtos = (recipe.getReviews() != null)
-                            ? recipe.getReviews().stream()
-                            .map(review ->
-                                    new ReviewDto(review.getId(),
-                                            review.getText(),
-                                            review.getRating(),
-                                            recipe.getId()))
-                            .toList() : List.of();
-
-                    Cuisine cuisine = recipe.getCuisine();
-                    CuisineDto cuisineDto = (cuisine != null)
-                            ? new CuisineDto(cuisine.getId(), cuisine.getName())
-                            : null;
-
-                    return new RecipeDto(
-                            recipe.getId(),
-                            recipe.getTitle(),
-                            recipe.getDescription(),
-                            ingredientDtos,
-                            reviewDtos,
-                            cuisineDto
-                    );
-                })
-                .toList();
+        return getAllRecipes(RecipeFields.ALL);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RecipeDto> getAllRecipes(RecipeFields fields) {
+        return withRatings(recipeDao.findAllRecipeDtos(fields), fields);
+    }
+
+    /**
+     * Returns the rating summary of the recipe, or null if there is no such recipe. Existence
+     * is taken from the recipe cache when possible and otherwise costs a primary key lookup.
+     */
+    @Transactional(readOnly = true)
+    public RatingSummaryDto getRatingSummary(Long recipeId) {
+        // Гистограммы есть только у рецептов с отзывами, существование проверяется отдельно
+        if (cacheService.getCachedRecipe(recipeId) == null
+                && recipeDao.getRecipeVersion(recipeId) == null) {
+            return null;
+        }
+        return ratingService.getSummary(recipeId);
+    }
+
+    @Transactional(readOnly = true)
+    public PageDto<RecipeDto> getRecipesPage(String after, Integer limit) {
+        return getRecipesPage(after, limit, RecipeFields.ALL);
+    }
+
+    @Transactional(readOnly = true)
+    public PageDto<RecipeDto> getRecipesPage(String after, Integer limit, RecipeFields fields) {
+        int pageSize = PageCursor.limit(limit);
+        long afterId = PageCursor.decode(after);
+        if (fields.isAll()) {
+            List<Recipe> recipes = recipeDao.getRecipesAfter(afterId, pageSize + 1);
+            return PageCursor.toPage(recipes, pageSize, Recipe::getId, this::convertToDto);
+        }
+        // Неполная страница читается проекцией: без ненужных соединений и запроса отзывов
+        PageDto<Long> ids = PageCursor.toPage(recipeDao.getRecipeIdsAfter(afterId, pageSize + 1),
+                pageSize, Function.identity(), Function.identity());
+        List<RecipeDto> recipes = recipeDao.findRecipeDtosByIds(ids.getItems(), fields);
+        return new PageDto<>(withRatings(recipes, fields), ids.getNextCursor());
+    }
+
+    /**
+     * Feeds every recipe to {@code sink} in id order, holding at most one chunk in memory.
+     * Each chunk is read in its own short read-only transaction and the persistence context is
+     * cleared before the chunk is handed out, so neither the heap nor the transaction grows
+     * with the catalog or with a slow consumer.
+     */
+    public void streamAllRecipes(Consumer<RecipeDto> sink) {
+        long after = 0;
+        while (true) {
+            long cursor = after;
+            List<RecipeDto> chunk = readOnlyTransactions.execute(status -> {
+                List<RecipeDto> recipes = recipeDao.getRecipesAfter(cursor, STREAM_CHUNK_SIZE)
+                        .stream()
+                        .map(this::convertToDto)
+                        .toList();
+                recipeDao.detachAll();
+                return recipes;
+            });
+            if (chunk == null || chunk.isEmpty()) {
+                return;
+            }
+            chunk.forEach(sink);
+            if (chunk.size() < STREAM_CHUNK_SIZE) {
+                return;
+            }
+            after = chunk.get(chunk.size() - 1).getId();
+        }
     }
 
     public RecipeDto getRecipeById(Long id) {
-        Recipe recipe = recipeDao.getRecipeById(id);
-        return recipe != null ? convertToDto(recipe) : null;
+        // Транзакция открывается только при промахе кеша
+        return cacheService.getOrLoadRecipe(id, () -> {
+            if (ReplicaRoutingDataSource.isPrimaryRequired()) {
+                // Пакет читается в транзакции лидера, которой первичная база может быть не нужна
+                return loadRecipes(Collections.singleton(id)).get(id);
+            }
+            return recipeBatches.load(id);
+        });
+    }
+
+    /**
+     * Returns the database version of the recipe row, or null if there is no such recipe,
+     * without reading the recipe: a cached recipe carries its version, otherwise the version
+     * alone is looked up by primary key.
+     */
+    public Long getRecipeVersion(Long id) {
+        RecipeDto cachedRecipe = cacheService.getCachedRecipe(id);
+        if (cachedRecipe != null && cachedRecipe.getVersion() != null) {
+            return cachedRecipe.getVersion();
+        }
+        return readOnlyTransactions.execute(status -> recipeDao.getRecipeVersion(id));
+    }
+
+    /**
+     * Returns the recipe with only the selected fields read from the database. A cached full
+     * recipe is returned as is, since it holds every field; a partial recipe is not cached.
+     */
+    public RecipeDto getRecipeById(Long id, RecipeFields fields) {
+        if (fields.isAll()) {
+            return getRecipeById(id);
+        }
+        RecipeDto cachedRecipe = cacheService.getCachedRecipe(id);
+        if (cachedRecipe != null) {
+            return cachedRecipe;
+        }
+        List<RecipeDto> recipes = loadRecipes(List.of(id), fields);
+        return recipes.isEmpty() ? null : recipes.get(0);
+    }
+
+    /**
+     * Returns the recipes with the given ids in the order asked, without duplicates and
+     * leaving out ids that do not exist. Cached recipes are served from memory and the rest
+     * are read with one query.
+     */
+    public List<RecipeDto> getRecipesByIds(List<Long> ids) {
+        return getRecipesByIds(ids, RecipeFields.ALL);
+    }
+
+    public List<RecipeDto> getRecipesByIds(List<Long> ids, RecipeFields fields) {
+        Set<Long> distinct = new LinkedHashSet<>();
+        if (ids != null) {
+            ids.stream().filter(Objects::nonNull).forEach(distinct::add);
+        }
+        if (distinct.isEmpty()) {
+            throw new CustomException("Список id не может быть пустым");
+        }
+        if (distinct.size() > MAX_MULTI_GET_SIZE) {
+            throw new CustomException("Слишком много id: не больше " + MAX_MULTI_GET_SIZE);
+        }
+        Map<Long, RecipeDto> recipes = fields.isAll()
+                ? cacheService.getOrLoadRecipes(distinct, this::loadRecipes)
+                : getCachedOrLoadRecipes(distinct, fields);
+        return distinct.stream().map(recipes::get).filter(Objects::nonNull).toList();
+    }
+
+    // Частичные рецепты в кеш не попадают: кеш отдает полные рецепты любому запросу
+    private Map<Long, RecipeDto> getCachedOrLoadRecipes(Collection<Long> ids,
+                                                        RecipeFields fields) {
+        Map<Long, RecipeDto> recipes = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            RecipeDto cachedRecipe = cacheService.getCachedRecipe(id);
+            if (cachedRecipe != null) {
+                recipes.put(id, cachedRecipe);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            loadRecipes(missing, fields).forEach(recipe -> recipes.put(recipe.getId(), recipe));
+        }
+        return recipes;
+    }
+
+    private Map<Long, RecipeDto> loadRecipes(Collection<Long> ids) {
+        return readOnlyTransactions.execute(status -> {
+            Map<Long, RecipeDto> recipes = new HashMap<>();
+            if (ids.size() == 1) {
+                Long id = ids.iterator().next();
+                RecipeDto recipe = withRating(recipeDao.findRecipeDtoById(id));
+                if (recipe != null) {
+                    recipes.put(id, recipe);
+                }
+                return recipes;
+            }
+            for (RecipeDto recipe : recipeDao.findRecipeDtosByIds(ids, RecipeFields.ALL)) {
+                recipes.put(recipe.getId(), withRating(recipe));
+            }
+            return recipes;
+        });
+    }
+
+    private List<RecipeDto> loadRecipes(Collection<Long> ids, RecipeFields fields) {
+        return readOnlyTransactions.execute(
+                status -> withRatings(recipeDao.findRecipeDtosByIds(ids, fields), fields));
     }
 
     public RecipeDto createRecipe(RecipeDto recipeDto) {
@@ -72,37 +275,163 @@ public class RecipeService {
 
         Recipe recipe = convertToEntity(recipeDto);
         Recipe createdRecipe = recipeDao.createRecipe(recipe);
+        if (createdRecipe != null) {
+            versionService.recipeChanged(createdRecipe.getId());
+            searchService.recipeChanged(createdRecipe.getId());
+            pantryService.recipeChanged(createdRecipe.getId());
+        }
 
-        if (createdRecipe != null && createdRecipe.getCuisine() != null) {
-            String cacheKey = createdRecipe.getCuisine().getName();
-            if (cacheKey != null) {
-                cacheService.updateCache(cacheKey, convertToDto(createdRecipe));
-            }
+        if (createdRecipe != null && createdRecipe.getCuisine() != null
+                && createdRecipe.getCuisine().getId() != null) {
+            Long cuisineId = createdRecipe.getCuisine().getId();
+            // Список кухни сбрасывается по тегу, как при обновлении, и не ждет истечения TTL
+            cacheService.invalidateTag(CacheTags.cuisine(cuisineId));
+            // После persist у кухни есть только id, имя берется из словаря
+            String cacheKey = createdRecipe.getCuisine().getName() != null
+                    ? CuisineDictionary.normalize(createdRecipe.getCuisine().getName())
+                    : cuisineDictionary.name(cuisineId);
+            cacheService.evictEmptyResult(cacheKey);
         }
 
         return convertToDto(createdRecipe);
     }
 
     public RecipeDto updateRecipe(Long id, RecipeDto recipeDto) {
-        Recipe existingRecipe = recipeDao.getRecipeById(id);
-        if (existingRecipe == null) {
+        if (recipeDto == null) {
             return null;
         }
-
         Recipe recipe = convertToEntity(recipeDto);
         recipe.setId(id);
-        Recipe updatedRecipe = recipeDao.updateRecipe(id, recipe);
-        return convertToDto(updatedRecipe);
+        // Ответ собирается проекцией в той же транзакции: у сущности после merge ленивые
+        // связи, которые после транзакции уже не загрузить
+        RecipeDto updatedRecipe = transactionOperations.execute(status -> {
+            Long version = recipeDao.getRecipeVersion(id);
+            if (version == null) {
+                return null;
+            }
+            // Без версии merge счел бы рецепт новым; с ней PUT не затрет параллельный PATCH
+            recipe.setVersion(version);
+            recipeDao.updateRecipe(id, recipe);
+            return recipeDao.findRecipeDtoById(id);
+        });
+        if (updatedRecipe == null) {
+            return null;
+        }
+        versionService.recipeChanged(id);
+        searchService.recipeChanged(id);
+        pantryService.recipeChanged(id);
+        entityCacheService.recipeChanged(id);
+        cacheService.evictRecipe(id);
+        // Рецепт мог перейти в другую кухню: ее список тоже больше не актуален
+        evictCuisineLists(updatedRecipe.getCuisine());
+        return withRating(updatedRecipe);
     }
 
-    public void deleteRecipe(Long id) {
-        Recipe recipe = recipeDao.getRecipeById(id);
-        if (recipe != null) {
-            String cacheKey = recipe.getCuisine().getName();
+    /**
+     * Applies a partial update without reading the recipe: changed columns are set with one
+     * UPDATE, and ingredient links are added or removed one by one. With
+     * {@code expectedVersion}, taken from If-Match, the UPDATE only matches a row still at
+     * that version, so two patches based on the same ETag cannot both succeed. Returns the new
+     * row version, or null if there is no such recipe.
+     *
+     * @throws PreconditionFailedException if the recipe exists at another version
+     */
+    public Long patchRecipe(Long id, RecipePatchDto patch, Long expectedVersion) {
+        if (patch == null) {
+            throw new CustomException("Тело запроса не может быть пустым");
+        }
+        if ((patch.getTitle() != null && patch.getTitle().isBlank())
+                || (patch.getDescription() != null && patch.getDescription().isBlank())) {
+            throw new CustomException("Название и описание не могут быть пустыми");
+        }
+        Set<Long> added = new LinkedHashSet<>(patch.getAddIngredientIds());
+        Set<Long> removed = new LinkedHashSet<>(patch.getRemoveIngredientIds());
+        if (added.contains(null) || removed.contains(null)) {
+            throw new CustomException("Id ингредиента не может быть пустым");
+        }
+        if (!Collections.disjoint(added, removed)) {
+            throw new CustomException("Ингредиент нельзя одновременно добавить и удалить");
+        }
+        String cuisineKey = null;
+        if (patch.getCuisineId() != null) {
+            cuisineKey = cuisineDictionary.name(patch.getCuisineId());
+            if (cuisineKey == null) {
+                throw new CustomException("Кухня не найдена: " + patch.getCuisineId());
+            }
+        }
 
+        Long version = transactionOperations.execute(status -> {
+            Long newVersion = recipeDao.patchRecipe(id, expectedVersion, patch.getTitle(),
+                    patch.getDescription(), patch.getCuisineId());
+            if (newVersion == null) {
+                // Строка не обновлена: читается только ее версия, чтобы отличить 412 от 404
+                if (expectedVersion != null && recipeDao.getRecipeVersion(id) != null) {
+                    throw new PreconditionFailedException(
+                            "Рецепт " + id + " изменился после выдачи ETag");
+                }
+                return null;
+            }
+            if (!added.isEmpty()) {
+                Set<Long> missing = new LinkedHashSet<>(added);
+                missing.removeAll(recipeDao.getExistingIngredientIds(added));
+                if (!missing.isEmpty()) {
+                    throw new CustomException("Ингредиенты не найдены: " + missing);
+                }
+            }
+            recipeDao.linkIngredients(id, added);
+            recipeDao.unlinkIngredients(id, removed);
+            return newVersion;
+        });
+        if (version == null) {
+            return null;
+        }
+
+        versionService.recipeChanged(id);
+        searchService.recipeChanged(id);
+        if (!added.isEmpty() || !removed.isEmpty()) {
+            pantryService.recipeChanged(id);
+            entityCacheService.recipeChanged(id);
+        }
+        // Списки со старой кухней помечены тегом рецепта и уходят вместе с ним
+        cacheService.evictRecipe(id);
+        if (patch.getCuisineId() != null) {
+            cacheService.invalidateTag(CacheTags.cuisine(patch.getCuisineId()));
+            cacheService.evictEmptyResult(cuisineKey);
+        }
+        return version;
+    }
+
+    public void deleteRecipe(Long id) {
+        // Для сброса списка кухни нужна только кухня рецепта, без ингредиентов и отзывов
+        RecipeDto deletedRecipe = transactionOperations.execute(status -> {
+            List<RecipeDto> recipes = recipeDao.findRecipeDtosByIds(List.of(id), CUISINE_ONLY);
+            if (recipes.isEmpty()) {
+                return null;
+            }
             recipeDao.deleteRecipe(id);
-            cacheService.removeCachedRecipes(cacheKey);
+            return recipes.get(0);
+        });
+        if (deletedRecipe == null) {
+            return;
         }
+        ratingService.recipeDeleted(id);
+        versionService.recipeChanged(id);
+        searchService.recipeChanged(id);
+        pantryService.recipeChanged(id);
+        entityCacheService.recipeChanged(id);
+        cacheService.evictRecipe(id);
+        evictCuisineLists(deletedRecipe.getCuisine());
+    }
+
+    private void evictCuisineLists(CuisineDto cuisine) {
+        if (cuisine == null || cuisine.getId() == null) {
+            return;
+        }
+        cacheService.invalidateTag(CacheTags.cuisine(cuisine.getId()));
+        String cacheKey = cuisine.getName() != null
+                ? CuisineDictionary.normalize(cuisine.getName())
+                : cuisineDictionary.name(cuisine.getId());
+        cacheService.evictEmptyResult(cacheKey);
     }
 
     private RecipeDto convertToDto(Recipe recipe) {
@@ -127,14 +456,31 @@ public class RecipeService {
                 ? new CuisineDto(cuisine.getId(), cuisine.getName())
                 : null;
 
-        return new RecipeDto(
+        return withRating(new RecipeDto(
                 recipe.getId(),
                 recipe.getTitle(),
                 recipe.getDescription(),
                 ingredientDtos,
                 reviewDtos,
-                cuisineDto
-        );
+                cuisineDto,
+                recipe.getVersion()
+        ));
+    }
+
+    private RecipeDto withRating(RecipeDto recipe) {
+        if (recipe == null || recipe.getId() == null) {
+            return recipe;
+        }
+        RatingSummaryDto rating = ratingService.getSummary(recipe.getId());
+        return rating != null ? recipe.withRating(rating) : recipe;
+    }
+
+    private List<RecipeDto> withRatings(List<RecipeDto> recipes) {
+        return recipes.stream().map(this::withRating).toList();
+    }
+
+    private List<RecipeDto> withRatings(List<RecipeDto> recipes, RecipeFields fields) {
+        return fields.has(RecipeFields.Field.RATING) ? withRatings(recipes) : recipes;
     }
 
     private Recipe convertToEntity(RecipeDto recipeDto) {
@@ -161,23 +507,60 @@ public class RecipeService {
         return recipe;
     }
 
+    /**
+     * Returns the recipes of the cuisine with the given name, or null if there is no such
+     * cuisine. The name is resolved in memory, without touching the database.
+     */
     public List<RecipeDto> getRecipesByCuisineName(String cuisineName) {
-        List<RecipeDto> cachedRecipes = cacheService.getCachedRecipes(cuisineName);
+        List<Long> cuisineIds = cuisineDictionary.resolve(cuisineName);
+        if (cuisineIds == null) {
+            return null;
+        }
+        return cacheService.getOrLoad(CuisineDictionary.normalize(cuisineName),
+                () -> loadRecipesByCuisineIds(cuisineIds));
+    }
+
+    /**
+     * Returns the recipes of the cuisine with only the selected fields, or null if there is
+     * no such cuisine. A cached full list is returned as is; a partial list is not cached.
+     */
+    public List<RecipeDto> getRecipesByCuisineName(String cuisineName, RecipeFields fields) {
+        if (fields.isAll()) {
+            return getRecipesByCuisineName(cuisineName);
+        }
+        List<Long> cuisineIds = cuisineDictionary.resolve(cuisineName);
+        if (cuisineIds == null) {
+            return null;
+        }
+        List<RecipeDto> cachedRecipes =
+                cacheService.getCachedRecipes(CuisineDictionary.normalize(cuisineName));
         if (cachedRecipes != null) {
             return cachedRecipes;
         }
+        return readOnlyTransactions.execute(status -> withRatings(
+                recipeDao.findRecipeDtosByCuisineIds(cuisineIds, fields), fields));
+    }
 
-        List<Recipe> recipes = recipeDao.findRecipesByCuisineNameJpql(cuisineName);
-        if (recipes.isEmpty()) {
-            recipes = recipeDao.findRecipesByCuisineNameNative(cuisineName);
+    public EncodedResponse getEncodedRecipesByCuisineName(String cuisineName, boolean gzip) {
+        List<Long> cuisineIds = cuisineDictionary.resolve(cuisineName);
+        if (cuisineIds == null) {
+            return null;
         }
+        return cacheService.getOrLoadEncoded(CuisineDictionary.normalize(cuisineName),
+                () -> loadRecipesByCuisineIds(cuisineIds), this::writeRecipes, gzip);
+    }
 
-        List<RecipeDto> recipeDtos = recipes.stream().map(this::convertToDto).toList();
+    private List<RecipeDto> loadRecipesByCuisineIds(List<Long> cuisineIds) {
+        return readOnlyTransactions.execute(
+                status -> withRatings(
+                        recipeDao.findRecipeDtosByCuisineIds(cuisineIds, RecipeFields.ALL)));
+    }
 
-        if (!recipeDtos.isEmpty()) {
-            cacheService.cacheRecipes(cuisineName, recipeDtos);
+    private byte[] writeRecipes(List<RecipeDto> recipes) {
+        try {
+            return recipeListWriter.writeValueAsBytes(recipes);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
         }
-
-        return recipeDtos;
     }
 }
\ No newline at end of file
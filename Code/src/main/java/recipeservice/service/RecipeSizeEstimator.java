@@ -0,0 +1,73 @@
+package recipeservice.service;
+
+import java.util.List;
+import recipeservice.dto.CuisineDto;
+import recipeservice.dto.IngredientDto;
+import recipeservice.dto.RecipeDto;
+import recipeservice.dto.ReviewDto;
+
+/**
+ * Rough shallow+deep heap size of cached DTOs, assuming a 64-bit JVM with compressed oops.
+ * Good enough for cache accounting; not meant to match a heap dump byte for byte.
+ */
+final class RecipeSizeEstimator {
+    private static final long OBJECT_HEADER = 12;
+    private static final long REFERENCE = 4;
+    private static final long BOXED_LONG = 16;
+    private static final long BOXED_INTEGER = 16;
+    private static final long LIST_OVERHEAD = 40;
+
+    private RecipeSizeEstimator() {
+    }
+
+    static long estimate(List<RecipeDto> recipes) {
+        long bytes = list(recipes.size());
+        for (RecipeDto recipe : recipes) {
+            bytes += estimate(recipe);
+        }
+        return bytes;
+    }
+
+    static long estimate(RecipeDto recipe) {
+        long bytes = align(OBJECT_HEADER + 6 * REFERENCE)
+                + BOXED_LONG
+                + string(recipe.getTitle())
+                + string(recipe.getDescription());
+        if (recipe.getIngredients() != null) {
+            bytes += list(recipe.getIngredients().size());
+            for (IngredientDto ingredient : recipe.getIngredients()) {
+                bytes += align(OBJECT_HEADER + 2 * REFERENCE)
+                        + BOXED_LONG + string(ingredient.getName());
+            }
+        }
+        if (recipe.getReviews() != null) {
+            bytes += list(recipe.getReviews().size());
+            for (ReviewDto review : recipe.getReviews()) {
+                bytes += align(OBJECT_HEADER + 4 * REFERENCE)
+                        + 2 * BOXED_LONG + BOXED_INTEGER + string(review.getText());
+            }
+        }
+        CuisineDto cuisine = recipe.getCuisine();
+        if (cuisine != null) {
+            bytes += align(OBJECT_HEADER + 2 * REFERENCE) + BOXED_LONG + string(cuisine.getName());
+        }
+        return bytes;
+    }
+
+    private static long string(String value) {
+        if (value == null) {
+            return 0;
+        }
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        long payload = latin1 ? value.length() : 2L * value.length();
+        return align(OBJECT_HEADER + 12) + align(16 + payload);
+    }
+
+    private static long list(int size) {
+        return LIST_OVERHEAD + align(16 + REFERENCE * size);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
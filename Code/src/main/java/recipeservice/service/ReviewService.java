@@ -2,7 +2,10 @@ package recipeservice.service;
 
 import java.util.List;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import recipeservice.dao.ReviewDao;
+import recipeservice.dao.ReviewUpdate;
+import recipeservice.dto.PageDto;
 import recipeservice.dto.ReviewDto;
 import recipeservice.model.Review;
 import recipeservice.exception.CustomException;
@@ -11,11 +14,19 @@ import recipeservice.exception.CustomException;
 public class ReviewService {
 
     private final ReviewDao reviewDao;
+    private final CacheService cacheService;
+    private final VersionService versionService;
+    private final RatingService ratingService;
 
-    public ReviewService(ReviewDao reviewDao) {
+    public ReviewService(ReviewDao reviewDao, CacheService cacheService,
+                         VersionService versionService, RatingService ratingService) {
         this.reviewDao = reviewDao;
+        this.cacheService = cacheService;
+        this.versionService = versionService;
+        this.ratingService = ratingService;
     }
 
+    @Transactional(readOnly = true)
     public List<ReviewDto> getAllReviews() {
         List<Review> reviews = reviewDao.getAllReviews();
         return reviews.stream()
@@ -27,6 +38,18 @@ public class ReviewService {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
+    public PageDto<ReviewDto> getReviewsPage(String after, Integer limit) {
+        int pageSize = PageCursor.limit(limit);
+        List<Review> reviews = reviewDao.getReviewsAfter(PageCursor.decode(after), pageSize + 1);
+        return PageCursor.toPage(reviews, pageSize, Review::getId, review -> new ReviewDto(
+                review.getId(),
+                review.getText(),
+                review.getRating(),
+                review.getRecipe().getId()));
+    }
+
+    @Transactional(readOnly = true)
     public ReviewDto getReviewById(Long id) {
         Review review = reviewDao.getReviewById(id);
         return review != null
@@ -39,21 +62,60 @@ public class ReviewService {
     }
 
     public Review createReview(Review review) {
-        return reviewDao.createReview(review);
+        Review createdReview;
+        ratingService.beginReviewChange();
+        try {
+            createdReview = reviewDao.createReview(review);
+            if (createdReview != null && createdReview.getRecipe() != null) {
+                ratingService.reviewAdded(
+                        createdReview.getRecipe().getId(), createdReview.getRating());
+            }
+        } finally {
+            ratingService.endReviewChange();
+        }
+        reviewedRecipeChanged(createdReview);
+        return createdReview;
     }
 
     public Review updateReview(Long id, Review review) {
-        Review existingReview = reviewDao.updateReview(id, review);
+        Review existingReview;
+        ratingService.beginReviewChange();
+        try {
+            // Прежняя оценка читается под блокировкой строки в той же транзакции, что и запись,
+            // иначе два параллельных обновления вычли бы одну и ту же оценку дважды
+            ReviewUpdate update = reviewDao.updateReview(id, review);
+            existingReview = update != null ? update.getReview() : null;
+            if (existingReview != null && existingReview.getRecipe() != null) {
+                Long recipeId = existingReview.getRecipe().getId();
+                ratingService.reviewRemoved(recipeId, update.getPreviousRating());
+                ratingService.reviewAdded(recipeId, existingReview.getRating());
+            }
+        } finally {
+            ratingService.endReviewChange();
+        }
         if (existingReview == null) {
             throw new CustomException("Отзыв не найден для обновления");
         }
+        reviewedRecipeChanged(existingReview);
         return existingReview;
     }
 
     public void deleteReview(Long id) {
-        reviewDao.deleteReview(id);
+        Review deletedReview;
+        ratingService.beginReviewChange();
+        try {
+            deletedReview = reviewDao.deleteReview(id);
+            if (deletedReview != null && deletedReview.getRecipe() != null) {
+                ratingService.reviewRemoved(
+                        deletedReview.getRecipe().getId(), deletedReview.getRating());
+            }
+        } finally {
+            ratingService.endReviewChange();
+        }
+        reviewedRecipeChanged(deletedReview);
     }
 
+    @Transactional(readOnly = true)
     public List<ReviewDto> getReviewsByRecipeId(Long recipeId) {
         List<Review> reviews = reviewDao.getReviewsByRecipeId(recipeId);
         return reviews.stream()
@@ -64,6 +126,13 @@ public class ReviewService {
                         review.getRecipe().getId()))
                 .toList();
     }
+
+    private void reviewedRecipeChanged(Review review) {
+        if (review != null && review.getRecipe() != null) {
+            versionService.recipeChanged(review.getRecipe().getId());
+            cacheService.evictRecipe(review.getRecipe().getId());
+        }
+    }
 }
 
 
@@ -0,0 +1,256 @@
+package recipeservice.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import recipeservice.cache.InvalidationBus;
+import recipeservice.dao.RecipeDao;
+import recipeservice.dto.IngredientDto;
+import recipeservice.dto.PageDto;
+import recipeservice.dto.RecipeDto;
+import recipeservice.dto.SearchHitDto;
+import recipeservice.exception.CustomException;
+import recipeservice.search.SearchIndex;
+
+/**
+ * Full-text search over recipe titles, descriptions and ingredient names.
+ *
+ * <p>The index is built in the background once the application is ready, by reading the
+ * catalog in keyset chunks, and afterwards follows recipe writes: every change reloads the
+ * recipe from the database and replaces its document, and is announced to the other
+ * instances so they do the same. Renaming or deleting an ingredient reindexes the recipes
+ * that used it on the builder thread, in chunks: the index knows which documents list the
+ * ingredient, so a single message lets every instance find them in its own index. While a
+ * build runs, changes go to both the serving index and the one being built, and the build
+ * skips the recipes changed meanwhile, so a chunk it read earlier never overwrites them.
+ */
+@Service
+public class SearchService {
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+    private static final String TOPIC = "search.recipe";
+    private static final String INGREDIENT_TOPIC = "search.ingredient";
+    private static final int BUILD_CHUNK_SIZE = 500;
+
+    private final RecipeDao recipeDao;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private SearchIndex index = new SearchIndex();
+    private SearchIndex building;
+    private final Set<Long> changedDuringBuild = new HashSet<>();
+    private volatile InvalidationBus invalidationBus;
+
+    public SearchService(RecipeDao recipeDao) {
+        this.recipeDao = recipeDao;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        builder.execute(this::rebuild);
+    }
+
+    public PageDto<SearchHitDto> search(String query, String after, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new CustomException("Поисковый запрос не может быть пустым");
+        }
+        int pageSize = PageCursor.limit(limit);
+        long offset = PageCursor.decode(after);
+        if (offset > Integer.MAX_VALUE - PageCursor.MAX_LIMIT - 1) {
+            throw new CustomException("Некорректный курсор страницы");
+        }
+        List<SearchIndex.Hit> hits;
+        lock.readLock().lock();
+        try {
+            hits = index.search(query, (int) offset, pageSize + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Результаты упорядочены по релевантности, поэтому курсор хранит смещение
+        List<SearchIndex.Hit> page = hits.size() > pageSize ? hits.subList(0, pageSize) : hits;
+        String nextCursor = hits.size() > pageSize ? PageCursor.encode(offset + pageSize) : null;
+        return new PageDto<>(page.stream()
+                .map(hit -> new SearchHitDto(hit.getRecipeId(), hit.getTitle(), hit.getScore()))
+                .toList(), nextCursor);
+    }
+
+    public void recipeChanged(Long id) {
+        recipesChanged(List.of(id));
+    }
+
+    public void recipesChanged(Collection<Long> ids) {
+        reindex(ids);
+        InvalidationBus bus = invalidationBus;
+        if (bus != null) {
+            ids.forEach(id -> bus.publish(TOPIC, id.toString()));
+        }
+    }
+
+    /**
+     * Schedules the reindex of the recipes using a renamed or deleted ingredient and returns
+     * at once. The recipes are the indexed documents listing it plus {@code recipeIds}, which
+     * a deletion passes because the links are gone from the database by the time it commits.
+     */
+    public void ingredientChanged(Long ingredientId, Collection<Long> recipeIds) {
+        List<Long> unlinked = List.copyOf(recipeIds);
+        builder.execute(() -> reindexIngredient(ingredientId, unlinked));
+        InvalidationBus bus = invalidationBus;
+        if (bus != null) {
+            bus.publish(INGREDIENT_TOPIC, ingredientId.toString());
+        }
+    }
+
+    public int getIndexedCount() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void bindTo(InvalidationBus bus) {
+        bus.subscribe(TOPIC, id -> reindex(List.of(Long.valueOf(id))));
+        bus.subscribe(INGREDIENT_TOPIC, id ->
+                builder.execute(() -> reindexIngredient(Long.valueOf(id), List.of())));
+        bus.onReset(this::rebuildInBackground);
+        this.invalidationBus = bus;
+    }
+
+    public void rebuild() {
+        SearchIndex target = new SearchIndex();
+        lock.writeLock().lock();
+        try {
+            building = target;
+            changedDuringBuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        boolean completed = false;
+        try {
+            long after = 0;
+            while (true) {
+                List<Long> ids = recipeDao.getRecipeIdsAfter(after, BUILD_CHUNK_SIZE);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                List<RecipeDto> recipes = recipeDao.findRecipeDtosWithoutReviews(ids);
+                lock.writeLock().lock();
+                try {
+                    if (building != target) {
+                        return; // Начата более новая перестройка
+                    }
+                    for (RecipeDto recipe : recipes) {
+                        if (!changedDuringBuild.contains(recipe.getId())) {
+                            put(target, recipe);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                after = ids.get(ids.size() - 1);
+            }
+            completed = true;
+        } catch (RuntimeException e) {
+            logger.warn("Не удалось построить поисковый индекс", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (building == target) {
+                    if (completed) {
+                        index = target;
+                    }
+                    building = null;
+                    changedDuringBuild.clear();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        if (completed) {
+            logger.info("Поисковый индекс построен: {} рецептов", target.size());
+        }
+    }
+
+    private void reindexIngredient(Long ingredientId, List<Long> unlinked) {
+        Set<Long> ids = new TreeSet<>(unlinked);
+        lock.readLock().lock();
+        try {
+            ids.addAll(index.recipesWithIngredient(ingredientId));
+            if (building != null) {
+                ids.addAll(building.recipesWithIngredient(ingredientId));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Long> ordered = new ArrayList<>(ids);
+        try {
+            for (int from = 0; from < ordered.size(); from += BUILD_CHUNK_SIZE) {
+                reindex(ordered.subList(from, Math.min(from + BUILD_CHUNK_SIZE, ordered.size())));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Не удалось переиндексировать рецепты с ингредиентом {}", ingredientId, e);
+        }
+    }
+
+    private void reindex(Collection<Long> ids) {
+        Map<Long, RecipeDto> recipes = new HashMap<>();
+        for (RecipeDto recipe : recipeDao.findRecipeDtosWithoutReviews(new ArrayList<>(ids))) {
+            recipes.put(recipe.getId(), recipe);
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                RecipeDto recipe = recipes.get(id);
+                apply(index, id, recipe);
+                if (building != null) {
+                    apply(building, id, recipe);
+                    changedDuringBuild.add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(SearchIndex target, Long id, RecipeDto recipe) {
+        if (recipe != null) {
+            put(target, recipe);
+        } else {
+            target.remove(id);
+        }
+    }
+
+    private static void put(SearchIndex target, RecipeDto recipe) {
+        String ingredients = recipe.getIngredients() == null ? "" : recipe.getIngredients().stream()
+                .map(IngredientDto::getName)
+                .filter(name -> name != null)
+                .collect(Collectors.joining(" "));
+        List<Long> ingredientIds = recipe.getIngredients() == null ? List.of()
+                : recipe.getIngredients().stream()
+                .map(IngredientDto::getId)
+                .filter(id -> id != null)
+                .toList();
+        String description = recipe.getDescription() != null ? recipe.getDescription() : "";
+        target.put(recipe.getId(), recipe.getTitle(), description + " " + ingredients,
+                ingredientIds);
+    }
+}
@@ -0,0 +1,165 @@
+package recipeservice.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import recipeservice.cache.InvalidationBus;
+
+/**
+ * Version counters behind the ETags of recipe and cuisine responses.
+ *
+ * <p>All counters draw from one monotonic clock, so a response built from several of them is
+ * identified by the largest one: any write bumps it past everything seen before. ETags also
+ * carry a random epoch, since the counters start over on restart; it is rotated whenever
+ * changes made by other instances may have been missed.
+ */
+@Service
+public class VersionService {
+    private static final String RECIPES = "recipes";
+    private static final String CUISINES = "cuisines";
+    private static final String INGREDIENTS = "ingredients";
+    private static final String RECIPE_TOPIC = "version.recipe";
+    private static final String CUISINE_TOPIC = "version.cuisine";
+    private static final String INGREDIENT_TOPIC = "version.ingredient";
+    private static final String ROW_VERSION = "-r";
+
+    private volatile String epoch = newEpoch();
+    private final AtomicLong clock = new AtomicLong();
+    private final ConcurrentHashMap<String, Long> versions = new ConcurrentHashMap<>();
+    private volatile InvalidationBus invalidationBus;
+
+    public void recipeChanged(Long id) {
+        bump(RECIPE_TOPIC, id);
+    }
+
+    public void cuisineChanged(Long id) {
+        bump(CUISINE_TOPIC, id);
+    }
+
+    public void ingredientChanged(Long id) {
+        bump(INGREDIENT_TOPIC, id);
+    }
+
+    public String recipesETag() {
+        // Список рецептов включает названия кухонь и ингредиентов
+        return etag("recipes", version(RECIPES), version(CUISINES), version(INGREDIENTS));
+    }
+
+    public String recipeETag(Long id) {
+        return etag("recipe-" + id,
+                version(CacheTags.recipe(id)), version(CUISINES), version(INGREDIENTS));
+    }
+
+    /**
+     * Appends the database version of a recipe row to its ETag. Unlike the rest of the ETag it
+     * means the same on every instance, so If-Match can be checked against the row itself.
+     */
+    public static String withRowVersion(String etag, Long rowVersion) {
+        if (rowVersion == null) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + ROW_VERSION + rowVersion + "\"";
+    }
+
+    /**
+     * Returns the row version carried by the first ETag of recipe {@code id} in an If-Match
+     * header, or null if there is none.
+     */
+    public static Long rowVersion(String ifMatch, Long id) {
+        String resource = "-recipe-" + id + "-";
+        for (String tag : ifMatch.split(",")) {
+            String value = tag.strip();
+            if (!value.startsWith("\"") || !value.endsWith("\"") || !value.contains(resource)) {
+                continue;
+            }
+            int start = value.lastIndexOf(ROW_VERSION);
+            if (start < value.indexOf(resource)) {
+                continue;
+            }
+            try {
+                return Long.valueOf(value.substring(start + ROW_VERSION.length(),
+                        value.length() - 1));
+            } catch (NumberFormatException e) {
+                // Чужой или испорченный ETag просто не совпадает
+            }
+        }
+        return null;
+    }
+
+    public String cuisinesETag() {
+        return etag("cuisines", version(CUISINES));
+    }
+
+    public String cuisineETag(Long id) {
+        return etag("cuisine-" + id, version(CacheTags.cuisine(id)));
+    }
+
+    public void bindTo(InvalidationBus bus) {
+        bus.subscribe(RECIPE_TOPIC, id -> advance(RECIPE_TOPIC, Long.valueOf(id)));
+        bus.subscribe(CUISINE_TOPIC, id -> advance(CUISINE_TOPIC, Long.valueOf(id)));
+        bus.subscribe(INGREDIENT_TOPIC, id -> advance(INGREDIENT_TOPIC, Long.valueOf(id)));
+        bus.onReset(() -> epoch = newEpoch());
+        this.invalidationBus = bus;
+    }
+
+    private void bump(String topic, Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Читатель не должен получить новую версию раньше, чем увидит новые данные
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            advanceAndPublish(topic, id);
+                        }
+                    });
+        } else {
+            advanceAndPublish(topic, id);
+        }
+    }
+
+    private void advanceAndPublish(String topic, Long id) {
+        advance(topic, id);
+        InvalidationBus bus = invalidationBus;
+        if (bus != null && id != null) {
+            bus.publish(topic, id.toString());
+        }
+    }
+
+    private void advance(String topic, Long id) {
+        long version = clock.incrementAndGet();
+        switch (topic) {
+            case RECIPE_TOPIC -> {
+                versions.merge(CacheTags.recipe(id), version, Math::max);
+                versions.merge(RECIPES, version, Math::max);
+            }
+            case CUISINE_TOPIC -> {
+                versions.merge(CacheTags.cuisine(id), version, Math::max);
+                versions.merge(CUISINES, version, Math::max);
+            }
+            case INGREDIENT_TOPIC -> {
+                versions.merge(CacheTags.ingredient(id), version, Math::max);
+                versions.merge(INGREDIENTS, version, Math::max);
+            }
+            default -> throw new IllegalArgumentException("Unknown topic: " + topic);
+        }
+    }
+
+    private long version(String key) {
+        return versions.getOrDefault(key, 0L);
+    }
+
+    private String etag(String resource, long... parts) {
+        long version = 0;
+        for (long part : parts) {
+            version = Math.max(version, part);
+        }
+        return "\"" + epoch + "-" + resource + "-" + version + "\"";
+    }
+
+    private static String newEpoch() {
+        return Long.toHexString(ThreadLocalRandom.current().nextLong());
+    }
+}
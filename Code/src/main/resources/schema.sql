@@ -0,0 +1,5 @@
+-- Row version for optimistic If-Match checks on recipe updates
+ALTER TABLE recipe ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Recipes by cuisine are queried on the foreign key, without joining cuisine
+CREATE INDEX IF NOT EXISTS recipe_cuisine_id_idx ON recipe (cuisine_id);
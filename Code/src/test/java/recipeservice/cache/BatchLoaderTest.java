@@ -0,0 +1,88 @@
+package recipeservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchLoaderTest {
+
+    private static Map<Long, String> names(Set<Long> ids) {
+        Map<Long, String> names = new HashMap<>();
+        for (Long id : ids) {
+            if (id > 0) {
+                names.put(id, "recipe-" + id);
+            }
+        }
+        return names;
+    }
+
+    @Test
+    public void testLoad_MergesConcurrentKeysIntoOneBatch() throws Exception {
+        List<Set<Long>> batches = new CopyOnWriteArrayList<>();
+        BatchLoader<Long, String> loader = new BatchLoader<>(ids -> {
+            batches.add(Set.copyOf(ids));
+            return names(ids);
+        }, 200_000, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (long id = 1; id <= 8; id++) {
+            long key = id % 4 + 1;
+            results.add(executor.submit(() -> {
+                start.await();
+                return loader.load(key);
+            }));
+        }
+        start.countDown();
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals("recipe-" + ((i + 1) % 4 + 1), results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, batches.size());
+        assertEquals(Set.of(1L, 2L, 3L, 4L), batches.get(0));
+        assertEquals(1, loader.batchCount());
+        assertEquals(4, loader.keyCount());
+    }
+
+    @Test
+    public void testLoad_FullBatchIsDispatchedBeforeWindowEnds() throws Exception {
+        BatchLoader<Long, String> loader = new BatchLoader<>(BatchLoaderTest::names,
+                TimeUnit.SECONDS.toMicros(30), 2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        long startedAt = System.nanoTime();
+
+        Future<String> first = executor.submit(() -> loader.load(1L));
+        Future<String> second = executor.submit(() -> loader.load(2L));
+
+        assertEquals("recipe-1", first.get(5, TimeUnit.SECONDS));
+        assertEquals("recipe-2", second.get(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - startedAt < TimeUnit.SECONDS.toNanos(5));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testLoad_MissingKeyIsNullAndFailureReachesCaller() {
+        BatchLoader<Long, String> loader = new BatchLoader<>(BatchLoaderTest::names, 0, 10);
+        assertNull(loader.load(-1L));
+        assertEquals("recipe-5", loader.load(5L));
+
+        BatchLoader<Long, String> failing = new BatchLoader<>(ids -> {
+            throw new IllegalStateException("db down");
+        }, 0, 10);
+        assertThrows(IllegalStateException.class, () -> failing.load(1L));
+        assertEquals(1, failing.batchCount());
+    }
+}
@@ -0,0 +1,147 @@
+package recipeservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvalidationBusTest {
+
+    @Test
+    public void testPublish_DeliveredToPeersOnly() {
+        LoopbackTransport transport = new LoopbackTransport();
+        InvalidationBus sender = new InvalidationBus(transport, 1000, 100);
+        InvalidationBus receiver = new InvalidationBus(transport, 1000, 100);
+        List<String> sent = new ArrayList<>();
+        List<String> received = new ArrayList<>();
+        sender.subscribe("tag", sent::add);
+        receiver.subscribe("tag", received::add);
+
+        sender.publish("tag", "cuisine:1");
+        sender.flush();
+
+        assertEquals(List.of("cuisine:1"), received);
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    public void testPublish_CoalescesBurstIntoOneBatch() {
+        LoopbackTransport transport = new LoopbackTransport();
+        InvalidationBus sender = new InvalidationBus(transport, 1000, 100);
+        InvalidationBus receiver = new InvalidationBus(transport, 1000, 100);
+        List<String> received = new ArrayList<>();
+        receiver.subscribe("tag", received::add);
+
+        for (int i = 0; i < 10; i++) {
+            sender.publish("tag", "cuisine:1");
+            sender.publish("tag", "cuisine:2");
+        }
+        sender.flush();
+
+        assertEquals(List.of("cuisine:1", "cuisine:2"), received);
+        assertEquals(1, sender.getSentBatchCount());
+        assertEquals(18, sender.getCoalescedCount());
+    }
+
+    @Test
+    public void testPublish_FlushesAfterBatchWindow() throws InterruptedException {
+        LoopbackTransport transport = new LoopbackTransport();
+        InvalidationBus sender = new InvalidationBus(transport, 20, 100);
+        InvalidationBus receiver = new InvalidationBus(transport, 20, 100);
+        List<String> received = new CopyOnWriteArrayList<>();
+        receiver.subscribe("key", received::add);
+
+        sender.publish("key", "Italian");
+        assertTrue(received.isEmpty());
+        for (int i = 0; i < 50 && received.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(List.of("Italian"), received);
+    }
+
+    @Test
+    public void testPublish_FullBatchSentImmediately() {
+        LoopbackTransport transport = new LoopbackTransport();
+        InvalidationBus sender = new InvalidationBus(transport, 60_000, 3);
+        InvalidationBus receiver = new InvalidationBus(transport, 60_000, 3);
+        List<String> received = new ArrayList<>();
+        receiver.subscribe("key", received::add);
+
+        sender.publish("key", "a");
+        sender.publish("key", "b");
+        sender.publish("key", "c");
+
+        assertEquals(List.of("a", "b", "c"), received);
+    }
+
+    @Test
+    public void testPublish_SplitsPayloadsToTransportLimit() {
+        List<String> payloads = new ArrayList<>();
+        InvalidationTransport transport = new LoopbackTransport() {
+            @Override
+            public void send(String payload) {
+                payloads.add(payload);
+                super.send(payload);
+            }
+
+            @Override
+            public int maxPayloadLength() {
+                return 80;
+            }
+        };
+        InvalidationBus sender = new InvalidationBus(transport, 60_000, 1000);
+        InvalidationBus receiver = new InvalidationBus(transport, 60_000, 1000);
+        List<String> received = new ArrayList<>();
+        receiver.subscribe("tag", received::add);
+
+        for (int i = 0; i < 20; i++) {
+            sender.publish("tag", "recipe:" + i);
+        }
+        sender.flush();
+
+        assertEquals(20, received.size());
+        assertTrue(payloads.size() > 1);
+        assertTrue(payloads.stream().allMatch(payload -> payload.length() <= 80));
+    }
+
+    @Test
+    public void testPublish_EscapesLineBreaks() {
+        LoopbackTransport transport = new LoopbackTransport();
+        InvalidationBus sender = new InvalidationBus(transport, 1000, 100);
+        InvalidationBus receiver = new InvalidationBus(transport, 1000, 100);
+        List<String> received = new ArrayList<>();
+        receiver.subscribe("key", received::add);
+
+        sender.publish("key", "Ital\nian \\n");
+        sender.flush();
+
+        assertEquals(List.of("Ital\nian \\n"), received);
+    }
+
+    @Test
+    public void testGap_RunsResetHandlers() {
+        List<Runnable> gaps = new ArrayList<>();
+        InvalidationTransport transport = new InvalidationTransport() {
+            @Override
+            public void send(String payload) {
+            }
+
+            @Override
+            public void listen(Consumer<String> receiver, Runnable gap) {
+                gaps.add(gap);
+            }
+        };
+        InvalidationBus bus = new InvalidationBus(transport, 1000, 100);
+        List<String> resets = new ArrayList<>();
+        bus.onReset(() -> resets.add("reset"));
+
+        gaps.get(0).run();
+
+        assertEquals(List.of("reset"), resets);
+    }
+}
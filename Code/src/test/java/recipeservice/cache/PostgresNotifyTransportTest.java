@@ -0,0 +1,69 @@
+package recipeservice.cache;
+
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class PostgresNotifyTransportTest {
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+
+    @Test
+    public void testSend_OversizedPayloadBecomesReset() throws Exception {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        PostgresNotifyTransport transport = new PostgresNotifyTransport(dataSource, "cache_bus");
+
+        transport.send("instance\ntag " + "ключ".repeat(1000));
+        transport.send("instance\ntag cuisine:1");
+
+        verify(statement).setString(2, PostgresNotifyTransport.RESET_PAYLOAD);
+        verify(statement).setString(2, "instance\ntag cuisine:1");
+        verify(statement, times(2)).execute();
+    }
+
+    @Test
+    public void testListen_ResetNotificationReportedAsGap() throws Exception {
+        PGConnection pgConnection = mock(PGConnection.class);
+        PGNotification reset = mock(PGNotification.class);
+        PGNotification batch = mock(PGNotification.class);
+        when(reset.getParameter()).thenReturn(PostgresNotifyTransport.RESET_PAYLOAD);
+        when(batch.getParameter()).thenReturn("instance\ntag cuisine:1");
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getNotifications(anyInt()))
+                .thenReturn(new PGNotification[]{reset, batch})
+                .thenReturn(null);
+        PostgresNotifyTransport transport = new PostgresNotifyTransport(dataSource, "cache_bus");
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(1);
+        CountDownLatch gap = new CountDownLatch(1);
+
+        transport.listen(payload -> {
+            received.add(payload);
+            delivered.countDown();
+        }, gap::countDown);
+
+        assertTrue(gap.await(5, TimeUnit.SECONDS));
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        transport.close();
+        assertEquals(List.of("instance\ntag cuisine:1"), received);
+    }
+}
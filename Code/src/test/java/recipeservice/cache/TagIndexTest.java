@@ -0,0 +1,32 @@
+package recipeservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TagIndexTest {
+
+    @Test
+    public void testRemove_KeepsEqualButDistinctEntry() {
+        TagIndex<List<String>> index = new TagIndex<>();
+        List<String> first = List.of("Pasta");
+        List<String> second = List.of("Pasta");
+        index.add(first, Set.of("cuisine:1"));
+        index.add(second, Set.of("cuisine:1"));
+
+        assertEquals(2, index.entries("cuisine:1").size());
+
+        index.remove(first, Set.of("cuisine:1"));
+
+        Set<List<String>> entries = index.entries("cuisine:1");
+        assertEquals(1, entries.size());
+        assertSame(second, entries.iterator().next());
+
+        index.remove(second, Set.of("cuisine:1"));
+        assertTrue(index.entries("cuisine:1").isEmpty());
+        assertEquals(0, index.tagCount());
+    }
+}
@@ -0,0 +1,72 @@
+package recipeservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelTest {
+
+    @Test
+    public void testAdvance_FiresOnlyDueTimers() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        wheel.schedule("soon", 50);
+        wheel.schedule("later", 500);
+
+        assertTrue(wheel.advance(40).isEmpty());
+        assertEquals(List.of("soon"), wheel.advance(50));
+        assertTrue(wheel.advance(490).isEmpty());
+        assertEquals(List.of("later"), wheel.advance(500));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testAdvance_CascadesFromUpperLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+        long[] deadlines = {63, 64, 65, 4095, 4096, 4097, 262_143, 262_144, 300_000};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = 1; now <= 300_000; now++) {
+            for (Long deadline : wheel.advance(now)) {
+                assertEquals(now, deadline.longValue());
+                fired.add(deadline);
+            }
+        }
+
+        assertEquals(deadlines.length, fired.size());
+    }
+
+    @Test
+    public void testAdvance_DeadlineBeyondTopLevel() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        long farAway = (1L << 24) + 100;
+        wheel.schedule("far", farAway);
+
+        assertTrue(wheel.advance(farAway - 1).isEmpty());
+        assertEquals(List.of("far"), wheel.advance(farAway));
+    }
+
+    @Test
+    public void testCancel_RemovesTimer() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        TimingWheel.Timer<String> timer = wheel.schedule("cancelled", 100);
+
+        assertTrue(wheel.cancel(timer));
+        assertFalse(wheel.cancel(timer));
+        assertTrue(wheel.advance(1000).isEmpty());
+    }
+
+    @Test
+    public void testSchedule_PastDeadlineFiresOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        wheel.advance(100);
+        wheel.schedule("overdue", 20);
+
+        assertEquals(List.of("overdue"), wheel.advance(110));
+    }
+}
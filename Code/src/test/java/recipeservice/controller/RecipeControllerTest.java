@@ -0,0 +1,158 @@
+package recipeservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import recipeservice.dto.RecipeDto;
+import recipeservice.dto.RecipeFields;
+import recipeservice.dto.RecipePatchDto;
+import recipeservice.exception.GlobalExceptionHandler;
+import recipeservice.exception.PreconditionFailedException;
+import recipeservice.log.VisitCounter;
+import recipeservice.service.PantryService;
+import recipeservice.service.RecipeImportService;
+import recipeservice.service.RecipeService;
+import recipeservice.service.SearchService;
+import recipeservice.service.VersionService;
+
+import java.util.ArrayList;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class RecipeControllerTest {
+
+    private static final String RECIPE_ETAG = "\"epoch-recipe-1-7\"";
+    private static final String CURRENT_ETAG = "\"epoch-recipe-1-7-r3\"";
+
+    @Mock
+    private RecipeService recipeService;
+
+    @Mock
+    private RecipeImportService recipeImportService;
+
+    @Mock
+    private SearchService searchService;
+
+    @Mock
+    private PantryService pantryService;
+
+    @Mock
+    private VisitCounter visitCounter;
+
+    @Mock
+    private VersionService versionService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private RecipeController recipeController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(recipeController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        when(versionService.recipeETag(1L)).thenReturn(RECIPE_ETAG);
+    }
+
+    @Test
+    public void testGetRecipeById_NotModifiedWithoutReadingRecipe() throws Exception {
+        when(recipeService.getRecipeVersion(1L)).thenReturn(3L);
+
+        mockMvc.perform(get("/api/recipes/1").header(HttpHeaders.IF_NONE_MATCH, CURRENT_ETAG))
+                .andExpect(status().isNotModified());
+
+        verify(recipeService, never()).getRecipeById(any(), any());
+    }
+
+    @Test
+    public void testGetRecipeById_StaleETagReadsRecipe() throws Exception {
+        when(recipeService.getRecipeVersion(1L)).thenReturn(4L);
+        when(recipeService.getRecipeById(eq(1L), eq(RecipeFields.ALL))).thenReturn(recipe(4L));
+
+        mockMvc.perform(get("/api/recipes/1").header(HttpHeaders.IF_NONE_MATCH, CURRENT_ETAG))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"epoch-recipe-1-7-r4\""))
+                .andExpect(jsonPath("$.title").value("Pasta"));
+    }
+
+    @Test
+    public void testGetRecipeById_WithoutIfNoneMatchSkipsVersionLookup() throws Exception {
+        when(recipeService.getRecipeById(eq(1L), eq(RecipeFields.ALL))).thenReturn(recipe(3L));
+
+        mockMvc.perform(get("/api/recipes/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, CURRENT_ETAG));
+
+        verify(recipeService, never()).getRecipeVersion(any());
+    }
+
+    @Test
+    public void testGetRecipeById_UnknownRecipeWithIfNoneMatch() throws Exception {
+        when(recipeService.getRecipeVersion(1L)).thenReturn(null);
+
+        mockMvc.perform(get("/api/recipes/1").header(HttpHeaders.IF_NONE_MATCH, CURRENT_ETAG))
+                .andExpect(status().isNotFound());
+
+        verify(recipeService, never()).getRecipeById(any(), any());
+    }
+
+    @Test
+    public void testPatchRecipe_MissingRecipeWithIfMatch() throws Exception {
+        when(recipeService.patchRecipe(eq(1L), any(RecipePatchDto.class), eq(3L))).thenReturn(null);
+
+        mockMvc.perform(patch("/api/recipes/1")
+                        .header(HttpHeaders.IF_MATCH, CURRENT_ETAG)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"New title\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testPatchRecipe_ChangedRecipeWithIfMatch() throws Exception {
+        when(recipeService.patchRecipe(eq(1L), any(RecipePatchDto.class), eq(3L)))
+                .thenThrow(new PreconditionFailedException("Рецепт 1 изменился после выдачи ETag"));
+
+        mockMvc.perform(patch("/api/recipes/1")
+                        .header(HttpHeaders.IF_MATCH, CURRENT_ETAG)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"New title\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void testPatchRecipe_MatchingIfMatchReturnsNewETag() throws Exception {
+        when(recipeService.patchRecipe(eq(1L), any(RecipePatchDto.class), eq(3L))).thenReturn(4L);
+
+        mockMvc.perform(patch("/api/recipes/1")
+                        .header(HttpHeaders.IF_MATCH, CURRENT_ETAG)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"New title\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"epoch-recipe-1-7-r4\""));
+    }
+
+    private static RecipeDto recipe(Long version) {
+        return new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(),
+                new ArrayList<>(), null, version);
+    }
+}
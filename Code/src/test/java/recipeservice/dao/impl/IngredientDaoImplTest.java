@@ -0,0 +1,108 @@
+package recipeservice.dao.impl;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import recipeservice.model.Cuisine;
+import recipeservice.model.Ingredient;
+import recipeservice.model.Recipe;
+import recipeservice.model.Review;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IngredientDaoImplTest {
+
+    private SessionFactory sessionFactory;
+    private Long saltId;
+    private Long pepperId;
+
+    @BeforeEach
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Recipe.class)
+                .addAnnotatedClass(Cuisine.class)
+                .addAnnotatedClass(Ingredient.class)
+                .addAnnotatedClass(Review.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL,
+                        "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false")
+                .buildSessionFactory();
+        List<Long> ids = inTransaction(entityManager -> {
+            Ingredient salt = ingredient(entityManager, "Salt");
+            Ingredient pepper = ingredient(entityManager, "Pepper");
+            recipe(entityManager, "Soup", salt, pepper);
+            recipe(entityManager, "Salad", pepper);
+            recipe(entityManager, "Stew", salt);
+            return List.of(salt.getId(), pepper.getId());
+        });
+        saltId = ids.get(0);
+        pepperId = ids.get(1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    public void testDeleteIngredient_ReturnsRecipesItWasUnlinkedFrom() {
+        List<Long> recipeIds = inTransaction(entityManager -> dao(entityManager).deleteIngredient(saltId));
+
+        assertEquals(2, recipeIds.size());
+        assertNull(inTransaction(entityManager -> entityManager.find(Ingredient.class, saltId)));
+        long links = inTransaction(entityManager -> entityManager.createQuery(
+                        "SELECT COUNT(i) FROM Recipe r JOIN r.ingredients i", Long.class)
+                .getSingleResult());
+        // Связи перца остались нетронутыми
+        assertEquals(2, links);
+        assertNotNull(inTransaction(entityManager -> entityManager.find(Ingredient.class, pepperId)));
+    }
+
+    @Test
+    public void testDeleteIngredient_MissingIngredient() {
+        assertNull(inTransaction(entityManager -> dao(entityManager).deleteIngredient(-1L)));
+    }
+
+    private <T> T inTransaction(Function<EntityManager, T> work) {
+        EntityManager entityManager = sessionFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            T result = work.apply(entityManager);
+            entityManager.getTransaction().commit();
+            return result;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static IngredientDaoImpl dao(EntityManager entityManager) {
+        IngredientDaoImpl ingredientDao = new IngredientDaoImpl();
+        ReflectionTestUtils.setField(ingredientDao, "entityManager", entityManager);
+        return ingredientDao;
+    }
+
+    private static Ingredient ingredient(EntityManager entityManager, String name) {
+        Ingredient ingredient = new Ingredient();
+        ingredient.setName(name);
+        entityManager.persist(ingredient);
+        return ingredient;
+    }
+
+    private static void recipe(EntityManager entityManager, String title, Ingredient... ingredients) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle(title);
+        recipe.setIngredients(new ArrayList<>(List.of(ingredients)));
+        entityManager.persist(recipe);
+    }
+}
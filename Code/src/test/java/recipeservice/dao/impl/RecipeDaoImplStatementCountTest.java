@@ -0,0 +1,169 @@
+package recipeservice.dao.impl;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import recipeservice.dto.RecipeDto;
+import recipeservice.dto.RecipeFields;
+import recipeservice.model.Cuisine;
+import recipeservice.model.Ingredient;
+import recipeservice.model.Recipe;
+import recipeservice.model.Review;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that recipe reads issue the same number of statements whatever the number of
+ * recipes, ingredients and reviews, and that the loaded graphs need no further statements.
+ */
+public class RecipeDaoImplStatementCountTest {
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+    private EntityManager entityManager;
+    private RecipeDaoImpl recipeDao;
+
+    @BeforeEach
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Recipe.class)
+                .addAnnotatedClass(Cuisine.class)
+                .addAnnotatedClass(Ingredient.class)
+                .addAnnotatedClass(Review.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL,
+                        "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.GENERATE_STATISTICS, "true")
+                .setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false")
+                .buildSessionFactory();
+        statistics = sessionFactory.getStatistics();
+        entityManager = sessionFactory.createEntityManager();
+        recipeDao = new RecipeDaoImpl(null);
+        ReflectionTestUtils.setField(recipeDao, "entityManager", entityManager);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    @Test
+    public void testFindAllRecipeDtos_TwoStatementsForAnyNumberOfRecipes() {
+        insertRecipes(1);
+        assertEquals(2, countStatements(() -> recipeDao.findAllRecipeDtos(RecipeFields.ALL)));
+
+        insertRecipes(10);
+        assertEquals(2, countStatements(() -> {
+            List<RecipeDto> recipes = recipeDao.findAllRecipeDtos(RecipeFields.ALL);
+            assertEquals(11, recipes.size());
+            recipes.forEach(recipe -> assertEquals(2, recipe.getReviews().size()));
+            return recipes;
+        }));
+    }
+
+    @Test
+    public void testGetRecipesAfter_IdPageAndTwoStatements() {
+        insertRecipes(10);
+
+        assertEquals(3, countStatements(() -> {
+            List<Recipe> recipes = recipeDao.getRecipesAfter(0, 5);
+            assertEquals(5, recipes.size());
+            recipes.forEach(RecipeDaoImplStatementCountTest::touch);
+            return recipes;
+        }));
+    }
+
+    @Test
+    public void testGetRecipeById_TwoStatements() {
+        List<Long> ids = insertRecipes(1);
+
+        assertEquals(2, countStatements(() -> {
+            Recipe recipe = recipeDao.getRecipeById(ids.get(0));
+            touch(recipe);
+            return recipe;
+        }));
+    }
+
+    @Test
+    public void testFindRecipeDtosByIds_TwoStatementsForAnyNumberOfRecipes() {
+        List<Long> ids = insertRecipes(1);
+        assertEquals(2, countStatements(() -> recipeDao.findRecipeDtosByIds(ids, RecipeFields.ALL)));
+
+        ids.addAll(insertRecipes(10));
+        assertEquals(2, countStatements(() -> {
+            List<RecipeDto> recipes = recipeDao.findRecipeDtosByIds(ids, RecipeFields.ALL);
+            assertEquals(11, recipes.size());
+            return recipes;
+        }));
+    }
+
+    @Test
+    public void testFindRecipeDtosWithoutReviews_OneStatement() {
+        List<Long> ids = insertRecipes(10);
+
+        assertEquals(1, countStatements(() -> recipeDao.findRecipeDtosWithoutReviews(ids)));
+    }
+
+    // Обращение ко всем связям: после чтения через DAO оно не должно выполнять запросов
+    private static void touch(Recipe recipe) {
+        assertNotNull(recipe.getCuisine().getName());
+        recipe.getIngredients().forEach(ingredient -> assertNotNull(ingredient.getName()));
+        recipe.getReviews().forEach(review -> assertNotNull(review.getText()));
+    }
+
+    private long countStatements(Supplier<?> read) {
+        // Каждое чтение идет в чистом контексте, как в отдельном запросе
+        entityManager.clear();
+        entityManager.getTransaction().begin();
+        try {
+            statistics.clear();
+            read.get();
+            return statistics.getPrepareStatementCount();
+        } finally {
+            entityManager.getTransaction().commit();
+        }
+    }
+
+    private List<Long> insertRecipes(int count) {
+        List<Long> ids = new ArrayList<>();
+        entityManager.getTransaction().begin();
+        for (int i = 0; i < count; i++) {
+            Cuisine cuisine = new Cuisine(null, "Cuisine " + i);
+            entityManager.persist(cuisine);
+            Recipe recipe = new Recipe();
+            recipe.setTitle("Recipe " + i);
+            recipe.setDescription("Description " + i);
+            recipe.setCuisine(cuisine);
+            for (int j = 0; j < 3; j++) {
+                Ingredient ingredient = new Ingredient();
+                ingredient.setName("Ingredient " + i + "." + j);
+                entityManager.persist(ingredient);
+                recipe.getIngredients().add(ingredient);
+            }
+            entityManager.persist(recipe);
+            for (int j = 0; j < 2; j++) {
+                Review review = new Review();
+                review.setText("Review " + i + "." + j);
+                review.setRating(5);
+                review.setRecipe(recipe);
+                entityManager.persist(review);
+            }
+            ids.add(recipe.getId());
+        }
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+        return ids;
+    }
+}
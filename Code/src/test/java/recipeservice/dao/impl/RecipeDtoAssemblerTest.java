@@ -0,0 +1,80 @@
+package recipeservice.dao.impl;
+
+import org.junit.jupiter.api.Test;
+import recipeservice.dto.RecipeDto;
+import recipeservice.dto.RecipeFields;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecipeDtoAssemblerTest {
+
+    @Test
+    public void testBuild_GroupsIngredientsAndReviewsByRecipe() {
+        RecipeDtoAssembler assembler = new RecipeDtoAssembler();
+        assembler.addRecipeRow(new Object[]{1L, "Pasta", "Description", 2L, "Italian", 10L, "Salt", 0L});
+        assembler.addRecipeRow(new Object[]{1L, "Pasta", "Description", 2L, "Italian", 11L, "Pepper", 0L});
+        assembler.addRecipeRow(new Object[]{3L, "Tacos", "Spicy", null, null, 10L, "Salt", 0L});
+        assembler.addReviewRow(new Object[]{1L, 5L, "Delicious!", 5});
+
+        List<RecipeDto> recipes = assembler.build();
+
+        assertEquals(2, recipes.size());
+        RecipeDto pasta = recipes.get(0);
+        assertEquals(1L, pasta.getId());
+        assertEquals("Italian", pasta.getCuisine().getName());
+        assertEquals(List.of("Salt", "Pepper"),
+                pasta.getIngredients().stream().map(i -> i.getName()).toList());
+        assertEquals(1, pasta.getReviews().size());
+        assertEquals("Delicious!", pasta.getReviews().get(0).getText());
+        assertEquals(1L, pasta.getReviews().get(0).getRecipeId());
+        assertEquals(3L, recipes.get(1).getId());
+        assertTrue(recipes.get(1).getReviews().isEmpty());
+    }
+
+    @Test
+    public void testBuild_WithNullIngredientsReviewsAndCuisine() {
+        RecipeDtoAssembler assembler = new RecipeDtoAssembler();
+        assembler.addRecipeRow(new Object[]{1L, "Test Recipe", "Description", null, null, null, null, 0L});
+
+        List<RecipeDto> recipes = assembler.build();
+
+        assertEquals(1, recipes.size());
+        RecipeDto recipeDto = recipes.get(0);
+        assertEquals(1L, recipeDto.getId());
+        assertEquals("Test Recipe", recipeDto.getTitle());
+        assertEquals("Description", recipeDto.getDescription());
+        assertNotNull(recipeDto.getIngredients());
+        assertTrue(recipeDto.getIngredients().isEmpty());
+        assertNotNull(recipeDto.getReviews());
+        assertTrue(recipeDto.getReviews().isEmpty());
+        assertNull(recipeDto.getCuisine());
+    }
+
+    @Test
+    public void testBuild_SparseRowsLeaveUnselectedFieldsNull() {
+        RecipeDtoAssembler assembler =
+                new RecipeDtoAssembler(RecipeFields.parse("title,ingredients", null));
+        assembler.addRecipeRow(new Object[]{1L, "Pasta", 10L, "Salt", 0L});
+        assembler.addRecipeRow(new Object[]{1L, "Pasta", 11L, "Pepper", 0L});
+        assembler.addReviewRow(new Object[]{1L, 5L, "Delicious!", 5});
+
+        RecipeDto pasta = assembler.build().get(0);
+
+        assertEquals("Pasta", pasta.getTitle());
+        assertNull(pasta.getDescription());
+        assertNull(pasta.getCuisine());
+        assertEquals(2, pasta.getIngredients().size());
+        assertNull(pasta.getReviews());
+    }
+
+    @Test
+    public void testBuild_IgnoresReviewsOfUnknownRecipes() {
+        RecipeDtoAssembler assembler = new RecipeDtoAssembler();
+        assembler.addReviewRow(new Object[]{7L, 1L, "Orphan", 3});
+
+        assertTrue(assembler.isEmpty());
+        assertTrue(assembler.build().isEmpty());
+    }
+}
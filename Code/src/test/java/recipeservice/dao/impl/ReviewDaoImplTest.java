@@ -0,0 +1,164 @@
+package recipeservice.dao.impl;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import recipeservice.dao.ReviewUpdate;
+import recipeservice.model.Cuisine;
+import recipeservice.model.Ingredient;
+import recipeservice.model.Recipe;
+import recipeservice.model.Review;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReviewDaoImplTest {
+
+    private SessionFactory sessionFactory;
+    private Long reviewId;
+
+    @BeforeEach
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Recipe.class)
+                .addAnnotatedClass(Cuisine.class)
+                .addAnnotatedClass(Ingredient.class)
+                .addAnnotatedClass(Review.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL,
+                        "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false")
+                .buildSessionFactory();
+        reviewId = inTransaction(entityManager -> {
+            Recipe recipe = new Recipe();
+            recipe.setTitle("Pasta");
+            entityManager.persist(recipe);
+            Review review = new Review();
+            review.setText("Good");
+            review.setRating(3);
+            review.setRecipe(recipe);
+            entityManager.persist(review);
+            return review.getId();
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    public void testUpdateReview_ReturnsPreviousRating() {
+        ReviewUpdate update = inTransaction(entityManager ->
+                dao(entityManager).updateReview(reviewId, review(4)));
+
+        assertEquals(3, update.getPreviousRating());
+        assertEquals(4, update.getReview().getRating());
+        assertNull(inTransaction(entityManager -> dao(entityManager).updateReview(-1L, review(4))));
+    }
+
+    @Test
+    public void testConcurrentUpdatesOfSameReview_SeeEachOthersRating() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch firstUpdated = new CountDownLatch(1);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        try {
+            Future<ReviewUpdate> first = executor.submit(() -> inTransaction(entityManager -> {
+                ReviewUpdate update = dao(entityManager).updateReview(reviewId, review(4));
+                entityManager.flush();
+                firstUpdated.countDown();
+                await(secondStarted);
+                // Второе обновление успевает дойти до чтения, пока первое не зафиксировано
+                sleep(300);
+                return update;
+            }));
+            assertTrue(firstUpdated.await(10, TimeUnit.SECONDS));
+            secondStarted.countDown();
+            ReviewUpdate second = inTransaction(entityManager ->
+                    dao(entityManager).updateReview(reviewId, review(5)));
+
+            // Второе обновление ждет блокировку и видит оценку первого, а не исходную
+            assertEquals(3, first.get(10, TimeUnit.SECONDS).getPreviousRating());
+            assertEquals(4, second.getPreviousRating());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentDeletesOfSameReview_OnlyOneReturnsIt() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch firstDeleted = new CountDownLatch(1);
+        try {
+            Future<Review> first = executor.submit(() -> inTransaction(entityManager -> {
+                Review deleted = dao(entityManager).deleteReview(reviewId);
+                entityManager.flush();
+                firstDeleted.countDown();
+                sleep(300);
+                return deleted;
+            }));
+            assertTrue(firstDeleted.await(10, TimeUnit.SECONDS));
+            Review second = inTransaction(entityManager -> dao(entityManager).deleteReview(reviewId));
+
+            assertEquals(3, first.get(10, TimeUnit.SECONDS).getRating());
+            assertNull(second);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private <T> T inTransaction(Function<EntityManager, T> work) {
+        EntityManager entityManager = sessionFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            T result = work.apply(entityManager);
+            entityManager.getTransaction().commit();
+            return result;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static ReviewDaoImpl dao(EntityManager entityManager) {
+        ReviewDaoImpl reviewDao = new ReviewDaoImpl();
+        ReflectionTestUtils.setField(reviewDao, "entityManager", entityManager);
+        return reviewDao;
+    }
+
+    private static Review review(int rating) {
+        Review review = new Review();
+        review.setText("Updated");
+        review.setRating(rating);
+        return review;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package recipeservice.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(5000);
+    private final List<Integer> routes = new ArrayList<>();
+    private ReplicaHealthMonitor monitor;
+    private FilterChain chain;
+
+    @BeforeEach
+    public void setUp() {
+        JdbcTemplate check = mock(JdbcTemplate.class);
+        when(check.queryForObject(ReplicaHealthMonitor.LAG_QUERY, Long.class)).thenReturn(0L);
+        monitor = new ReplicaHealthMonitor(List.of(check), 1000);
+        monitor.check();
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(
+                mock(DataSource.class), List.of(mock(DataSource.class)), monitor);
+        chain = (request, response) -> routes.add(dataSource.selectReplica());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        monitor.close();
+    }
+
+    @Test
+    public void testWrite_SetsCookieAfterCommitAndUsesPrimary() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain writing = (request, servletResponse) -> {
+            chain.doFilter(request, servletResponse);
+            // Ответ уже записан и сброшен, а cookie все равно должна попасть в заголовки
+            servletResponse.getWriter().write("{}");
+            servletResponse.flushBuffer();
+        };
+        long before = System.currentTimeMillis();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/recipes"), response, writing);
+
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE);
+        assertNotNull(cookie);
+        assertEquals(5, cookie.getMaxAge());
+        assertTrue(Long.parseLong(cookie.getValue()) >= before);
+        assertEquals("{}", response.getContentAsString());
+        assertEquals(List.of(-1), routes);
+    }
+
+    @Test
+    public void testRead_WriteNewerThanReplicaUsesPrimaryOtherwiseReplica() throws Exception {
+        MockHttpServletRequest recent = new MockHttpServletRequest("GET", "/api/recipes");
+        recent.setCookies(new Cookie(ReadYourWritesFilter.COOKIE,
+                Long.toString(System.currentTimeMillis() + 1)));
+        MockHttpServletRequest replicated = new MockHttpServletRequest("GET", "/api/recipes");
+        replicated.setCookies(new Cookie(ReadYourWritesFilter.COOKIE,
+                Long.toString(System.currentTimeMillis() - 1000)));
+        MockHttpServletRequest old = new MockHttpServletRequest("GET", "/api/recipes");
+        old.setCookies(new Cookie(ReadYourWritesFilter.COOKIE,
+                Long.toString(System.currentTimeMillis() - 60_000)));
+        MockHttpServletRequest garbage = new MockHttpServletRequest("GET", "/api/recipes");
+        garbage.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, "soon"));
+
+        filter.doFilter(recent, new MockHttpServletResponse(), chain);
+        filter.doFilter(replicated, new MockHttpServletResponse(), chain);
+        filter.doFilter(old, new MockHttpServletResponse(), chain);
+        filter.doFilter(garbage, new MockHttpServletResponse(), chain);
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/recipes"),
+                new MockHttpServletResponse(), chain);
+
+        assertEquals(List.of(-1, 0, 0, 0, 0), routes);
+    }
+}
@@ -0,0 +1,64 @@
+package recipeservice.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReplicaHealthMonitorTest {
+
+    @Test
+    public void testCheck_TracksLagAndAvailability() {
+        JdbcTemplate caughtUp = mock(JdbcTemplate.class);
+        JdbcTemplate lagging = mock(JdbcTemplate.class);
+        JdbcTemplate down = mock(JdbcTemplate.class);
+        when(caughtUp.queryForObject(ReplicaHealthMonitor.LAG_QUERY, Long.class)).thenReturn(0L);
+        when(lagging.queryForObject(ReplicaHealthMonitor.LAG_QUERY, Long.class)).thenReturn(5000L);
+        when(down.queryForObject(ReplicaHealthMonitor.LAG_QUERY, Long.class))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        ReplicaHealthMonitor monitor =
+                new ReplicaHealthMonitor(List.of(caughtUp, lagging, down), 1000);
+
+        long before = System.currentTimeMillis();
+        monitor.check();
+
+        long[] caughtUpTo = monitor.caughtUpTo();
+        assertTrue(caughtUpTo[0] >= before);
+        assertEquals(ReplicaHealthMonitor.UNAVAILABLE, caughtUpTo[1]);
+        assertEquals(ReplicaHealthMonitor.UNAVAILABLE, caughtUpTo[2]);
+        monitor.close();
+    }
+
+    @Test
+    public void testCheck_LagWithinLimitMovesPointBack() {
+        JdbcTemplate replica = mock(JdbcTemplate.class);
+        when(replica.queryForObject(ReplicaHealthMonitor.LAG_QUERY, Long.class)).thenReturn(400L);
+        ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(List.of(replica), 1000);
+
+        long before = System.currentTimeMillis();
+        monitor.check();
+        long after = System.currentTimeMillis();
+
+        long caughtUpTo = monitor.caughtUpTo()[0];
+        assertTrue(caughtUpTo >= before - 400 && caughtUpTo <= after - 400);
+        monitor.close();
+    }
+
+    @Test
+    public void testMarkDown_UntilNextCheck() {
+        JdbcTemplate replica = mock(JdbcTemplate.class);
+        when(replica.queryForObject(ReplicaHealthMonitor.LAG_QUERY, Long.class)).thenReturn(0L);
+        ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(List.of(replica), 1000);
+        monitor.check();
+
+        monitor.markDown(0);
+        assertEquals(ReplicaHealthMonitor.UNAVAILABLE, monitor.caughtUpTo()[0]);
+        monitor.check();
+        assertNotEquals(ReplicaHealthMonitor.UNAVAILABLE, monitor.caughtUpTo()[0]);
+        monitor.close();
+    }
+}
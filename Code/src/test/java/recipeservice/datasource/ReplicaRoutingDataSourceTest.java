@@ -0,0 +1,115 @@
+package recipeservice.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource first = mock(DataSource.class);
+    private final DataSource second = mock(DataSource.class);
+    private final JdbcTemplate firstCheck = mock(JdbcTemplate.class);
+    private final JdbcTemplate secondCheck = mock(JdbcTemplate.class);
+    private ReplicaHealthMonitor monitor;
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() {
+        when(firstCheck.queryForObject(ReplicaHealthMonitor.LAG_QUERY, Long.class)).thenReturn(0L);
+        when(secondCheck.queryForObject(ReplicaHealthMonitor.LAG_QUERY, Long.class))
+                .thenReturn(0L);
+        monitor = new ReplicaHealthMonitor(List.of(firstCheck, secondCheck), 1000);
+        dataSource = new ReplicaRoutingDataSource(primary, List.of(first, second), monitor);
+        monitor.check();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReplicaRoutingDataSource.setPrimaryRequired(false);
+        ReplicaRoutingDataSource.setLastWriteMillis(null);
+        monitor.close();
+    }
+
+    @Test
+    public void testReadOnly_AlternatesBetweenReplicas() throws SQLException {
+        Connection firstConnection = mock(Connection.class);
+        Connection secondConnection = mock(Connection.class);
+        when(first.getConnection()).thenReturn(firstConnection);
+        when(second.getConnection()).thenReturn(secondConnection);
+
+        Connection a = dataSource.getConnection();
+        Connection b = dataSource.getConnection();
+
+        assertNotSame(a, b);
+        assertTrue(List.of(firstConnection, secondConnection).containsAll(List.of(a, b)));
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    public void testWritesAndPrimaryRequiredGoToPrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        assertEquals(-1, dataSource.selectReplica());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReplicaRoutingDataSource.setPrimaryRequired(true);
+        assertEquals(-1, dataSource.selectReplica());
+
+        ReplicaRoutingDataSource.setPrimaryRequired(false);
+        assertNotEquals(-1, dataSource.selectReplica());
+    }
+
+    @Test
+    public void testClientWriteAfterCheck_ReadsPrimaryUntilReplicasCatchUp() {
+        ReplicaRoutingDataSource.setLastWriteMillis(System.currentTimeMillis() + 1);
+        assertEquals(-1, dataSource.selectReplica());
+
+        when(secondCheck.queryForObject(ReplicaHealthMonitor.LAG_QUERY, Long.class))
+                .thenReturn(5000L);
+        ReplicaRoutingDataSource.setLastWriteMillis(System.currentTimeMillis() - 100);
+        monitor.check();
+
+        assertEquals(0, dataSource.selectReplica());
+        assertEquals(0, dataSource.selectReplica());
+    }
+
+    @Test
+    public void testWithoutClientWrite_LaggingReplicaStillServes() {
+        when(firstCheck.queryForObject(ReplicaHealthMonitor.LAG_QUERY, Long.class))
+                .thenReturn(500L);
+        when(secondCheck.queryForObject(ReplicaHealthMonitor.LAG_QUERY, Long.class))
+                .thenReturn(500L);
+        monitor.check();
+
+        // Чужие записи не уводят чтение на первичную базу, пока отставание в пределах нормы
+        assertNotEquals(-1, dataSource.selectReplica());
+        ReplicaRoutingDataSource.setLastWriteMillis(System.currentTimeMillis());
+        assertEquals(-1, dataSource.selectReplica());
+    }
+
+    @Test
+    public void testReplicaConnectionFailure_FallsBackToPrimary() throws SQLException {
+        Connection primaryConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(first.getConnection()).thenThrow(new SQLException("refused"));
+        when(second.getConnection()).thenThrow(new SQLException("refused"));
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(-1, dataSource.selectReplica());
+        verify(first, times(1)).getConnection();
+        verify(second, times(1)).getConnection();
+    }
+}
@@ -0,0 +1,38 @@
+package recipeservice.dto;
+
+import org.junit.jupiter.api.Test;
+import recipeservice.exception.CustomException;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecipeFieldsTest {
+
+    @Test
+    public void testParse_NoParametersSelectEverything() {
+        assertSame(RecipeFields.ALL, RecipeFields.parse(null, null));
+        assertSame(RecipeFields.ALL, RecipeFields.parse(null, "ingredients,reviews"));
+    }
+
+    @Test
+    public void testParse_FieldsAlwaysKeepIdAndIncludeOverridesCollections() {
+        RecipeFields fields = RecipeFields.parse(" Title ,reviews,", "ingredients");
+
+        assertEquals(Set.of("id", "title", "ingredients"), fields.jsonNames());
+        assertFalse(fields.isAll());
+        assertFalse(fields.has(RecipeFields.Field.REVIEWS));
+        assertFalse(fields.has(RecipeFields.Field.CUISINE));
+
+        RecipeFields withoutCollections = RecipeFields.parse(null, "");
+        assertTrue(withoutCollections.has(RecipeFields.Field.RATING));
+        assertFalse(withoutCollections.has(RecipeFields.Field.INGREDIENTS));
+        assertFalse(withoutCollections.has(RecipeFields.Field.REVIEWS));
+    }
+
+    @Test
+    public void testParse_RejectsUnknownNames() {
+        assertThrows(CustomException.class, () -> RecipeFields.parse("title,calories", null));
+        assertThrows(CustomException.class, () -> RecipeFields.parse(null, "title"));
+    }
+}
@@ -0,0 +1,79 @@
+package recipeservice.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedBitmapTest {
+
+    private static List<Integer> values(CompressedBitmap bitmap) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        return values;
+    }
+
+    @Test
+    public void testAddRemove_KeepsValuesSortedAcrossChunks() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+
+        assertTrue(bitmap.add(70_000));
+        assertTrue(bitmap.add(5));
+        assertTrue(bitmap.add(1_000_000));
+        assertFalse(bitmap.add(5));
+
+        assertEquals(List.of(5, 70_000, 1_000_000), values(bitmap));
+        assertTrue(bitmap.contains(70_000));
+        assertFalse(bitmap.contains(70_001));
+        assertTrue(bitmap.remove(70_000));
+        assertFalse(bitmap.remove(70_000));
+        assertEquals(List.of(5, 1_000_000), values(bitmap));
+        assertEquals(2, bitmap.cardinality());
+    }
+
+    @Test
+    public void testDenseChunk_SwitchesToBitsAndBack() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int value = 0; value < 3 * CompressedBitmap.MAX_ARRAY_SIZE; value += 2) {
+            bitmap.add(value);
+            expected.add(value);
+        }
+        long denseBytes = bitmap.bytes();
+
+        assertEquals(8192, denseBytes);
+        assertEquals(new ArrayList<>(expected), values(bitmap));
+
+        for (int value = 0; value < 3 * CompressedBitmap.MAX_ARRAY_SIZE; value += 4) {
+            assertTrue(bitmap.remove(value));
+            expected.remove(value);
+        }
+        assertEquals(new ArrayList<>(expected), values(bitmap));
+        assertEquals(expected.size(), bitmap.cardinality());
+        assertEquals(expected.size() * 2L, bitmap.bytes());
+        assertTrue(bitmap.contains(2));
+        assertFalse(bitmap.contains(4));
+    }
+
+    @Test
+    public void testRemoveLastValue_DropsChunk() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        bitmap.add(1);
+        bitmap.add(200_000);
+
+        bitmap.remove(1);
+        bitmap.remove(200_000);
+
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, bitmap.bytes());
+        assertTrue(values(bitmap).isEmpty());
+    }
+
+    @Test
+    public void testAdd_NegativeValue() {
+        assertThrows(IllegalArgumentException.class, () -> new CompressedBitmap().add(-1));
+    }
+}
@@ -0,0 +1,68 @@
+package recipeservice.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PantryIndexTest {
+
+    private static List<Long> ids(List<PantryIndex.Match> matches) {
+        return matches.stream().map(PantryIndex.Match::getRecipeId).toList();
+    }
+
+    private static PantryIndex index() {
+        PantryIndex index = new PantryIndex();
+        index.put(1L, List.of(10L, 20L));        // все есть
+        index.put(2L, List.of(10L, 20L, 30L));   // не хватает 30
+        index.put(3L, List.of(10L, 30L, 40L));   // не хватает 30 и 40
+        index.put(4L, List.of(30L, 40L));        // ничего общего
+        index.put(5L, List.of(10L));             // все есть
+        return index;
+    }
+
+    @Test
+    public void testMatch_RanksByMissingThenMatchedThenId() {
+        List<PantryIndex.Match> matches =
+                index().match(List.of(10L, 20L), Integer.MAX_VALUE, 0, 10);
+
+        assertEquals(List.of(1L, 5L, 2L, 3L), ids(matches));
+        assertEquals(2, matches.get(0).getMatched());
+        assertEquals(0, matches.get(0).getMissing());
+        assertEquals(2, matches.get(3).getMissing());
+    }
+
+    @Test
+    public void testMatch_MaxMissingAndPaging() {
+        PantryIndex index = index();
+
+        assertEquals(List.of(1L, 5L), ids(index.match(List.of(10L, 20L), 0, 0, 10)));
+        assertEquals(List.of(5L, 2L), ids(index.match(List.of(10L, 20L), 1, 1, 2)));
+        assertTrue(index.match(List.of(99L), 5, 0, 10).isEmpty());
+    }
+
+    @Test
+    public void testPutAndRemove_ReplaceRecipeLinks() {
+        PantryIndex index = index();
+
+        index.put(4L, List.of(20L));
+        assertTrue(index.remove(1L));
+        assertFalse(index.remove(1L));
+        index.put(5L, List.of());
+
+        assertEquals(List.of(4L, 2L), ids(index.match(List.of(20L), 2, 0, 10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testRemoveIngredient_UpdatesCounts() {
+        PantryIndex index = index();
+
+        index.removeIngredient(30L);
+
+        assertEquals(List.of(1L, 2L, 5L, 3L), ids(index.match(List.of(10L, 20L), 1, 0, 10)));
+        assertEquals(5, index.size());
+        assertEquals(3, index.ingredientCount());
+    }
+}
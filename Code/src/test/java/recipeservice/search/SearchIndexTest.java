@@ -0,0 +1,114 @@
+package recipeservice.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchIndexTest {
+
+    private static List<Long> ids(List<SearchIndex.Hit> hits) {
+        return hits.stream().map(SearchIndex.Hit::getRecipeId).toList();
+    }
+
+    @Test
+    public void testSearch_RanksTitleMatchesFirst() {
+        SearchIndex index = new SearchIndex();
+        index.put(1L, "Salad", "fresh tomato and cucumber");
+        index.put(2L, "Tomato soup", "slow cooked with basil");
+        index.put(3L, "Pancakes", "flour, milk, eggs");
+
+        List<SearchIndex.Hit> hits = index.search("tomatoes", 0, 10);
+
+        assertEquals(List.of(2L, 1L), ids(hits));
+        assertEquals("Tomato soup", hits.get(0).getTitle());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+        assertTrue(index.search("chocolate", 0, 10).isEmpty());
+    }
+
+    @Test
+    public void testSearch_RussianQueryMatchesInflections() {
+        SearchIndex index = new SearchIndex();
+        index.put(1L, "Борщ", "свекла, капуста, томатная паста");
+        index.put(2L, "Салат с томатами", "огурцы и томаты");
+
+        assertEquals(List.of(2L), ids(index.search("томат", 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("капусты", 0, 10)));
+    }
+
+    @Test
+    public void testSearch_PagesWithOffsetAndTiesById() {
+        SearchIndex index = new SearchIndex();
+        for (long id = 1; id <= 5; id++) {
+            index.put(id, "Soup " + id, "");
+        }
+
+        assertEquals(List.of(1L, 2L), ids(index.search("soup", 0, 2)));
+        assertEquals(List.of(3L, 4L), ids(index.search("soup", 2, 2)));
+        assertEquals(List.of(5L), ids(index.search("soup", 4, 2)));
+        assertTrue(index.search("soup", 5, 2).isEmpty());
+    }
+
+    @Test
+    public void testPutAndRemove_ReplaceDocuments() {
+        SearchIndex index = new SearchIndex();
+        index.put(1L, "Tomato soup", "");
+        index.put(1L, "Mushroom soup", "");
+
+        assertTrue(index.search("tomato", 0, 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("mushroom", 0, 10)));
+        assertEquals(1, index.size());
+
+        assertTrue(index.remove(1L));
+        assertFalse(index.remove(1L));
+        assertTrue(index.search("soup", 0, 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testCompaction_KeepsLiveDocumentsSearchable() {
+        SearchIndex index = new SearchIndex();
+        for (long id = 1; id <= 3000; id++) {
+            index.put(id, "Recipe " + id, id % 2 == 0 ? "garlic" : "onion");
+        }
+        long bytesBefore = index.postingBytes();
+        for (long id = 1; id <= 2000; id++) {
+            index.remove(id);
+        }
+
+        assertEquals(1000, index.size());
+        assertTrue(index.postingBytes() < bytesBefore);
+        List<SearchIndex.Hit> hits = index.search("garlic", 0, 1000);
+        assertEquals(500, hits.size());
+        assertEquals(2002L, hits.get(0).getRecipeId());
+        index.put(2002L, "Recipe 2002", "onion");
+        assertEquals(499, index.search("garlic", 0, 1000).size());
+    }
+
+    @Test
+    public void testLengthEncoding_ExactForShortDocumentsAndCloseForLongOnes() {
+        for (int length = 0; length < 128; length++) {
+            assertEquals(length, SearchIndex.decodeLength(SearchIndex.encodeLength(length) & 0xFF));
+        }
+        for (int length = 128; length < 50_000; length += 37) {
+            float decoded = SearchIndex.decodeLength(SearchIndex.encodeLength(length) & 0xFF);
+            assertEquals(length, decoded, length * 0.03);
+        }
+    }
+
+    @Test
+    public void testRecipesWithIngredient_FollowsPutsAndRemovals() {
+        SearchIndex index = new SearchIndex();
+        index.put(1L, "Salad", "tomato cucumber", List.of(10L, 11L));
+        index.put(2L, "Tomato soup", "tomato basil", List.of(10L));
+
+        assertEquals(List.of(1L, 2L), index.recipesWithIngredient(10L).stream().sorted().toList());
+
+        index.put(1L, "Salad", "cucumber", List.of(11L));
+        index.remove(2L);
+
+        assertTrue(index.recipesWithIngredient(10L).isEmpty());
+        assertEquals(List.of(1L), index.recipesWithIngredient(11L));
+    }
+}
@@ -0,0 +1,40 @@
+package recipeservice.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenizerTest {
+
+    @Test
+    public void testTokenize_LowercasesAndDropsStopWords() {
+        assertEquals(List.of("pasta", "tomato"), Tokenizer.tokenize("Pasta with the Tomato!"));
+        assertEquals(List.of("суп", "гриб"), Tokenizer.tokenize("Суп и/с грибам..."));
+    }
+
+    @Test
+    public void testTokenize_RussianInflectionsShareStem() {
+        String stem = Tokenizer.tokenize("томат").get(0);
+        assertEquals(stem, Tokenizer.tokenize("томаты").get(0));
+        assertEquals(stem, Tokenizer.tokenize("томатов").get(0));
+        assertEquals(stem, Tokenizer.tokenize("Томатами").get(0));
+    }
+
+    @Test
+    public void testTokenize_FoldsYoAndKeepsDigits() {
+        assertEquals(Tokenizer.tokenize("ежик"), Tokenizer.tokenize("Ёжик"));
+        assertEquals(List.of("15", "minut"), Tokenizer.tokenize("15 minutes"));
+    }
+
+    @Test
+    public void testStem_EnglishEndingsAndShortWords() {
+        assertEquals("bak", Tokenizer.stem("baking"));
+        assertEquals("glass", Tokenizer.stem("glass"));
+        assertEquals("egg", Tokenizer.stem("eggs"));
+        assertEquals("ice", Tokenizer.stem("ice"));
+        assertTrue(Tokenizer.tokenize("a").isEmpty());
+        assertTrue(Tokenizer.tokenize(null).isEmpty());
+    }
+}
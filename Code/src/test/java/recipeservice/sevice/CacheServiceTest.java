@@ -2,11 +2,29 @@ package recipeservice.sevice;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import recipeservice.dto.CuisineDto;
+import recipeservice.dto.IngredientDto;
 import recipeservice.dto.RecipeDto;
+import recipeservice.cache.InvalidationBus;
+import recipeservice.cache.LoopbackTransport;
 import recipeservice.service.CacheService;
+import recipeservice.service.CacheTags;
+import recipeservice.service.EncodedResponse;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -46,33 +64,6 @@ public class CacheServiceTest {
         assertNull(cachedRecipes);
     }
 
-    @Test
-    public void testUpdateCache_NewEntry() {
-        String key = "Italian";
-        RecipeDto newRecipe = new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null);
-
-        cacheService.updateCache(key, newRecipe);
-        List<RecipeDto> cachedRecipes = cacheService.getCachedRecipes(key);
-
-        assertNotNull(cachedRecipes);
-    }
-
-    @Test
-    public void testUpdateCache_ExistingEntry() {
-        String key = "Italian";
-        RecipeDto existingRecipe = new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null);
-        RecipeDto newRecipe = new RecipeDto(2L, "Lasagna", "Tasty lasagna recipe", new ArrayList<>(), new ArrayList<>(), null);
-
-        cacheService.updateCache(key, existingRecipe);
-        cacheService.updateCache(key, newRecipe);
-
-        List<RecipeDto> cachedRecipes = cacheService.getCachedRecipes(key);
-        assertNotNull(cachedRecipes);
-        assertEquals(2, cachedRecipes.size());
-        assertEquals("Pasta", cachedRecipes.get(0).getTitle());
-        assertEquals("Lasagna", cachedRecipes.get(1).getTitle());
-    }
-
     @Test
     public void testGetCachedRecipes_NullKey() {
         List<RecipeDto> cachedRecipes = cacheService.getCachedRecipes(null);
@@ -81,6 +72,7 @@ public class CacheServiceTest {
 
     @Test
     public void testCacheRecipes_FullCache() {
+        cacheService = new CacheService(100);
         for (int i = 0; i < 100; i++) {
             cacheService.cacheRecipes("key" + i, new ArrayList<>());
         }
@@ -102,6 +94,7 @@ public class CacheServiceTest {
 
     @Test
     public void testGetCachedRecipes_ExpiredEntry() throws InterruptedException {
+        cacheService = new CacheService(100, 500, 1000, 1, 1, 100, 100);
         String key = "Italian";
         List<RecipeDto> recipes = new ArrayList<>();
         recipes.add(new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null));
@@ -121,4 +114,477 @@ public class CacheServiceTest {
         assertNotNull(cachedRecipes);
         assertTrue(cachedRecipes.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCacheRecipes_BoundedByRecipeCount() {
+        cacheService = new CacheService(5);
+        List<RecipeDto> threeRecipes = new ArrayList<>();
+        for (long i = 1; i <= 3; i++) {
+            threeRecipes.add(new RecipeDto(i, "Recipe " + i, "Description", new ArrayList<>(), new ArrayList<>(), null));
+        }
+
+        cacheService.cacheRecipes("Italian", threeRecipes);
+        cacheService.cacheRecipes("Mexican", threeRecipes);
+
+        assertNull(cacheService.getCachedRecipes("Italian"));
+        assertNotNull(cacheService.getCachedRecipes("Mexican"));
+        assertEquals(3, cacheService.getWeightedSize());
+    }
+
+    @Test
+    public void testCacheRecipes_FrequentlyReadEntrySurvivesScan() {
+        cacheService = new CacheService(10);
+        cacheService.cacheRecipes("hot", new ArrayList<>());
+        cacheService.getCachedRecipes("hot");
+
+        for (int i = 0; i < 20; i++) {
+            cacheService.cacheRecipes("scan" + i, new ArrayList<>());
+        }
+
+        assertNotNull(cacheService.getCachedRecipes("hot"));
+    }
+
+    @Test
+    public void testCache_ConcurrentAccess() throws Exception {
+        cacheService = new CacheService(50);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    String key = "key" + ((i * 31 + thread) % 200);
+                    if (i % 4 == 0) {
+                        cacheService.cacheRecipes(key, List.of(new RecipeDto((long) i, "Recipe", "Description", new ArrayList<>(), new ArrayList<>(), null)));
+                    } else {
+                        cacheService.getCachedRecipes(key);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertTrue(cacheService.getWeightedSize() <= 50);
+    }
+
+    @Test
+    public void testGetOrLoad_CachesLoadedRecipes() {
+        AtomicInteger loaderCalls = new AtomicInteger();
+        List<RecipeDto> recipes = List.of(new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null));
+
+        cacheService.getOrLoad("Italian", () -> {
+            loaderCalls.incrementAndGet();
+            return recipes;
+        });
+        List<RecipeDto> cachedRecipes = cacheService.getOrLoad("Italian", () -> {
+            loaderCalls.incrementAndGet();
+            return recipes;
+        });
+
+        assertEquals(1, loaderCalls.get());
+        assertEquals(1, cachedRecipes.size());
+    }
+
+    @Test
+    public void testGetOrLoad_EmptyResultNotCached() {
+        cacheService.getOrLoad("Unknown", List::of);
+
+        assertNull(cacheService.getCachedRecipes("Unknown"));
+    }
+
+    @Test
+    public void testGetOrLoad_ConcurrentMissesCoalesced() throws Exception {
+        int callers = 8;
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<RecipeDto> recipes = List.of(new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null));
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Future<List<RecipeDto>>> futures = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            futures.add(executor.submit(() -> cacheService.getOrLoad("Italian", () -> {
+                loaderCalls.incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return recipes;
+            })));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cacheService.getStats().getDeduplicatedLoadCount() < callers - 1
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        for (Future<List<RecipeDto>> future : futures) {
+            assertSame(recipes, future.get());
+        }
+        executor.shutdown();
+
+        assertEquals(1, loaderCalls.get());
+        assertEquals(1, cacheService.getStats().getLoadCount());
+        assertEquals(callers - 1, cacheService.getStats().getDeduplicatedLoadCount());
+    }
+
+    @Test
+    public void testGetOrLoad_LoaderFailurePropagatesToWaiters() {
+        assertThrows(IllegalStateException.class, () -> cacheService.getOrLoad("Italian", () -> {
+            throw new IllegalStateException("db down");
+        }));
+
+        List<RecipeDto> recipes = cacheService.getOrLoad("Italian", List::of);
+        assertTrue(recipes.isEmpty());
+    }
+
+    @Test
+    public void testGetOrLoad_StaleEntryServedWhileRefreshing() throws Exception {
+        cacheService = new CacheService(100, 100, 60_000, 1, 4, 100, 100);
+        List<RecipeDto> oldRecipes = List.of(new RecipeDto(1L, "Pasta", "Old", new ArrayList<>(), new ArrayList<>(), null));
+        List<RecipeDto> newRecipes = List.of(new RecipeDto(1L, "Pasta", "New", new ArrayList<>(), new ArrayList<>(), null));
+        cacheService.cacheRecipes("Italian", oldRecipes);
+        Thread.sleep(200);
+
+        CountDownLatch refreshed = new CountDownLatch(1);
+        List<RecipeDto> served = cacheService.getOrLoad("Italian", () -> {
+            refreshed.countDown();
+            return newRecipes;
+        });
+
+        assertSame(oldRecipes, served);
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cacheService.getStats().getRefreshCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertSame(newRecipes, cacheService.getCachedRecipes("Italian"));
+        assertEquals(1, cacheService.getStats().getStaleHitCount());
+    }
+
+    @Test
+    public void testGetOrLoad_HardExpiredEntryLoadsSynchronously() throws Exception {
+        cacheService = new CacheService(100, 50, 100, 1, 4, 100, 100);
+        List<RecipeDto> newRecipes = List.of(new RecipeDto(1L, "Pasta", "New", new ArrayList<>(), new ArrayList<>(), null));
+        cacheService.cacheRecipes("Italian", new ArrayList<>(List.of(new RecipeDto(1L, "Pasta", "Old", new ArrayList<>(), new ArrayList<>(), null))));
+        Thread.sleep(200);
+
+        List<RecipeDto> served = cacheService.getOrLoad("Italian", () -> newRecipes);
+
+        assertSame(newRecipes, served);
+        assertEquals(0, cacheService.getStats().getStaleHitCount());
+    }
+
+    @Test
+    public void testSweeper_ExpiresUnreadEntries() throws InterruptedException {
+        cacheService = new CacheService(100, 50, 100, 1, 4, 20, 100);
+        List<RecipeDto> recipes = List.of(new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null));
+        cacheService.cacheRecipes("Italian", recipes);
+        cacheService.cacheRecipes("Mexican", recipes);
+        long bytesWhileCached = cacheService.getStats().getEstimatedBytes();
+        assertTrue(bytesWhileCached > 0);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cacheService.getStats().getSweptEntryCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(2, cacheService.getStats().getSweptEntryCount());
+        assertEquals(bytesWhileCached, cacheService.getStats().getSweptBytes());
+        assertEquals(0, cacheService.getStats().getEstimatedBytes());
+        assertEquals(0, cacheService.getStats().getEntryCount());
+    }
+
+    @Test
+    public void testRemoveCachedRecipes_ReleasesEstimatedBytes() {
+        cacheService.cacheRecipes("Italian", List.of(
+                new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null),
+                new RecipeDto(2L, "Lasagna", "Tasty lasagna recipe", new ArrayList<>(), new ArrayList<>(), null)));
+        assertTrue(cacheService.getStats().getEstimatedBytes() > 0);
+
+        cacheService.removeCachedRecipes("Italian");
+
+        assertEquals(0, cacheService.getStats().getEstimatedBytes());
+    }
+
+    @Test
+    public void testGetOrLoadRecipe_CachesUntilEvicted() {
+        AtomicInteger loaderCalls = new AtomicInteger();
+        RecipeDto recipe = new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null);
+
+        cacheService.getOrLoadRecipe(1L, () -> {
+            loaderCalls.incrementAndGet();
+            return recipe;
+        });
+        RecipeDto cachedRecipe = cacheService.getOrLoadRecipe(1L, () -> {
+            loaderCalls.incrementAndGet();
+            return recipe;
+        });
+        assertSame(recipe, cachedRecipe);
+        assertEquals(1, loaderCalls.get());
+
+        cacheService.evictRecipe(1L);
+        cacheService.getOrLoadRecipe(1L, () -> {
+            loaderCalls.incrementAndGet();
+            return recipe;
+        });
+        assertEquals(2, loaderCalls.get());
+    }
+
+    @Test
+    public void testGetOrLoadRecipe_NotFoundIsNotCached() {
+        AtomicInteger loaderCalls = new AtomicInteger();
+
+        assertNull(cacheService.getOrLoadRecipe(1L, () -> {
+            loaderCalls.incrementAndGet();
+            return null;
+        }));
+        assertNull(cacheService.getOrLoadRecipe(1L, () -> {
+            loaderCalls.incrementAndGet();
+            return null;
+        }));
+
+        assertEquals(2, loaderCalls.get());
+    }
+
+    @Test
+    public void testGetOrLoadRecipe_EvictionDuringLoadSkipsCaching() {
+        RecipeDto staleRecipe = new RecipeDto(1L, "Pasta", "Stale", new ArrayList<>(), new ArrayList<>(), null);
+
+        RecipeDto loaded = cacheService.getOrLoadRecipe(1L, () -> {
+            cacheService.evictRecipe(1L);
+            return staleRecipe;
+        });
+
+        assertSame(staleRecipe, loaded);
+        assertEquals(0, cacheService.getStats().getRecipeEntryCount());
+    }
+
+    @Test
+    public void testGetOrLoadRecipes_LoadsOnlyMissingIdsInOneCall() {
+        RecipeDto pasta = new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null);
+        RecipeDto pizza = new RecipeDto(2L, "Pizza", "Delicious pizza recipe", new ArrayList<>(), new ArrayList<>(), null);
+        cacheService.getOrLoadRecipe(1L, () -> pasta);
+        List<List<Long>> loads = new ArrayList<>();
+
+        Map<Long, RecipeDto> recipes = cacheService.getOrLoadRecipes(List.of(1L, 2L, 3L), ids -> {
+            loads.add(ids);
+            return Map.of(2L, pizza);
+        });
+
+        assertEquals(List.of(List.of(2L, 3L)), loads);
+        assertEquals(Map.of(1L, pasta, 2L, pizza), recipes);
+        assertSame(pizza, cacheService.getOrLoadRecipe(2L, () -> null));
+    }
+
+    @Test
+    public void testInvalidateTag_RemovesEntriesInBothTiers() {
+        CuisineDto italian = new CuisineDto(1L, "Italian");
+        List<IngredientDto> ingredients = List.of(new IngredientDto(7L, "Salt"));
+        RecipeDto pasta = new RecipeDto(1L, "Pasta", "Delicious pasta recipe", ingredients, new ArrayList<>(), italian);
+        RecipeDto pizza = new RecipeDto(2L, "Pizza", "Delicious pizza recipe", new ArrayList<>(), new ArrayList<>(), italian);
+        cacheService.cacheRecipes("Italian", List.of(pasta, pizza));
+        cacheService.cacheRecipes("Mexican", List.of(new RecipeDto(3L, "Tacos", "Tasty", new ArrayList<>(), new ArrayList<>(), new CuisineDto(2L, "Mexican"))));
+        cacheService.getOrLoadRecipe(1L, () -> pasta);
+        cacheService.getOrLoadRecipe(2L, () -> pizza);
+
+        cacheService.invalidateTag(CacheTags.ingredient(7L));
+
+        assertNull(cacheService.getCachedRecipes("Italian"));
+        assertNotNull(cacheService.getCachedRecipes("Mexican"));
+        assertEquals(1, cacheService.getStats().getRecipeEntryCount());
+        assertEquals(1, cacheService.getStats().getTagInvalidationCount());
+    }
+
+    @Test
+    public void testInvalidateTag_UntaggedAfterReplace() {
+        CuisineDto italian = new CuisineDto(1L, "Italian");
+        cacheService.cacheRecipes("Italian", List.of(new RecipeDto(1L, "Pasta", "Old", new ArrayList<>(), new ArrayList<>(), italian)));
+        cacheService.cacheRecipes("Italian", List.of(new RecipeDto(2L, "Pizza", "New", new ArrayList<>(), new ArrayList<>(), italian)));
+
+        cacheService.invalidateTag(CacheTags.recipe(1L));
+
+        assertNotNull(cacheService.getCachedRecipes("Italian"));
+        cacheService.invalidateTag(CacheTags.cuisine(1L));
+        assertNull(cacheService.getCachedRecipes("Italian"));
+    }
+
+    @Test
+    public void testGetOrLoad_InvalidationDuringLoadSkipsCaching() {
+        CuisineDto italian = new CuisineDto(1L, "Italian");
+        List<RecipeDto> stale = List.of(new RecipeDto(1L, "Pasta", "Stale", new ArrayList<>(), new ArrayList<>(), italian));
+
+        List<RecipeDto> loaded = cacheService.getOrLoad("Italian", () -> {
+            cacheService.invalidateTag(CacheTags.cuisine(1L));
+            return stale;
+        });
+
+        assertSame(stale, loaded);
+        assertNull(cacheService.getCachedRecipes("Italian"));
+    }
+
+    @Test
+    public void testGetOrLoad_EmptyResultCachedSeparately() {
+        AtomicInteger loaderCalls = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            List<RecipeDto> result = cacheService.getOrLoad("Unknown", () -> {
+                loaderCalls.incrementAndGet();
+                return List.of();
+            });
+            assertTrue(result.isEmpty());
+        }
+
+        assertEquals(1, loaderCalls.get());
+        assertEquals(1, cacheService.getStats().getEmptyResultEntryCount());
+        assertEquals(2, cacheService.getStats().getEmptyResultHitCount());
+        assertEquals(0, cacheService.getWeightedSize());
+    }
+
+    @Test
+    public void testGetOrLoad_EmptyResultExpires() throws InterruptedException {
+        cacheService = new CacheService(100, 500, 1000, 1, 1, 100, 100, 50, 10);
+        AtomicInteger loaderCalls = new AtomicInteger();
+
+        cacheService.getOrLoad("Unknown", () -> {
+            loaderCalls.incrementAndGet();
+            return List.of();
+        });
+        Thread.sleep(100);
+        cacheService.getOrLoad("Unknown", () -> {
+            loaderCalls.incrementAndGet();
+            return List.of();
+        });
+
+        assertEquals(2, loaderCalls.get());
+    }
+
+    @Test
+    public void testEvictEmptyResult_ReloadsOnNextLookup() {
+        AtomicInteger loaderCalls = new AtomicInteger();
+        cacheService.getOrLoad("French", () -> {
+            loaderCalls.incrementAndGet();
+            return List.of();
+        });
+
+        cacheService.evictEmptyResult("French");
+        cacheService.getOrLoad("French", () -> {
+            loaderCalls.incrementAndGet();
+            return List.of();
+        });
+
+        assertEquals(2, loaderCalls.get());
+    }
+
+    @Test
+    public void testGetOrLoadEncoded_SerializesOncePerEntry() throws IOException {
+        List<RecipeDto> recipes = List.of(new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null));
+        AtomicInteger serializations = new AtomicInteger();
+
+        EncodedResponse first = null;
+        for (int i = 0; i < 3; i++) {
+            EncodedResponse response = cacheService.getOrLoadEncoded("Italian", () -> recipes, list -> {
+                serializations.incrementAndGet();
+                return "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+            }, true);
+            if (first == null) {
+                first = response;
+            }
+            assertSame(first, response);
+        }
+
+        assertEquals(1, serializations.get());
+        assertEquals(2, cacheService.getStats().getEncodedHitCount());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(first.getGzip()))) {
+            assertArrayEquals(first.getJson(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    public void testGetOrLoadEncoded_CompressesOnlyWhenAsked() throws IOException {
+        List<RecipeDto> recipes = List.of(new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null));
+        AtomicInteger serializations = new AtomicInteger();
+        Function<List<RecipeDto>, byte[]> serializer = list -> {
+            serializations.incrementAndGet();
+            return "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+        };
+
+        EncodedResponse plain = cacheService.getOrLoadEncoded("Italian", () -> recipes, serializer, false);
+        assertNull(plain.getGzip());
+        long bytesWithoutGzip = cacheService.getStats().getEstimatedBytes();
+
+        EncodedResponse compressed = cacheService.getOrLoadEncoded("Italian", () -> recipes, serializer, true);
+        assertSame(plain.getJson(), compressed.getJson());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.getGzip()))) {
+            assertArrayEquals(compressed.getJson(), in.readAllBytes());
+        }
+        assertEquals(bytesWithoutGzip + compressed.getGzip().length,
+                cacheService.getStats().getEstimatedBytes());
+
+        // Сжатый вариант остается в записи и отдается следующим запросам
+        assertSame(compressed, cacheService.getOrLoadEncoded("Italian", () -> recipes, serializer, true));
+        assertSame(compressed, cacheService.getOrLoadEncoded("Italian", () -> recipes, serializer, false));
+        assertEquals(1, serializations.get());
+    }
+
+    @Test
+    public void testGetOrLoadEncoded_UncachedResultIsNotCompressed() {
+        EncodedResponse response = cacheService.getOrLoadEncoded("Atlantean", List::of,
+                list -> new byte[] {'[', ']'}, true);
+
+        assertArrayEquals(new byte[] {'[', ']'}, response.getJson());
+        assertNull(response.getGzip());
+    }
+
+    @Test
+    public void testGetOrLoadEncoded_ReencodesAfterInvalidation() {
+        List<RecipeDto> recipes = List.of(new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null));
+        AtomicInteger serializations = new AtomicInteger();
+
+        cacheService.getOrLoadEncoded("Italian", () -> recipes, list -> {
+            serializations.incrementAndGet();
+            return new byte[] {'[', ']'};
+        }, true);
+        long bytesWithBody = cacheService.getStats().getEstimatedBytes();
+        cacheService.removeCachedRecipes("Italian");
+        assertEquals(0, cacheService.getStats().getEstimatedBytes());
+
+        cacheService.getOrLoadEncoded("Italian", () -> recipes, list -> {
+            serializations.incrementAndGet();
+            return new byte[] {'[', ']'};
+        }, true);
+
+        assertEquals(2, serializations.get());
+        assertEquals(bytesWithBody, cacheService.getStats().getEstimatedBytes());
+    }
+
+    @Test
+    public void testBindTo_PropagatesInvalidationsToPeers() {
+        LoopbackTransport transport = new LoopbackTransport();
+        InvalidationBus localBus = new InvalidationBus(transport, 60_000, 1000);
+        InvalidationBus peerBus = new InvalidationBus(transport, 60_000, 1000);
+        CacheService peer = new CacheService();
+        cacheService.bindTo(localBus);
+        peer.bindTo(peerBus);
+        CuisineDto italian = new CuisineDto(1L, "Italian");
+        List<RecipeDto> recipes = List.of(new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), italian));
+        peer.cacheRecipes("Italian", recipes);
+        peer.cacheRecipes("Mexican", recipes);
+        peer.getOrLoad("French", List::of);
+
+        cacheService.evictEmptyResult("French");
+        cacheService.invalidateTag(CacheTags.cuisine(1L));
+        localBus.flush();
+
+        assertNull(peer.getCachedRecipes("Italian"));
+        assertNull(peer.getCachedRecipes("Mexican"));
+        assertEquals(0, peer.getStats().getEmptyResultEntryCount());
+        assertEquals(0, peerBus.getSentBatchCount());
+    }
+}
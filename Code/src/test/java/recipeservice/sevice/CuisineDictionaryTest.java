@@ -0,0 +1,82 @@
+package recipeservice.sevice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import recipeservice.cache.InvalidationBus;
+import recipeservice.cache.LoopbackTransport;
+import recipeservice.dao.CuisineDao;
+import recipeservice.service.CuisineDictionary;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CuisineDictionaryTest {
+
+    @Mock
+    private CuisineDao cuisineDao;
+
+    private CuisineDictionary dictionary;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Map<Long, String> names = new LinkedHashMap<>();
+        names.put(1L, "Italian");
+        names.put(2L, "Мексиканская");
+        names.put(3L, " italian ");
+        when(cuisineDao.getCuisineNames()).thenReturn(names);
+        dictionary = new CuisineDictionary(cuisineDao);
+    }
+
+    @Test
+    public void testResolve_IgnoresCaseAndLoadsOnce() {
+        assertEquals(List.of(1L, 3L), dictionary.resolve("ITALIAN"));
+        assertEquals(List.of(2L), dictionary.resolve("мексиканская"));
+        assertNull(dictionary.resolve("Atlantean"));
+        assertNull(dictionary.resolve(null));
+
+        verify(cuisineDao, times(1)).getCuisineNames();
+    }
+
+    @Test
+    public void testWrites_UpdateWithoutReload() {
+        dictionary.resolve("Italian");
+
+        dictionary.cuisineChanged(4L, "French");
+        dictionary.cuisineChanged(1L, "Roman");
+        dictionary.cuisineDeleted(2L);
+
+        assertEquals(List.of(4L), dictionary.resolve("french"));
+        assertEquals(List.of(1L), dictionary.resolve("Roman"));
+        assertEquals(List.of(3L), dictionary.resolve("Italian"));
+        assertNull(dictionary.resolve("Мексиканская"));
+        assertEquals("roman", dictionary.name(1L));
+        assertNull(dictionary.name(2L));
+        verify(cuisineDao, times(1)).getCuisineNames();
+    }
+
+    @Test
+    public void testPeerWrite_ReloadsOnNextLookup() {
+        LoopbackTransport transport = new LoopbackTransport();
+        InvalidationBus local = new InvalidationBus(transport, 0, 1);
+        InvalidationBus peer = new InvalidationBus(transport, 0, 1);
+        CuisineDictionary peerDictionary = new CuisineDictionary(cuisineDao);
+        dictionary.bindTo(local);
+        peerDictionary.bindTo(peer);
+        assertNull(peerDictionary.resolve("French"));
+
+        when(cuisineDao.getCuisineNames()).thenReturn(Map.of(4L, "French"));
+        dictionary.cuisineChanged(4L, "French");
+
+        assertEquals(List.of(4L), peerDictionary.resolve("French"));
+        verify(cuisineDao, times(2)).getCuisineNames();
+        local.close();
+        peer.close();
+    }
+}
@@ -8,7 +8,11 @@ import org.mockito.MockitoAnnotations;
 import recipeservice.dao.CuisineDao;
 import recipeservice.dto.CuisineDto;
 import recipeservice.model.Cuisine;
+import recipeservice.service.CacheService;
+import recipeservice.service.VersionService;
+import recipeservice.service.CuisineDictionary;
 import recipeservice.service.CuisineService;
+import recipeservice.service.EntityCacheService;
 
 import java.util.Arrays;
 import java.util.List;
@@ -22,6 +26,18 @@ public class CuisineServiceTest {
     @Mock
     private CuisineDao cuisineDao;
 
+    @Mock
+    private CacheService cacheService;
+
+    @Mock
+    private VersionService versionService;
+
+    @Mock
+    private EntityCacheService entityCacheService;
+
+    @Mock
+    private CuisineDictionary cuisineDictionary;
+
     @InjectMocks
     private CuisineService cuisineService;
 
@@ -67,6 +83,8 @@ public class CuisineServiceTest {
         assertNotNull(createdCuisine);
         assertEquals("Italian", createdCuisine.getName());
         verify(cuisineDao, times(1)).createCuisine(any(Cuisine.class));
+        verify(cacheService, times(1)).evictEmptyResult("italian");
+        verify(cuisineDictionary, times(1)).cuisineChanged(null, "Italian");
     }
 
     @Test
@@ -80,6 +98,8 @@ public class CuisineServiceTest {
         assertNotNull(result);
         assertEquals("French", result.getName());
         verify(cuisineDao, times(1)).updateCuisine(eq(1L), any(Cuisine.class));
+        verify(cacheService, times(1)).invalidateTag("cuisine:1");
+        verify(cuisineDictionary, times(1)).cuisineChanged(1L, "French");
     }
 
     @Test
@@ -87,5 +107,9 @@ public class CuisineServiceTest {
         cuisineService.deleteCuisine(1L);
 
         verify(cuisineDao, times(1)).deleteCuisine(1L);
+        verify(versionService, times(1)).cuisineChanged(1L);
+        verify(entityCacheService, times(1)).cuisineChanged(1L);
+        verify(cuisineDictionary, times(1)).cuisineDeleted(1L);
+        verify(cacheService, times(1)).invalidateTag("cuisine:1");
     }
 }
\ No newline at end of file
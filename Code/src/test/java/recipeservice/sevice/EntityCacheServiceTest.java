@@ -0,0 +1,119 @@
+package recipeservice.sevice;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import recipeservice.cache.InvalidationBus;
+import recipeservice.cache.LoopbackTransport;
+import recipeservice.dto.EntityCacheRegionStatsDto;
+import recipeservice.model.Cuisine;
+import recipeservice.model.Ingredient;
+import recipeservice.model.Recipe;
+import recipeservice.service.EntityCacheService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class EntityCacheServiceTest {
+
+    @Mock
+    private EntityManagerFactory localFactory;
+
+    @Mock
+    private EntityManagerFactory peerFactory;
+
+    @Mock
+    private SessionFactory localSessionFactory;
+
+    @Mock
+    private SessionFactory peerSessionFactory;
+
+    @Mock
+    private Cache localCache;
+
+    @Mock
+    private Cache peerCache;
+
+    private InvalidationBus local;
+    private InvalidationBus peer;
+    private EntityCacheService localService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(localFactory.unwrap(SessionFactory.class)).thenReturn(localSessionFactory);
+        when(peerFactory.unwrap(SessionFactory.class)).thenReturn(peerSessionFactory);
+        when(localSessionFactory.getCache()).thenReturn(localCache);
+        when(peerSessionFactory.getCache()).thenReturn(peerCache);
+        LoopbackTransport transport = new LoopbackTransport();
+        local = new InvalidationBus(transport, 0, 1);
+        peer = new InvalidationBus(transport, 0, 1);
+        localService = new EntityCacheService(localFactory);
+        localService.bindTo(local);
+        new EntityCacheService(peerFactory).bindTo(peer);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        local.close();
+        peer.close();
+    }
+
+    @Test
+    public void testCuisineChanged_EvictsEntityAndQueryResultsOnPeerOnly() {
+        localService.cuisineChanged(5L);
+
+        verify(peerCache, times(1)).evictEntityData(Cuisine.class, 5L);
+        verify(peerCache, times(1)).evictDefaultQueryRegion();
+        verifyNoInteractions(localCache);
+    }
+
+    @Test
+    public void testIngredientChanged_EvictsRecipeIngredientCollectionsOnPeer() {
+        localService.ingredientChanged(7L);
+
+        verify(peerCache, times(1)).evictEntityData(Ingredient.class, 7L);
+        verify(peerCache, times(1)).evictCollectionData(Recipe.INGREDIENTS_ROLE);
+        verify(peerCache, times(1)).evictDefaultQueryRegion();
+    }
+
+    @Test
+    public void testRecipeChanged_EvictsOnlyThatRecipesCollectionOnPeer() {
+        localService.recipeChanged(3L);
+
+        verify(peerCache, times(1)).evictCollectionData(Recipe.INGREDIENTS_ROLE, 3L);
+        verify(peerCache, never()).evictCollectionData(Recipe.INGREDIENTS_ROLE);
+        verify(peerCache, never()).evictDefaultQueryRegion();
+    }
+
+    @Test
+    public void testGetStats_ReportsEveryRegion() {
+        Statistics statistics = mock(Statistics.class);
+        CacheRegionStatistics cuisineStatistics = mock(CacheRegionStatistics.class);
+        when(cuisineStatistics.getHitCount()).thenReturn(3L);
+        when(cuisineStatistics.getMissCount()).thenReturn(1L);
+        when(cuisineStatistics.getPutCount()).thenReturn(1L);
+        when(localSessionFactory.getStatistics()).thenReturn(statistics);
+        when(statistics.getDomainDataRegionStatistics(Cuisine.CACHE_REGION))
+                .thenReturn(cuisineStatistics);
+
+        List<EntityCacheRegionStatsDto> stats = localService.getStats();
+
+        assertEquals(List.of(Cuisine.CACHE_REGION, Ingredient.CACHE_REGION,
+                        Recipe.INGREDIENTS_CACHE_REGION, "default-query-results-region"),
+                stats.stream().map(EntityCacheRegionStatsDto::getRegion).toList());
+        assertEquals(3L, stats.get(0).getHitCount());
+        assertEquals(0.75, stats.get(0).getHitRatio());
+        assertEquals(0L, stats.get(1).getHitCount());
+        assertNull(stats.get(1).getHitRatio());
+    }
+}
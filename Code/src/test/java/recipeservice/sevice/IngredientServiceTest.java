@@ -6,10 +6,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import recipeservice.dao.IngredientDao;
-import recipeservice.dao.RecipeDao;
 import recipeservice.dto.IngredientDto;
 import recipeservice.model.Ingredient;
-import recipeservice.model.Recipe;
+import recipeservice.service.CacheService;
+import recipeservice.service.EntityCacheService;
+import recipeservice.service.PantryService;
+import recipeservice.service.SearchService;
+import recipeservice.service.VersionService;
 import recipeservice.service.IngredientService;
 import recipeservice.exception.CustomException;
 
@@ -27,7 +30,19 @@ public class IngredientServiceTest {
     private IngredientDao ingredientDao;
 
     @Mock
-    private RecipeDao recipeDao;
+    private CacheService cacheService;
+
+    @Mock
+    private VersionService versionService;
+
+    @Mock
+    private PantryService pantryService;
+
+    @Mock
+    private EntityCacheService entityCacheService;
+
+    @Mock
+    private SearchService searchService;
 
     @InjectMocks
     private IngredientService ingredientService;
@@ -103,18 +118,47 @@ public class IngredientServiceTest {
         assertNotNull(updatedIngredient);
         assertEquals("Salt", updatedIngredient.getName());
         verify(ingredientDao, times(1)).updateIngredient(eq(1L), any(Ingredient.class));
+        verify(cacheService, times(1)).invalidateTag("ingredient:1");
+        verify(versionService, times(1)).ingredientChanged(1L);
     }
 
     @Test
     public void testDeleteIngredient() {
-        Recipe recipe = new Recipe();
-        recipe.getIngredients().add(new Ingredient() {{ setId(1L); setName("Salt"); }});
-        when(recipeDao.findRecipesByIngredientId(1L)).thenReturn(Arrays.asList(recipe));
+        when(ingredientDao.deleteIngredient(1L)).thenReturn(List.of());
 
         ingredientService.deleteIngredient(1L);
 
-        verify(recipeDao, times(1)).findRecipesByIngredientId(1L);
         verify(ingredientDao, times(1)).deleteIngredient(1L);
+        verify(versionService, times(1)).ingredientChanged(1L);
+        verify(cacheService, times(1)).invalidateTag("ingredient:1");
+        verify(pantryService, times(1)).ingredientDeleted(1L);
+        verify(entityCacheService, times(1)).ingredientChanged(1L);
+    }
+
+    @Test
+    public void testUpdateIngredient_ReindexesRecipesUsingIt() {
+        IngredientDto ingredientDto = new IngredientDto(1L, "Sea salt");
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(1L);
+        ingredient.setName("Sea salt");
+        when(ingredientDao.updateIngredient(eq(1L), any(Ingredient.class))).thenReturn(ingredient);
+
+        ingredientService.updateIngredient(1L, ingredientDto);
+
+        // Рецепты с ингредиентом поиск находит сам в своем индексе
+        verify(searchService, times(1)).ingredientChanged(1L, List.of());
+        verify(searchService, never()).recipesChanged(any());
+    }
+
+    @Test
+    public void testDeleteIngredient_ReindexesRecipesThatUsedIt() {
+        when(ingredientDao.deleteIngredient(1L)).thenReturn(List.of(3L, 7L));
+
+        ingredientService.deleteIngredient(1L);
+
+        // Удаление само возвращает рецепты, от которых отвязан ингредиент
+        verify(searchService, times(1)).ingredientChanged(1L, List.of(3L, 7L));
+        verify(searchService, never()).recipesChanged(any());
     }
 
     @Test
@@ -188,11 +232,14 @@ public class IngredientServiceTest {
 
     @Test
     public void testDeleteIngredient_NotFound() {
-        when(recipeDao.findRecipesByIngredientId(1L)).thenReturn(Arrays.asList());
+        when(ingredientDao.deleteIngredient(1L)).thenReturn(null);
 
         ingredientService.deleteIngredient(1L);
 
-        verify(recipeDao, times(1)).findRecipesByIngredientId(1L);
         verify(ingredientDao, times(1)).deleteIngredient(1L);
+        verify(versionService, never()).ingredientChanged(any());
+        verify(cacheService, never()).invalidateTag(any());
+        verify(pantryService, never()).ingredientDeleted(any());
+        verify(searchService, never()).ingredientChanged(any(), any());
     }
 }
\ No newline at end of file
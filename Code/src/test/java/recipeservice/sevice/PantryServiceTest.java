@@ -0,0 +1,125 @@
+package recipeservice.sevice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import recipeservice.cache.InvalidationBus;
+import recipeservice.cache.LoopbackTransport;
+import recipeservice.dao.RecipeDao;
+import recipeservice.dto.IngredientDto;
+import recipeservice.dto.PageDto;
+import recipeservice.dto.PantryMatchDto;
+import recipeservice.dto.RecipeDto;
+import recipeservice.exception.CustomException;
+import recipeservice.service.PantryService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class PantryServiceTest {
+
+    @Mock
+    private RecipeDao recipeDao;
+
+    private PantryService pantryService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        pantryService = new PantryService(recipeDao);
+    }
+
+    private static RecipeDto recipe(long id, String title, Long... ingredientIds) {
+        List<IngredientDto> ingredients = new ArrayList<>();
+        for (Long ingredientId : ingredientIds) {
+            ingredients.add(new IngredientDto(ingredientId, "Ingredient " + ingredientId));
+        }
+        return new RecipeDto(id, title, "Description", ingredients, new ArrayList<>(), null);
+    }
+
+    @Test
+    public void testRebuild_IndexesLinksInChunks() {
+        when(recipeDao.getRecipeIdsAfter(0L, 500)).thenReturn(List.of(1L, 2L, 3L));
+        when(recipeDao.getRecipeIdsAfter(3L, 500)).thenReturn(List.of());
+        when(recipeDao.getIngredientIdsByRecipe(List.of(1L, 2L, 3L))).thenReturn(Map.of(
+                1L, List.of(10L, 20L), 2L, List.of(10L, 30L)));
+        when(recipeDao.findRecipeDtosWithoutReviews(List.of(1L, 2L))).thenReturn(List.of(
+                recipe(1L, "Omelette", 10L, 20L), recipe(2L, "Pancakes", 10L, 30L)));
+
+        pantryService.rebuild();
+
+        assertEquals(2, pantryService.getIndexedCount());
+        PageDto<PantryMatchDto> page =
+                pantryService.findCookable(List.of(10L, 20L), null, null, null);
+        assertEquals(List.of(1L, 2L), page.getItems().stream().map(PantryMatchDto::getId).toList());
+        PantryMatchDto pancakes = page.getItems().get(1);
+        assertEquals(1, pancakes.getMatchedCount());
+        assertEquals(1, pancakes.getMissingCount());
+        assertEquals(List.of(30L), pancakes.getMissingIngredients().stream()
+                .map(IngredientDto::getId).toList());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testFindCookable_MaxMissingAndCursor() {
+        when(recipeDao.getIngredientIdsByRecipe(any())).thenReturn(Map.of(
+                1L, List.of(10L), 2L, List.of(10L), 3L, List.of(10L, 20L)));
+        when(recipeDao.findRecipeDtosWithoutReviews(any())).thenAnswer(invocation -> {
+            List<RecipeDto> recipes = new ArrayList<>();
+            for (Long id : invocation.<List<Long>>getArgument(0)) {
+                recipes.add(id == 3L
+                        ? recipe(3L, "Recipe 3", 10L, 20L) : recipe(id, "Recipe " + id, 10L));
+            }
+            return recipes;
+        });
+        pantryService.recipesChanged(List.of(1L, 2L, 3L));
+
+        PageDto<PantryMatchDto> first = pantryService.findCookable(List.of(10L), 0, null, 1);
+        PageDto<PantryMatchDto> second =
+                pantryService.findCookable(List.of(10L), 0, first.getNextCursor(), 1);
+
+        assertEquals(1L, first.getItems().get(0).getId());
+        assertEquals(List.of(2L), second.getItems().stream().map(PantryMatchDto::getId).toList());
+        assertNull(second.getNextCursor());
+        assertEquals(3, pantryService.findCookable(List.of(10L), null, null, null)
+                .getItems().size());
+    }
+
+    @Test
+    public void testFindCookable_InvalidArgumentsRejected() {
+        assertThrows(CustomException.class,
+                () -> pantryService.findCookable(List.of(), null, null, null));
+        assertThrows(CustomException.class,
+                () -> pantryService.findCookable(List.of(1L), -1, null, null));
+        assertThrows(CustomException.class, () -> pantryService.findCookable(
+                Collections.nCopies(501, 1L), null, null, null));
+    }
+
+    @Test
+    public void testIngredientDeleted_PropagatesToPeer() {
+        LoopbackTransport transport = new LoopbackTransport();
+        InvalidationBus local = new InvalidationBus(transport, 0, 1);
+        InvalidationBus peer = new InvalidationBus(transport, 0, 1);
+        PantryService peerService = new PantryService(recipeDao);
+        pantryService.bindTo(local);
+        peerService.bindTo(peer);
+        when(recipeDao.getIngredientIdsByRecipe(List.of(1L)))
+                .thenReturn(Map.of(1L, List.of(10L)));
+
+        pantryService.recipeChanged(1L);
+        assertEquals(1, peerService.getIndexedCount());
+        pantryService.ingredientDeleted(10L);
+
+        assertEquals(0, pantryService.getIndexedCount());
+        assertEquals(0, peerService.getIndexedCount());
+        local.close();
+        peer.close();
+    }
+}
@@ -0,0 +1,112 @@
+package recipeservice.sevice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import recipeservice.cache.InvalidationBus;
+import recipeservice.cache.LoopbackTransport;
+import recipeservice.dao.ReviewDao;
+import recipeservice.dto.RatingSummaryDto;
+import recipeservice.service.RatingService;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class RatingServiceTest {
+
+    @Mock
+    private ReviewDao reviewDao;
+
+    private RatingService ratingService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(reviewDao.getAllRatingCounts()).thenReturn(Map.of(1L, Map.of(5, 2L, 3, 1L)));
+        ratingService = new RatingService(reviewDao);
+    }
+
+    @Test
+    public void testGetSummary_SeedsOnceFromGroupedCounts() {
+        RatingSummaryDto summary = ratingService.getSummary(1L);
+        RatingSummaryDto empty = ratingService.getSummary(2L);
+
+        assertEquals(3, summary.getCount());
+        assertEquals(13, summary.getSum());
+        assertEquals(List.of(0L, 0L, 1L, 0L, 2L), summary.getHistogram());
+        assertEquals(0, empty.getCount());
+        assertNull(empty.getAverage());
+        verify(reviewDao, times(1)).getAllRatingCounts();
+        verify(reviewDao, never()).getRatingCounts(any());
+    }
+
+    @Test
+    public void testReviewChanges_UpdateSummaryIncrementally() {
+        ratingService.getSummary(1L);
+
+        ratingService.reviewAdded(1L, 4);
+        ratingService.reviewRemoved(1L, 3);
+        ratingService.reviewAdded(2L, 1);
+        ratingService.reviewAdded(2L, null);
+        ratingService.reviewAdded(2L, 7);
+
+        assertEquals(List.of(0L, 0L, 0L, 1L, 2L), ratingService.getSummary(1L).getHistogram());
+        assertEquals(14, ratingService.getSummary(1L).getSum());
+        assertEquals(1, ratingService.getSummary(2L).getCount());
+        verify(reviewDao, times(1)).getAllRatingCounts();
+    }
+
+    @Test
+    public void testConcurrentUpdatesOfSameReview_ApplyInAnyOrder() {
+        ratingService.getSummary(1L);
+
+        // Отзыв с оценкой 3 обновлен до 4, затем до 5; дельты второго пришли раньше
+        ratingService.reviewRemoved(1L, 4);
+        ratingService.reviewAdded(1L, 5);
+        ratingService.reviewRemoved(1L, 3);
+        ratingService.reviewAdded(1L, 4);
+
+        assertEquals(List.of(0L, 0L, 0L, 0L, 3L), ratingService.getSummary(1L).getHistogram());
+        assertEquals(15, ratingService.getSummary(1L).getSum());
+    }
+
+    @Test
+    public void testReviewChanges_BeforeSeedAreLeftToSeedQuery() {
+        ratingService.reviewAdded(1L, 4);
+
+        assertEquals(3, ratingService.getSummary(1L).getCount());
+    }
+
+    @Test
+    public void testRecipeDeleted_DropsSummary() {
+        ratingService.getSummary(1L);
+
+        ratingService.recipeDeleted(1L);
+
+        assertEquals(0, ratingService.getSummary(1L).getCount());
+    }
+
+    @Test
+    public void testPeerChange_ReloadsRecipeAndResetReseeds() {
+        LoopbackTransport transport = new LoopbackTransport();
+        InvalidationBus local = new InvalidationBus(transport, 0, 1);
+        InvalidationBus peer = new InvalidationBus(transport, 0, 1);
+        RatingService peerService = new RatingService(reviewDao);
+        ratingService.bindTo(local);
+        peerService.bindTo(peer);
+        peerService.getSummary(1L);
+        when(reviewDao.getRatingCounts(1L)).thenReturn(Map.of(5, 2L, 3, 1L, 1, 1L));
+
+        ratingService.reviewAdded(1L, 1);
+
+        assertEquals(4, peerService.getSummary(1L).getCount());
+        verify(reviewDao, times(1)).getRatingCounts(1L);
+        local.close();
+        peer.close();
+    }
+}
@@ -0,0 +1,141 @@
+package recipeservice.sevice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import recipeservice.dao.RecipeDao;
+import recipeservice.dto.BulkItemResultDto;
+import recipeservice.dto.CuisineDto;
+import recipeservice.dto.IngredientDto;
+import recipeservice.dto.RecipeDto;
+import recipeservice.model.Recipe;
+import recipeservice.service.CacheService;
+import recipeservice.service.PantryService;
+import recipeservice.service.RecipeImportService;
+import recipeservice.service.SearchService;
+import recipeservice.service.VersionService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class RecipeImportServiceTest {
+
+    @Mock
+    private RecipeDao recipeDao;
+
+    @Mock
+    private CacheService cacheService;
+
+    @Mock
+    private VersionService versionService;
+
+    @Mock
+    private TransactionOperations transactionOperations;
+
+    @Mock
+    private SearchService searchService;
+
+    @Mock
+    private PantryService pantryService;
+
+    private RecipeImportService recipeImportService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionOperations.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(recipeDao.getCuisineNames(any())).thenReturn(Map.of(1L, "Italian"));
+        when(recipeDao.getExistingIngredientIds(any())).thenReturn(Set.of(10L));
+        when(recipeDao.allocateRecipeIds(anyInt())).thenAnswer(invocation -> {
+            List<Long> ids = new ArrayList<>();
+            for (long id = 1; id <= invocation.<Integer>getArgument(0); id++) {
+                ids.add(100 + id);
+            }
+            return ids;
+        });
+        recipeImportService = new RecipeImportService(
+                recipeDao, cacheService, versionService, transactionOperations, searchService,
+                pantryService, 2);
+    }
+
+    private static RecipeDto recipe(String title) {
+        return new RecipeDto(null, title, "Description",
+                List.of(new IngredientDto(10L, "Salt"), new IngredientDto(10L, "Salt")),
+                new ArrayList<>(), new CuisineDto(1L, "Italian"));
+    }
+
+    @Test
+    public void testImportRecipes_CommitsInChunks() {
+        List<BulkItemResultDto> results = recipeImportService.importRecipes(
+                List.of(recipe("A"), recipe("B"), recipe("C")));
+
+        assertEquals(3, results.size());
+        assertTrue(results.stream().allMatch(r -> r.getStatus() == BulkItemResultDto.Status.CREATED));
+        assertEquals(List.of(101L, 102L, 101L), results.stream().map(BulkItemResultDto::getId).toList());
+        verify(transactionOperations, times(2)).execute(any());
+        verify(recipeDao).allocateRecipeIds(2);
+        verify(recipeDao).allocateRecipeIds(1);
+        verify(recipeDao, never()).createRecipe(any());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Recipe>> captor = ArgumentCaptor.forClass(List.class);
+        verify(recipeDao, times(2)).insertRecipes(captor.capture());
+        Recipe first = captor.getAllValues().get(0).get(0);
+        assertEquals(101L, first.getId());
+        assertEquals(1, first.getIngredients().size()); // дубликат ингредиента отброшен
+        verify(versionService, times(3)).recipeChanged(any());
+        verify(cacheService, times(2)).invalidateTag("cuisine:1");
+        verify(cacheService, times(2)).evictEmptyResult("italian");
+        verify(searchService).recipesChanged(List.of(101L, 102L));
+        verify(searchService).recipesChanged(List.of(101L));
+    }
+
+    @Test
+    public void testImportRecipes_RejectsInvalidItems() {
+        RecipeDto noTitle = new RecipeDto(null, null, "Description", null, null, null);
+        RecipeDto unknownCuisine = new RecipeDto(null, "B", "Description", null, null,
+                new CuisineDto(2L, "Thai"));
+        RecipeDto unknownIngredient = new RecipeDto(null, "C", "Description",
+                List.of(new IngredientDto(11L, "Sugar")), null, null);
+
+        List<BulkItemResultDto> results = recipeImportService.importRecipes(
+                List.of(noTitle, unknownCuisine, unknownIngredient, recipe("D")));
+
+        assertEquals(BulkItemResultDto.Status.REJECTED, results.get(0).getStatus());
+        assertEquals("Название и описание не могут быть пустыми", results.get(0).getError());
+        assertEquals("Кухня не найдена", results.get(1).getError());
+        assertEquals("Ингредиент не найден", results.get(2).getError());
+        assertEquals(BulkItemResultDto.Status.CREATED, results.get(3).getStatus());
+        assertEquals(3, results.get(3).getIndex());
+        verify(recipeDao, times(1)).allocateRecipeIds(1);
+    }
+
+    @Test
+    public void testImportRecipes_FailedChunkDoesNotAffectOthers() {
+        doThrow(new DataIntegrityViolationException("duplicate"))
+                .doNothing()
+                .when(recipeDao).insertRecipes(any());
+
+        List<BulkItemResultDto> results = recipeImportService.importRecipes(
+                List.of(recipe("A"), recipe("B"), recipe("C")));
+
+        assertEquals(BulkItemResultDto.Status.FAILED, results.get(0).getStatus());
+        assertEquals(BulkItemResultDto.Status.FAILED, results.get(1).getStatus());
+        assertNull(results.get(1).getId());
+        assertEquals(BulkItemResultDto.Status.CREATED, results.get(2).getStatus());
+        verify(cacheService, times(1)).invalidateTag("cuisine:1");
+    }
+}
@@ -7,11 +7,25 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import recipeservice.dao.RecipeDao;
 import recipeservice.dto.RecipeDto;
+import recipeservice.dto.RecipeFields;
+import recipeservice.dto.RecipePatchDto;
 import recipeservice.service.RecipeService;
 import recipeservice.service.CacheService;
+import recipeservice.service.VersionService;
+import recipeservice.service.CuisineDictionary;
+import recipeservice.service.EntityCacheService;
+import recipeservice.service.PantryService;
+import recipeservice.service.RatingService;
+import recipeservice.service.SearchService;
+import recipeservice.dto.RatingSummaryDto;
+import recipeservice.service.EncodedResponse;
+import recipeservice.service.PageCursor;
+import recipeservice.dto.PageDto;
 import recipeservice.exception.CustomException;
+import recipeservice.exception.PreconditionFailedException;
 import recipeservice.model.Cuisine;
 import recipeservice.model.Recipe;
 import recipeservice.dto.CuisineDto;
@@ -20,7 +34,16 @@ import recipeservice.dto.ReviewDto;
 import recipeservice.model.Ingredient;
 import recipeservice.model.Review;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 
 public class RecipeServiceTest {
 
@@ -33,9 +56,45 @@ public class RecipeServiceTest {
     @Mock
     private CacheService cacheService;
 
+    @Mock
+    private VersionService versionService;
+
+    @Mock
+    private RatingService ratingService;
+
+    @Mock
+    private SearchService searchService;
+
+    @Mock
+    private PantryService pantryService;
+
+    @Mock
+    private EntityCacheService entityCacheService;
+
+    @Mock
+    private CuisineDictionary cuisineDictionary;
+
+    @Mock
+    private TransactionOperations transactionOperations;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
+        when(transactionOperations.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(cacheService.getOrLoadRecipe(any(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<RecipeDto>>getArgument(1).get());
+        when(cuisineDictionary.resolve(any())).thenReturn(null);
+        when(cuisineDictionary.resolve("Italian")).thenReturn(List.of(1L));
+    }
+
+    private void stubCacheMiss(String cuisineName) {
+        when(cacheService.getOrLoad(eq(CuisineDictionary.normalize(cuisineName)), any()))
+                .thenAnswer(invocation ->
+                        invocation.<Supplier<List<RecipeDto>>>getArgument(1).get());
     }
 
     @Test
@@ -45,7 +104,6 @@ public class RecipeServiceTest {
         recipe.setId(1L);
 
         when(recipeDao.createRecipe(any())).thenReturn(recipe);
-        doNothing().when(cacheService).updateCache(any(), any());
 
         RecipeDto createdRecipe = recipeService.createRecipe(recipeDto);
 
@@ -56,34 +114,115 @@ public class RecipeServiceTest {
 
     @Test
     public void testGetAllRecipes() {
-        Recipe recipe = new Recipe();
-        List<Recipe> recipes = List.of(recipe);
+        List<RecipeDto> recipes = List.of(new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null));
 
-        when(recipeDao.getAllRecipes()).thenReturn(recipes);
+        when(recipeDao.findAllRecipeDtos(RecipeFields.ALL)).thenReturn(recipes);
 
         List<RecipeDto> recipeDtos = recipeService.getAllRecipes();
 
         assertNotNull(recipeDtos);
         assertEquals(1, recipeDtos.size());
-        verify(recipeDao, times(1)).getAllRecipes();
+        verify(recipeDao, times(1)).findAllRecipeDtos(RecipeFields.ALL);
     }
-
     @Test
     public void testGetRecipeById_Success() {
-        Recipe recipe = new Recipe();
-        recipe.setId(1L);
-        when(recipeDao.getRecipeById(1L)).thenReturn(recipe);
+        RecipeDto recipe = new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null);
+        when(recipeDao.findRecipeDtoById(1L)).thenReturn(recipe);
 
         RecipeDto recipeDto = recipeService.getRecipeById(1L);
 
         assertNotNull(recipeDto);
         assertEquals(recipe.getId(), recipeDto.getId());
-        verify(recipeDao, times(1)).getRecipeById(1L);
+        verify(recipeDao, times(1)).findRecipeDtoById(1L);
+        verify(recipeDao, never()).getRecipeById(any());
+    }
+    @Test
+    public void testGetRecipeById_AttachesRatingSummary() {
+        RatingSummaryDto rating = new RatingSummaryDto(2, 9, List.of(0L, 0L, 0L, 1L, 1L));
+        when(recipeDao.findRecipeDtoById(1L)).thenReturn(
+                new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null));
+        when(ratingService.getSummary(1L)).thenReturn(rating);
+
+        RecipeDto recipeDto = recipeService.getRecipeById(1L);
+
+        assertSame(rating, recipeDto.getRating());
+        assertEquals(4.5, recipeDto.getRating().getAverage());
+        assertEquals("Pasta", recipeDto.getTitle());
+    }
+
+    @Test
+    public void testGetRecipeVersion_FromCachedRecipe() {
+        when(cacheService.getCachedRecipe(1L)).thenReturn(
+                new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null, 3L));
+
+        assertEquals(3L, recipeService.getRecipeVersion(1L));
+        verify(recipeDao, never()).getRecipeVersion(any());
+        verify(recipeDao, never()).findRecipeDtoById(any());
+    }
+
+    @Test
+    public void testGetRecipeVersion_LooksUpVersionOnCacheMiss() {
+        when(recipeDao.getRecipeVersion(1L)).thenReturn(3L);
+        when(recipeDao.getRecipeVersion(2L)).thenReturn(null);
+
+        assertEquals(3L, recipeService.getRecipeVersion(1L));
+        assertNull(recipeService.getRecipeVersion(2L));
+        verify(recipeDao, never()).findRecipeDtoById(any());
+    }
+
+    @Test
+    public void testGetRatingSummary_UnknownRecipe() {
+        when(recipeDao.getRecipeVersion(42L)).thenReturn(null);
+
+        assertNull(recipeService.getRatingSummary(42L));
+        verify(ratingService, never()).getSummary(any());
+    }
+
+    @Test
+    public void testGetRatingSummary_RecipeWithoutReviews() {
+        RatingSummaryDto empty = new RatingSummaryDto(0, 0, List.of(0L, 0L, 0L, 0L, 0L));
+        when(recipeDao.getRecipeVersion(1L)).thenReturn(0L);
+        when(ratingService.getSummary(1L)).thenReturn(empty);
+
+        assertSame(empty, recipeService.getRatingSummary(1L));
+    }
+
+    @Test
+    public void testGetRatingSummary_CachedRecipeSkipsLookup() {
+        RatingSummaryDto rating = new RatingSummaryDto(1, 5, List.of(0L, 0L, 0L, 0L, 1L));
+        when(cacheService.getCachedRecipe(1L)).thenReturn(
+                new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null));
+        when(ratingService.getSummary(1L)).thenReturn(rating);
+
+        assertSame(rating, recipeService.getRatingSummary(1L));
+        verify(recipeDao, never()).getRecipeVersion(any());
+    }
+
+    @Test
+    public void testDeleteRecipe_DropsRatingSummary() {
+        when(recipeDao.findRecipeDtosByIds(eq(List.of(1L)), any())).thenReturn(List.of(
+                new RecipeDto(1L, null, null, null, null, new CuisineDto(1L, "Italian"))));
+
+        recipeService.deleteRecipe(1L);
+
+        verify(ratingService, times(1)).recipeDeleted(1L);
+        verify(searchService, times(1)).recipeChanged(1L);
+    }
+
+    @Test
+    public void testGetRecipeById_Cached() {
+        RecipeDto cachedRecipe = new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null);
+        doReturn(cachedRecipe).when(cacheService).getOrLoadRecipe(eq(1L), any());
+
+        RecipeDto recipeDto = recipeService.getRecipeById(1L);
+
+        assertSame(cachedRecipe, recipeDto);
+        verify(recipeDao, never()).findRecipeDtoById(any());
     }
 
     @Test
     public void testGetRecipeById_NotFound() {
-        when(recipeDao.getRecipeById(1L)).thenReturn(null);
+        when(recipeDao.findRecipeDtoById(1L)).thenReturn(null);
 
         RecipeDto recipeDto = recipeService.getRecipeById(1L);
         assertNull(recipeDto);
@@ -102,54 +241,91 @@ public class RecipeServiceTest {
 
     @Test
     public void testDeleteRecipe_Success() {
-        Recipe recipe = new Recipe();
-        recipe.setId(1L);
-        recipe.setCuisine(new Cuisine());
-
-        when(recipeDao.getRecipeById(1L)).thenReturn(recipe);
+        when(recipeDao.findRecipeDtosByIds(eq(List.of(1L)), any())).thenReturn(List.of(
+                new RecipeDto(1L, null, null, null, null, new CuisineDto(1L, "Italian"))));
         doNothing().when(recipeDao).deleteRecipe(1L);
 
         recipeService.deleteRecipe(1L);
 
         verify(recipeDao, times(1)).deleteRecipe(1L);
-        verify(cacheService, times(1)).removeCachedRecipes(any());
+        verify(cacheService, times(1)).invalidateTag("cuisine:1");
+        verify(cacheService, times(1)).evictRecipe(1L);
+        // Кухня берется проекцией, полный рецепт с отзывами не читается
+        verify(recipeDao, never()).getRecipeById(any());
+        verify(recipeDao).findRecipeDtosByIds(eq(List.of(1L)), argThat(fields ->
+                fields.has(RecipeFields.Field.CUISINE)
+                        && !fields.has(RecipeFields.Field.INGREDIENTS)
+                        && !fields.has(RecipeFields.Field.REVIEWS)));
+    }
+
+    @Test
+    public void testDeleteRecipe_WithoutCuisine() {
+        when(recipeDao.findRecipeDtosByIds(eq(List.of(1L)), any())).thenReturn(List.of(
+                new RecipeDto(1L, null, null, null, null, null)));
+
+        recipeService.deleteRecipe(1L);
+
+        verify(recipeDao, times(1)).deleteRecipe(1L);
+        verify(cacheService, times(1)).evictRecipe(1L);
+        verify(cacheService, never()).invalidateTag(startsWith("cuisine:"));
     }
 
     @Test
     public void testDeleteRecipe_NotFound() {
-        when(recipeDao.getRecipeById(1L)).thenReturn(null);
+        when(recipeDao.findRecipeDtosByIds(eq(List.of(1L)), any())).thenReturn(List.of());
 
         recipeService.deleteRecipe(1L);
 
         verify(recipeDao, never()).deleteRecipe(any());
-        verify(cacheService, never()).removeCachedRecipes(any());
+        verify(cacheService, never()).invalidateTag(any());
+        verify(cacheService, never()).evictRecipe(any());
     }
 
     @Test
     public void testUpdateRecipe_Success() {
         RecipeDto recipeDto = new RecipeDto(1L, "Updated Recipe", "Updated Description", new ArrayList<>(), new ArrayList<>(), null);
-        Recipe recipe = new Recipe();
-        recipe.setId(1L);
 
-        when(recipeDao.getRecipeById(1L)).thenReturn(recipe);
-        when(recipeDao.updateRecipe(eq(1L), any())).thenReturn(recipe);
+        when(recipeDao.getRecipeVersion(1L)).thenReturn(2L);
+        when(recipeDao.findRecipeDtoById(1L)).thenReturn(
+                new RecipeDto(1L, "Updated Recipe", "Updated Description", new ArrayList<>(), new ArrayList<>(), null, 3L));
 
         RecipeDto updatedRecipe = recipeService.updateRecipe(1L, recipeDto);
 
         assertNotNull(updatedRecipe);
-        assertEquals(recipe.getId(), updatedRecipe.getId());
-        verify(recipeDao, times(1)).updateRecipe(eq(1L), any());
+        assertEquals(1L, updatedRecipe.getId());
+        assertEquals(3L, updatedRecipe.getVersion());
+        verify(recipeDao, times(1)).updateRecipe(eq(1L), argThat(recipe -> recipe.getVersion() == 2L));
+        verify(recipeDao, never()).getRecipeById(any());
+        verify(cacheService, times(1)).evictRecipe(1L);
+        verify(versionService, times(1)).recipeChanged(1L);
+    }
+
+    @Test
+    public void testUpdateRecipe_EvictsListsOfNewCuisine() {
+        RecipeDto recipeDto = new RecipeDto(1L, "Updated Recipe", "Updated Description", new ArrayList<>(), new ArrayList<>(),
+                new CuisineDto(2L, null));
+        when(recipeDao.getRecipeVersion(1L)).thenReturn(0L);
+        when(recipeDao.findRecipeDtoById(1L)).thenReturn(new RecipeDto(1L, "Updated Recipe", "Updated Description",
+                new ArrayList<>(), new ArrayList<>(), new CuisineDto(2L, "Italian"), 1L));
+
+        recipeService.updateRecipe(1L, recipeDto);
+
+        // Имя кухни берется из проекции, прочитанной в транзакции обновления
+        verify(cacheService, times(1)).invalidateTag("cuisine:2");
+        verify(cacheService, times(1)).evictEmptyResult("italian");
     }
 
     @Test
     public void testUpdateRecipe_NotFound() {
         RecipeDto recipeDto = new RecipeDto(1L, "Updated Recipe", "Updated Description", new ArrayList<>(), new ArrayList<>(), null);
-        when(recipeDao.getRecipeById(1L)).thenReturn(null);
+        when(recipeDao.getRecipeVersion(1L)).thenReturn(null);
 
         RecipeDto updatedRecipe = recipeService.updateRecipe(1L, recipeDto);
 
         assertNull(updatedRecipe);
         verify(recipeDao, never()).updateRecipe(any(), any());
+        verify(cacheService, never()).evictRecipe(any());
+        verify(versionService, never()).recipeChanged(any());
     }
 
     @Test
@@ -157,56 +333,82 @@ public class RecipeServiceTest {
         String cuisineName = "Italian";
         List<RecipeDto> cachedRecipes = List.of(new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null));
 
-        when(cacheService.getCachedRecipes(cuisineName)).thenReturn(cachedRecipes);
+        when(cacheService.getOrLoad(eq("italian"), any())).thenReturn(cachedRecipes);
 
         List<RecipeDto> result = recipeService.getRecipesByCuisineName(cuisineName);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(cachedRecipes.get(0).getId(), result.get(0).getId());
-        verify(recipeDao, never()).findRecipesByCuisineNameJpql(any());
-        verify(recipeDao, never()).findRecipesByCuisineNameNative(any());
+        verify(recipeDao, never()).findRecipeDtosByCuisineIds(any(), any());
+    }
+
+    @Test
+    public void testGetRecipesByIds_KeepsOrderAndSkipsMissing() {
+        when(cacheService.getOrLoadRecipes(any(), any())).thenAnswer(invocation ->
+                invocation.<Function<List<Long>, Map<Long, RecipeDto>>>getArgument(1)
+                        .apply(new ArrayList<>(invocation.<Collection<Long>>getArgument(0))));
+        when(recipeDao.findRecipeDtosByIds(List.of(3L, 1L, 2L), RecipeFields.ALL)).thenReturn(List.of(
+                new RecipeDto(1L, "Pasta", null, new ArrayList<>(), new ArrayList<>(), null),
+                new RecipeDto(3L, "Soup", null, new ArrayList<>(), new ArrayList<>(), null)));
+
+        List<RecipeDto> result = recipeService.getRecipesByIds(List.of(3L, 1L, 3L, 2L));
+
+        assertEquals(List.of(3L, 1L), result.stream().map(RecipeDto::getId).toList());
+        verify(recipeDao, times(1)).findRecipeDtosByIds(any(), any());
+        verify(recipeDao, never()).findRecipeDtoById(any());
+    }
+
+    @Test
+    public void testGetRecipesByIds_RejectsEmptyAndOversizedLists() {
+        List<Long> tooMany = new ArrayList<>();
+        for (long id = 1; id <= 101; id++) {
+            tooMany.add(id);
+        }
+
+        assertThrows(CustomException.class, () -> recipeService.getRecipesByIds(List.of()));
+        assertThrows(CustomException.class, () -> recipeService.getRecipesByIds(tooMany));
+        verifyNoInteractions(recipeDao);
+    }
+
+    @Test
+    public void testGetRecipesByCuisineName_UnknownCuisine() {
+        assertNull(recipeService.getRecipesByCuisineName("Atlantean"));
+        assertNull(recipeService.getEncodedRecipesByCuisineName("Atlantean", true));
+
+        verifyNoInteractions(recipeDao);
+        verify(cacheService, never()).getOrLoad(any(), any());
     }
 
     @Test
     public void testGetRecipesByCuisineName_NoCachedRecipes() {
         String cuisineName = "Italian";
-        Recipe recipe = new Recipe();
-        recipe.setId(1L);
-        recipe.setTitle("Pasta");
-        recipe.setDescription("Delicious pasta recipe");
-        List<Recipe> recipes = List.of(recipe);
+        List<RecipeDto> recipes = List.of(new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null));
 
-        when(cacheService.getCachedRecipes(cuisineName)).thenReturn(null);
-        when(recipeDao.findRecipesByCuisineNameJpql(cuisineName)).thenReturn(recipes);
+        stubCacheMiss(cuisineName);
+        when(recipeDao.findRecipeDtosByCuisineIds(List.of(1L), RecipeFields.ALL)).thenReturn(recipes);
 
         List<RecipeDto> result = recipeService.getRecipesByCuisineName(cuisineName);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(recipe.getId(), result.get(0).getId());
-        verify(recipeDao, times(1)).findRecipesByCuisineNameJpql(cuisineName);
-        verify(recipeDao, never()).findRecipesByCuisineNameNative(any());
-        verify(cacheService, times(1)).cacheRecipes(cuisineName, result);
+        assertEquals(1L, result.get(0).getId());
+        verify(recipeDao, times(1)).findRecipeDtosByCuisineIds(List.of(1L), RecipeFields.ALL);
+        verify(cacheService, times(1)).getOrLoad(eq("italian"), any());
     }
-
     @Test
     public void testGetRecipesByCuisineName_EmptyResults() {
         String cuisineName = "Italian";
-        when(cacheService.getCachedRecipes(cuisineName)).thenReturn(null);
-        when(recipeDao.findRecipesByCuisineNameJpql(cuisineName)).thenReturn(new ArrayList<>());
-
-        when(recipeDao.findRecipesByCuisineNameNative(cuisineName)).thenReturn(new ArrayList<>());
+        stubCacheMiss(cuisineName);
+        when(recipeDao.findRecipeDtosByCuisineIds(List.of(1L), RecipeFields.ALL)).thenReturn(new ArrayList<>());
 
         List<RecipeDto> result = recipeService.getRecipesByCuisineName(cuisineName);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(recipeDao, times(1)).findRecipesByCuisineNameJpql(cuisineName);
-        verify(recipeDao, times(1)).findRecipesByCuisineNameNative(cuisineName);
+        verify(recipeDao, times(1)).findRecipeDtosByCuisineIds(List.of(1L), RecipeFields.ALL);
         verify(cacheService, never()).cacheRecipes(any(), any()); // Проверяем, что кэширование не вызывалось
     }
-
     @Test
     public void testGetRecipeById_NegativeId() {
         RecipeDto recipeDto = recipeService.getRecipeById(-1L);
@@ -216,7 +418,7 @@ public class RecipeServiceTest {
     @Test
     public void testUpdateRecipe_InvalidId() {
         RecipeDto recipeDto = new RecipeDto(1L, "Updated Recipe", "Updated Description", new ArrayList<>(), new ArrayList<>(), null);
-        when(recipeDao.getRecipeById(1L)).thenReturn(null);
+        when(recipeDao.getRecipeVersion(1L)).thenReturn(null);
 
         RecipeDto updatedRecipe = recipeService.updateRecipe(1L, recipeDto);
         assertNull(updatedRecipe);
@@ -225,9 +427,8 @@ public class RecipeServiceTest {
     @Test
     public void testGetRecipesByCuisineName_NoResults() {
         String cuisineName = "Italian";
-        when(cacheService.getCachedRecipes(cuisineName)).thenReturn(null);
-        when(recipeDao.findRecipesByCuisineNameJpql(cuisineName)).thenReturn(new ArrayList<>());
-        when(recipeDao.findRecipesByCuisineNameNative(cuisineName)).thenReturn(new ArrayList<>());
+        stubCacheMiss(cuisineName);
+        when(recipeDao.findRecipeDtosByCuisineIds(List.of(1L), RecipeFields.ALL)).thenReturn(new ArrayList<>());
 
         List<RecipeDto> result = recipeService.getRecipesByCuisineName(cuisineName);
 
@@ -247,35 +448,38 @@ public class RecipeServiceTest {
         recipe.setCuisine(cuisine);
 
         when(recipeDao.createRecipe(any())).thenReturn(recipe);
-        doNothing().when(cacheService).updateCache(any(), any());
 
         RecipeDto createdRecipe = recipeService.createRecipe(recipeDto);
 
         assertNotNull(createdRecipe);
         assertEquals(recipe.getId(), createdRecipe.getId());
-        verify(cacheService, times(1)).updateCache(any(), any());
+        verify(cacheService, times(1)).invalidateTag("cuisine:1");
+        verify(cacheService, times(1)).evictEmptyResult("italian");
     }
 
     @Test
-    public void testGetAllRecipes_WithReviewsAndIngredients() {
+    public void testCreateRecipe_CuisineStubWithoutName() {
+        RecipeDto recipeDto = new RecipeDto(null, "Test Recipe", "Description", new ArrayList<>(), new ArrayList<>(), new CuisineDto(1L, null));
         Recipe recipe = new Recipe();
         recipe.setId(1L);
-        recipe.setTitle("Test Recipe");
-        recipe.setDescription("Description");
+        Cuisine cuisine = new Cuisine();
+        cuisine.setId(1L);
+        recipe.setCuisine(cuisine);
+        when(recipeDao.createRecipe(any())).thenReturn(recipe);
+        when(cuisineDictionary.name(1L)).thenReturn("italian");
 
-        Ingredient ingredient = new Ingredient();
-        ingredient.setId(1L);
-        ingredient.setName("Salt");
-        recipe.setIngredients(List.of(ingredient));
+        recipeService.createRecipe(recipeDto);
 
-        Review review = new Review();
-        review.setId(1L);
-        review.setText("Delicious!");
-        review.setRating(5);
-        recipe.setReviews(List.of(review));
+        verify(cacheService, times(1)).evictEmptyResult("italian");
+        verify(cacheService, times(1)).invalidateTag("cuisine:1");
+    }
 
-        List<Recipe> recipes = List.of(recipe);
-        when(recipeDao.getAllRecipes()).thenReturn(recipes);
+    @Test
+    public void testGetAllRecipes_WithReviewsAndIngredients() {
+        RecipeDto recipe = new RecipeDto(1L, "Test Recipe", "Description",
+                List.of(new IngredientDto(1L, "Salt")),
+                List.of(new ReviewDto(1L, "Delicious!", 5, 1L)), null);
+        when(recipeDao.findAllRecipeDtos(RecipeFields.ALL)).thenReturn(List.of(recipe));
 
         List<RecipeDto> recipeDtos = recipeService.getAllRecipes();
 
@@ -286,7 +490,6 @@ public class RecipeServiceTest {
         assertEquals("Salt", recipeDtos.get(0).getIngredients().get(0).getName());
         assertEquals("Delicious!", recipeDtos.get(0).getReviews().get(0).getText());
     }
-
     @Test
     public void testCreateRecipe_WithIngredientsAndReviews() {
         RecipeDto recipeDto = new RecipeDto(1L, "Test Recipe", "Description",
@@ -312,7 +515,6 @@ public class RecipeServiceTest {
         recipe.setReviews(reviews);
 
         when(recipeDao.createRecipe(any(Recipe.class))).thenReturn(recipe);
-        doNothing().when(cacheService).updateCache(any(), any());
 
         RecipeDto createdRecipe = recipeService.createRecipe(recipeDto);
 
@@ -346,8 +548,11 @@ public class RecipeServiceTest {
         reviews.add(review);
         recipe.setReviews(reviews);
 
-        when(recipeDao.getRecipeById(1L)).thenReturn(recipe);
+        when(recipeDao.getRecipeVersion(1L)).thenReturn(0L);
         when(recipeDao.updateRecipe(eq(1L), any())).thenReturn(recipe);
+        when(recipeDao.findRecipeDtoById(1L)).thenReturn(new RecipeDto(1L, "Updated Recipe", "Updated Description",
+                List.of(new IngredientDto(1L, "Salt")),
+                List.of(new ReviewDto(1L, "Even better!", 4, 1L)), null, 1L));
 
         RecipeDto updatedRecipe = recipeService.updateRecipe(1L, recipeDto);
 
@@ -364,7 +569,6 @@ public class RecipeServiceTest {
         recipe.setId(1L);
 
         when(recipeDao.createRecipe(any())).thenReturn(recipe);
-        doNothing().when(cacheService).updateCache(any(), any());
 
         RecipeDto createdRecipe = recipeService.createRecipe(recipeDto);
 
@@ -377,40 +581,32 @@ public class RecipeServiceTest {
     @Test
     public void testGetRecipesByCuisineName_CachedAndDatabase() {
         String cuisineName = "Italian";
-        Recipe recipe = new Recipe();
-        recipe.setId(1L);
-        recipe.setTitle("Pasta");
-        recipe.setDescription("Delicious pasta recipe");
-        List<Recipe> recipes = List.of(recipe);
+        List<RecipeDto> recipes = List.of(new RecipeDto(1L, "Pasta", "Delicious pasta recipe", new ArrayList<>(), new ArrayList<>(), null));
 
-        when(cacheService.getCachedRecipes(cuisineName)).thenReturn(null);
-        when(recipeDao.findRecipesByCuisineNameJpql(cuisineName)).thenReturn(recipes);
+        stubCacheMiss(cuisineName);
+        when(recipeDao.findRecipeDtosByCuisineIds(List.of(1L), RecipeFields.ALL)).thenReturn(recipes);
 
         List<RecipeDto> result = recipeService.getRecipesByCuisineName(cuisineName);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(recipe.getId(), result.get(0).getId());
-        verify(cacheService, times(1)).cacheRecipes(cuisineName, result);
+        assertEquals(1L, result.get(0).getId());
+        verify(cacheService, times(1)).getOrLoad(eq("italian"), any());
     }
-
     @Test
     public void testGetRecipesByCuisineName_NoResultsInDatabase() {
         String cuisineName = "Italian";
 
-        when(cacheService.getCachedRecipes(cuisineName)).thenReturn(null);
-        when(recipeDao.findRecipesByCuisineNameJpql(cuisineName)).thenReturn(new ArrayList<>());
-        when(recipeDao.findRecipesByCuisineNameNative(cuisineName)).thenReturn(new ArrayList<>());
+        stubCacheMiss(cuisineName);
+        when(recipeDao.findRecipeDtosByCuisineIds(List.of(1L), RecipeFields.ALL)).thenReturn(new ArrayList<>());
 
         List<RecipeDto> result = recipeService.getRecipesByCuisineName(cuisineName);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(recipeDao, times(1)).findRecipesByCuisineNameJpql(cuisineName);
-        verify(recipeDao, times(1)).findRecipesByCuisineNameNative(cuisineName);
+        verify(recipeDao, times(1)).findRecipeDtosByCuisineIds(List.of(1L), RecipeFields.ALL);
         verify(cacheService, never()).cacheRecipes(any(), any());
     }
-
     @Test
     public void testCreateRecipe_EmptyTitle() {
         RecipeDto recipeDto = new RecipeDto(1L, null, "Description", new ArrayList<>(), new ArrayList<>(), null);
@@ -461,8 +657,10 @@ public class RecipeServiceTest {
         updatedRecipe.setDescription("Updated Description");
         updatedRecipe.setCuisine(null);
 
-        when(recipeDao.getRecipeById(recipeId)).thenReturn(existingRecipe);
+        when(recipeDao.getRecipeVersion(recipeId)).thenReturn(0L);
         when(recipeDao.updateRecipe(eq(recipeId), any(Recipe.class))).thenReturn(updatedRecipe);
+        when(recipeDao.findRecipeDtoById(recipeId)).thenReturn(new RecipeDto(recipeId, "Updated Title",
+                "Updated Description", new ArrayList<>(), new ArrayList<>(), null, 1L));
 
         RecipeDto updatedRecipeDto = recipeService.updateRecipe(recipeId, recipeDto);
 
@@ -472,7 +670,7 @@ public class RecipeServiceTest {
         assertEquals("Updated Description", updatedRecipeDto.getDescription());
         assertNull(updatedRecipeDto.getCuisine());
 
-        verify(recipeDao, times(1)).getRecipeById(recipeId);
+        verify(recipeDao, times(1)).getRecipeVersion(recipeId);
         verify(recipeDao, times(1)).updateRecipe(eq(recipeId), any(Recipe.class));
     }
 
@@ -495,8 +693,10 @@ public class RecipeServiceTest {
         updatedRecipe.setTitle("Updated Title");
         updatedRecipe.setDescription("Updated Description");
 
-        when(recipeDao.getRecipeById(recipeId)).thenReturn(existingRecipe);
+        when(recipeDao.getRecipeVersion(recipeId)).thenReturn(0L);
         when(recipeDao.updateRecipe(eq(recipeId), any(Recipe.class))).thenReturn(updatedRecipe);
+        when(recipeDao.findRecipeDtoById(recipeId)).thenReturn(new RecipeDto(recipeId, "Updated Title",
+                "Updated Description", new ArrayList<>(), new ArrayList<>(), null, 1L));
 
         RecipeDto updatedRecipeDto = recipeService.updateRecipe(recipeId, recipeDto);
 
@@ -506,13 +706,13 @@ public class RecipeServiceTest {
         assertEquals("Updated Description", updatedRecipeDto.getDescription());
         assertNull(updatedRecipeDto.getCuisine());
 
-        verify(recipeDao, times(1)).getRecipeById(recipeId);
+        verify(recipeDao, times(1)).getRecipeVersion(recipeId);
         verify(recipeDao, times(1)).updateRecipe(eq(recipeId), any(Recipe.class));
     }
 
     @Test
     public void testGetAllRecipes_EmptyList() {
-        when(recipeDao.getAllRecipes()).thenReturn(new ArrayList<>());
+        when(recipeDao.findAllRecipeDtos(RecipeFields.ALL)).thenReturn(new ArrayList<>());
 
         List<RecipeDto> recipeDtos = recipeService.getAllRecipes();
 
@@ -527,7 +727,6 @@ public class RecipeServiceTest {
         recipe.setId(1L);
 
         when(recipeDao.createRecipe(any())).thenReturn(recipe);
-        doNothing().when(cacheService).updateCache(any(), any());
 
         RecipeDto createdRecipe = recipeService.createRecipe(recipeDto);
 
@@ -539,57 +738,204 @@ public class RecipeServiceTest {
     }
 
     @Test
-    public void testGetAllRecipes_WithNullIngredientsReviewsAndCuisine() {
-        Recipe recipe = new Recipe();
-        recipe.setId(1L);
-        recipe.setTitle("Test Recipe");
-        recipe.setDescription("Description");
-        recipe.setIngredients(null);
-        recipe.setReviews(null);
-        recipe.setCuisine(null);
+    public void testGetEncodedRecipesByCuisineName() {
+        String cuisineName = "Italian";
+        when(recipeDao.findRecipeDtosByCuisineIds(List.of(1L), RecipeFields.ALL)).thenReturn(
+                List.of(new RecipeDto(1L, "Pasta", null, new ArrayList<>(), new ArrayList<>(), null)));
+        when(cacheService.getOrLoadEncoded(eq("italian"), any(), any(), eq(true))).thenAnswer(invocation -> {
+            List<RecipeDto> recipes = invocation.<Supplier<List<RecipeDto>>>getArgument(1).get();
+            return EncodedResponse.of(invocation.<Function<List<RecipeDto>, byte[]>>getArgument(2).apply(recipes));
+        });
 
-        List<Recipe> recipes = List.of(recipe);
-        when(recipeDao.getAllRecipes()).thenReturn(recipes);
+        EncodedResponse response = recipeService.getEncodedRecipesByCuisineName(cuisineName, true);
 
-        List<RecipeDto> recipeDtos = recipeService.getAllRecipes();
+        String json = new String(response.getJson(), StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("[{"));
+        assertTrue(json.contains("\"title\":\"Pasta\""));
+    }
 
-        assertNotNull(recipeDtos);
-        assertEquals(1, recipeDtos.size());
+    @Test
+    public void testGetRecipesPage_ReturnsCursorWhenMoreRows() {
+        List<Recipe> rows = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            Recipe recipe = new Recipe();
+            recipe.setId(id);
+            rows.add(recipe);
+        }
+        when(recipeDao.getRecipesAfter(0L, 3)).thenReturn(rows);
 
-        RecipeDto recipeDto = recipeDtos.get(0);
-        assertNotNull(recipeDto);
-        assertEquals(1L, recipeDto.getId());
-        assertEquals("Test Recipe", recipeDto.getTitle());
-        assertEquals("Description", recipeDto.getDescription());
-        assertNotNull(recipeDto.getIngredients());
-        assertTrue(recipeDto.getIngredients().isEmpty());
-        assertNotNull(recipeDto.getReviews());
-        assertTrue(recipeDto.getReviews().isEmpty());
-        assertNull(recipeDto.getCuisine());
+        PageDto<RecipeDto> page = recipeService.getRecipesPage(null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(2L, page.getItems().get(1).getId());
+        assertNotNull(page.getNextCursor());
+        assertEquals(2L, PageCursor.decode(page.getNextCursor()));
     }
 
     @Test
-    public void testGetRecipeById_WithNullIngredientsReviewsAndCuisine() {
+    public void testGetRecipesPage_LastPageHasNoCursor() {
         Recipe recipe = new Recipe();
-        recipe.setId(1L);
-        recipe.setTitle("Test Recipe");
-        recipe.setDescription("Description");
-        recipe.setIngredients(null);
-        recipe.setReviews(null);
-        recipe.setCuisine(null);
+        recipe.setId(5L);
+        when(recipeDao.getRecipesAfter(4L, PageCursor.DEFAULT_LIMIT + 1)).thenReturn(List.of(recipe));
 
-        when(recipeDao.getRecipeById(1L)).thenReturn(recipe);
+        PageDto<RecipeDto> page = recipeService.getRecipesPage(PageCursor.encode(4L), null);
 
-        RecipeDto recipeDto = recipeService.getRecipeById(1L);
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
 
-        assertNotNull(recipeDto);
-        assertEquals(1L, recipeDto.getId());
-        assertEquals("Test Recipe", recipeDto.getTitle());
-        assertEquals("Description", recipeDto.getDescription());
-        assertNotNull(recipeDto.getIngredients());
-        assertTrue(recipeDto.getIngredients().isEmpty());
-        assertNotNull(recipeDto.getReviews());
-        assertTrue(recipeDto.getReviews().isEmpty());
-        assertNull(recipeDto.getCuisine());
-    }
-}
\ No newline at end of file
+    @Test
+    public void testGetRecipesPage_PartialFieldsReadProjectionWithoutRatings() {
+        RecipeFields fields = RecipeFields.parse("id,title", "");
+        when(recipeDao.getRecipeIdsAfter(0L, 3)).thenReturn(List.of(1L, 2L, 3L));
+        when(recipeDao.findRecipeDtosByIds(List.of(1L, 2L), fields)).thenReturn(List.of(
+                new RecipeDto(1L, "Pasta", null, null, null, null),
+                new RecipeDto(2L, "Soup", null, null, null, null)));
+
+        PageDto<RecipeDto> page = recipeService.getRecipesPage(null, 2, fields);
+
+        assertEquals(List.of(1L, 2L), page.getItems().stream().map(RecipeDto::getId).toList());
+        assertEquals(2L, PageCursor.decode(page.getNextCursor()));
+        verify(recipeDao, never()).getRecipesAfter(anyLong(), anyInt());
+        verifyNoInteractions(ratingService);
+    }
+
+    @Test
+    public void testGetRecipeById_PartialFieldsUseCachedFullRecipeOrProjection() {
+        RecipeFields fields = RecipeFields.parse(null, "ingredients");
+        RecipeDto cached = new RecipeDto(1L, "Pasta", null, new ArrayList<>(), new ArrayList<>(), null);
+        when(cacheService.getCachedRecipe(1L)).thenReturn(cached);
+        when(recipeDao.findRecipeDtosByIds(List.of(2L), fields)).thenReturn(List.of(
+                new RecipeDto(2L, "Soup", null, new ArrayList<>(), null, null)));
+
+        assertSame(cached, recipeService.getRecipeById(1L, fields));
+        assertEquals(2L, recipeService.getRecipeById(2L, fields).getId());
+        assertNull(recipeService.getRecipeById(3L, fields));
+
+        verify(cacheService, never()).getOrLoadRecipe(any(), any());
+        verify(recipeDao, never()).findRecipeDtoById(any());
+    }
+
+    @Test
+    public void testPatchRecipe_SetsOnlyGivenFieldsWithoutReadingRecipe() {
+        when(cuisineDictionary.name(2L)).thenReturn("italian");
+        when(recipeDao.patchRecipe(1L, null, "New title", null, 2L)).thenReturn(4L);
+        when(recipeDao.getExistingIngredientIds(any())).thenReturn(Set.of(5L));
+        RecipePatchDto patch = new RecipePatchDto("New title", null, 2L, List.of(5L, 5L), List.of(6L));
+
+        assertEquals(4L, recipeService.patchRecipe(1L, patch, null));
+
+        verify(recipeDao, never()).getRecipeById(any());
+        verify(recipeDao, never()).updateRecipe(any(), any());
+        verify(recipeDao).linkIngredients(1L, Set.of(5L));
+        verify(recipeDao).unlinkIngredients(1L, Set.of(6L));
+        verify(versionService).recipeChanged(1L);
+        verify(entityCacheService).recipeChanged(1L);
+        verify(cacheService).evictRecipe(1L);
+        verify(cacheService).invalidateTag("cuisine:2");
+        verify(cacheService).evictEmptyResult("italian");
+    }
+
+    @Test
+    public void testPatchRecipe_MissingRecipeChangesNothing() {
+        when(recipeDao.patchRecipe(1L, null, null, "Text", null)).thenReturn(null);
+
+        assertNull(recipeService.patchRecipe(1L, new RecipePatchDto(null, "Text", null, List.of(5L), null), null));
+
+        verify(recipeDao, never()).linkIngredients(any(), any());
+        verify(recipeDao, never()).getExistingIngredientIds(any());
+        verifyNoInteractions(versionService);
+        verify(cacheService, never()).evictRecipe(any());
+    }
+
+    @Test
+    public void testPatchRecipe_RejectsInvalidPatch() {
+        when(recipeDao.patchRecipe(eq(1L), any(), any(), any(), any())).thenReturn(2L);
+        when(recipeDao.getExistingIngredientIds(any())).thenReturn(Set.of());
+
+        assertThrows(CustomException.class, () -> recipeService.patchRecipe(1L, null, null));
+        assertThrows(CustomException.class,
+                () -> recipeService.patchRecipe(1L, new RecipePatchDto(" ", null, null, null, null), null));
+        assertThrows(CustomException.class,
+                () -> recipeService.patchRecipe(1L, new RecipePatchDto(null, null, 9L, null, null), null));
+        assertThrows(CustomException.class, () -> recipeService.patchRecipe(1L,
+                new RecipePatchDto(null, null, null, List.of(5L), List.of(5L)), null));
+        assertThrows(CustomException.class, () -> recipeService.patchRecipe(1L,
+                new RecipePatchDto(null, null, null, List.of(7L), null), null));
+
+        verify(recipeDao, never()).linkIngredients(any(), any());
+        verifyNoInteractions(versionService);
+    }
+
+    @Test
+    public void testPatchRecipe_StaleVersionFailsPrecondition() {
+        when(recipeDao.patchRecipe(1L, 3L, "New title", null, null)).thenReturn(null);
+        when(recipeDao.getRecipeVersion(1L)).thenReturn(5L);
+        RecipePatchDto patch = new RecipePatchDto("New title", null, null, List.of(5L), null);
+
+        assertThrows(PreconditionFailedException.class,
+                () -> recipeService.patchRecipe(1L, patch, 3L));
+
+        verify(recipeDao, never()).linkIngredients(any(), any());
+        verifyNoInteractions(versionService);
+        verify(cacheService, never()).evictRecipe(any());
+    }
+
+    @Test
+    public void testPatchRecipe_MissingRecipeWithExpectedVersion() {
+        when(recipeDao.patchRecipe(1L, 3L, "New title", null, null)).thenReturn(null);
+        when(recipeDao.getRecipeVersion(1L)).thenReturn(null);
+
+        assertNull(recipeService.patchRecipe(1L, new RecipePatchDto("New title", null, null, null, null), 3L));
+        verifyNoInteractions(versionService);
+    }
+
+    @Test
+    public void testGetRecipesPage_LimitBoundedServerSide() {
+        when(recipeDao.getRecipesAfter(anyLong(), anyInt())).thenReturn(List.of());
+
+        recipeService.getRecipesPage(null, 100_000);
+
+        verify(recipeDao).getRecipesAfter(0L, PageCursor.MAX_LIMIT + 1);
+    }
+
+    @Test
+    public void testGetRecipesPage_InvalidCursor() {
+        assertThrows(CustomException.class, () -> recipeService.getRecipesPage("not-a-cursor!", 10));
+        assertThrows(CustomException.class, () -> recipeService.getRecipesPage(null, 0));
+        verify(recipeDao, never()).getRecipesAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    public void testStreamAllRecipes_ReadsInChunksAndDetaches() {
+        List<Recipe> fullChunk = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            Recipe recipe = new Recipe();
+            recipe.setId(id);
+            fullChunk.add(recipe);
+        }
+        Recipe last = new Recipe();
+        last.setId(201L);
+        when(recipeDao.getRecipesAfter(0L, 200)).thenReturn(fullChunk);
+        when(recipeDao.getRecipesAfter(200L, 200)).thenReturn(List.of(last));
+        List<Long> streamed = new ArrayList<>();
+
+        recipeService.streamAllRecipes(recipe -> streamed.add(recipe.getId()));
+
+        assertEquals(201, streamed.size());
+        assertEquals(201L, streamed.get(200));
+        verify(recipeDao, times(2)).getRecipesAfter(anyLong(), eq(200));
+        verify(recipeDao, times(2)).detachAll();
+    }
+
+    @Test
+    public void testStreamAllRecipes_EmptyCatalog() {
+        when(recipeDao.getRecipesAfter(0L, 200)).thenReturn(List.of());
+        List<RecipeDto> streamed = new ArrayList<>();
+
+        recipeService.streamAllRecipes(streamed::add);
+
+        assertTrue(streamed.isEmpty());
+        verify(recipeDao, times(1)).getRecipesAfter(anyLong(), anyInt());
+    }
+}
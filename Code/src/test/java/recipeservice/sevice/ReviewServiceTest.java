@@ -6,9 +6,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import recipeservice.dao.ReviewDao;
+import recipeservice.dao.ReviewUpdate;
+import recipeservice.dto.PageDto;
 import recipeservice.dto.ReviewDto;
 import recipeservice.model.Review;
 import recipeservice.model.Recipe;
+import recipeservice.exception.CustomException;
+import recipeservice.service.CacheService;
+import recipeservice.service.VersionService;
+import recipeservice.service.RatingService;
+import recipeservice.service.PageCursor;
 import recipeservice.service.ReviewService;
 
 import java.util.Arrays;
@@ -24,6 +31,15 @@ public class ReviewServiceTest {
     @Mock
     private ReviewDao reviewDao;
 
+    @Mock
+    private CacheService cacheService;
+
+    @Mock
+    private VersionService versionService;
+
+    @Mock
+    private RatingService ratingService;
+
     @InjectMocks
     private ReviewService reviewService;
 
@@ -102,6 +118,26 @@ public class ReviewServiceTest {
         assertEquals(5, createdReview.getRating());
         assertEquals(1L, createdReview.getRecipe().getId());
         verify(reviewDao, times(1)).createReview(any(Review.class));
+        verify(cacheService, times(1)).evictRecipe(1L);
+        verify(ratingService, times(1)).reviewAdded(1L, 5);
+        verify(ratingService, times(1)).endReviewChange();
+    }
+
+    @Test
+    public void testUpdateReview_MovesRating() {
+        Recipe recipe = new Recipe();
+        recipe.setId(1L);
+        Review updated = new Review();
+        updated.setRating(4);
+        updated.setRecipe(recipe);
+        when(reviewDao.updateReview(eq(1L), any(Review.class))).thenReturn(new ReviewUpdate(updated, 2));
+
+        reviewService.updateReview(1L, updated);
+
+        verify(ratingService, times(1)).reviewRemoved(1L, 2);
+        verify(ratingService, times(1)).reviewAdded(1L, 4);
+        // Прежняя оценка приходит из транзакции обновления, отдельного чтения нет
+        verify(reviewDao, never()).getReviewById(any());
     }
 
     @Test
@@ -115,7 +151,7 @@ public class ReviewServiceTest {
         review.setRating(5);
         review.setRecipe(recipe);
 
-        when(reviewDao.updateReview(eq(1L), any(Review.class))).thenReturn(review);
+        when(reviewDao.updateReview(eq(1L), any(Review.class))).thenReturn(new ReviewUpdate(review, 5));
 
         Review updatedReview = reviewService.updateReview(1L, review);
 
@@ -124,6 +160,7 @@ public class ReviewServiceTest {
         assertEquals(5, updatedReview.getRating());
         assertEquals(1L, updatedReview.getRecipe().getId());
         verify(reviewDao, times(1)).updateReview(eq(1L), any(Review.class));
+        verify(cacheService, times(1)).evictRecipe(1L);
     }
 
     @Test
@@ -133,6 +170,31 @@ public class ReviewServiceTest {
         verify(reviewDao, times(1)).deleteReview(1L);
     }
 
+    @Test
+    public void testDeleteReview_EvictsRecipe() {
+        Recipe recipe = new Recipe();
+        recipe.setId(7L);
+        Review review = new Review();
+        review.setId(1L);
+        review.setRecipe(recipe);
+        when(reviewDao.deleteReview(1L)).thenReturn(review);
+
+        reviewService.deleteReview(1L);
+
+        verify(cacheService, times(1)).evictRecipe(7L);
+        verify(versionService, times(1)).recipeChanged(7L);
+        verify(ratingService, times(1)).reviewRemoved(7L, null);
+    }
+
+    @Test
+    public void testUpdateReview_NotFound() {
+        when(reviewDao.updateReview(eq(1L), any(Review.class))).thenReturn(null);
+
+        assertThrows(CustomException.class, () -> reviewService.updateReview(1L, new Review()));
+        verify(cacheService, never()).evictRecipe(any());
+        verify(ratingService, times(1)).endReviewChange();
+    }
+
     @Test
     public void testGetReviewById_NotFound() {
         when(reviewDao.getReviewById(1L)).thenReturn(null);
@@ -153,7 +215,7 @@ public class ReviewServiceTest {
         recipe.setId(1L);
         review.setRecipe(recipe);
 
-        when(reviewDao.updateReview(eq(1L), any(Review.class))).thenReturn(review);
+        when(reviewDao.updateReview(eq(1L), any(Review.class))).thenReturn(new ReviewUpdate(review, 5));
 
         Review updatedReview = reviewService.updateReview(1L, review);
 
@@ -163,4 +225,23 @@ public class ReviewServiceTest {
         assertEquals(1L, updatedReview.getRecipe().getId());
         verify(reviewDao, times(1)).updateReview(eq(1L), any(Review.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetReviewsPage() {
+        Recipe recipe = new Recipe();
+        recipe.setId(1L);
+        Review first = new Review();
+        first.setId(11L);
+        first.setRecipe(recipe);
+        Review second = new Review();
+        second.setId(12L);
+        second.setRecipe(recipe);
+        when(reviewDao.getReviewsAfter(10L, 2)).thenReturn(Arrays.asList(first, second));
+
+        PageDto<ReviewDto> page = reviewService.getReviewsPage(PageCursor.encode(10L), 1);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals(11L, page.getItems().get(0).getId());
+        assertEquals(11L, PageCursor.decode(page.getNextCursor()));
+    }
+}
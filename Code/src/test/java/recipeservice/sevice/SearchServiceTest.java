@@ -0,0 +1,161 @@
+package recipeservice.sevice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import recipeservice.cache.InvalidationBus;
+import recipeservice.cache.LoopbackTransport;
+import recipeservice.dao.RecipeDao;
+import recipeservice.dto.IngredientDto;
+import recipeservice.dto.PageDto;
+import recipeservice.dto.RecipeDto;
+import recipeservice.dto.SearchHitDto;
+import recipeservice.exception.CustomException;
+import recipeservice.service.SearchService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class SearchServiceTest {
+
+    @Mock
+    private RecipeDao recipeDao;
+
+    private SearchService searchService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        searchService = new SearchService(recipeDao);
+    }
+
+    private static RecipeDto recipe(long id, String title, String ingredient) {
+        return new RecipeDto(id, title, "Description",
+                List.of(new IngredientDto(1L, ingredient)), new ArrayList<>(), null);
+    }
+
+    @Test
+    public void testRebuild_IndexesCatalogInChunks() {
+        when(recipeDao.getRecipeIdsAfter(0L, 500)).thenReturn(List.of(1L, 2L));
+        when(recipeDao.getRecipeIdsAfter(2L, 500)).thenReturn(List.of());
+        when(recipeDao.findRecipeDtosWithoutReviews(List.of(1L, 2L))).thenReturn(
+                List.of(recipe(1L, "Borscht", "beet"), recipe(2L, "Salad", "cucumber")));
+
+        searchService.rebuild();
+
+        assertEquals(2, searchService.getIndexedCount());
+        PageDto<SearchHitDto> page = searchService.search("beets", null, null);
+        assertEquals(1, page.getItems().size());
+        assertEquals(1L, page.getItems().get(0).getId());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testSearch_PagesWithCursor() {
+        List<RecipeDto> recipes = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            recipes.add(recipe(id, "Soup " + id, "water"));
+        }
+        when(recipeDao.findRecipeDtosWithoutReviews(List.of(1L, 2L, 3L))).thenReturn(recipes);
+        searchService.recipesChanged(List.of(1L, 2L, 3L));
+
+        PageDto<SearchHitDto> first = searchService.search("soup", null, 2);
+        PageDto<SearchHitDto> second = searchService.search("soup", first.getNextCursor(), 2);
+
+        assertEquals(2, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+        assertEquals(List.of(3L), second.getItems().stream().map(SearchHitDto::getId).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    public void testRecipeChanged_RemovesDeletedRecipe() {
+        when(recipeDao.findRecipeDtosWithoutReviews(List.of(1L)))
+                .thenReturn(List.of(recipe(1L, "Soup", "water")))
+                .thenReturn(List.of());
+        searchService.recipeChanged(1L);
+        searchService.recipeChanged(1L);
+
+        assertTrue(searchService.search("soup", null, null).getItems().isEmpty());
+        assertEquals(0, searchService.getIndexedCount());
+    }
+
+    @Test
+    public void testSearch_BlankQueryRejected() {
+        assertThrows(CustomException.class, () -> searchService.search(" ", null, null));
+    }
+
+    @Test
+    public void testPeerChange_ReindexesRecipe() {
+        LoopbackTransport transport = new LoopbackTransport();
+        InvalidationBus local = new InvalidationBus(transport, 0, 1);
+        InvalidationBus peer = new InvalidationBus(transport, 0, 1);
+        SearchService peerService = new SearchService(recipeDao);
+        searchService.bindTo(local);
+        peerService.bindTo(peer);
+        when(recipeDao.findRecipeDtosWithoutReviews(List.of(1L)))
+                .thenReturn(List.of(recipe(1L, "Soup", "water")));
+
+        searchService.recipeChanged(1L);
+
+        assertEquals(1, peerService.search("soup", null, null).getItems().size());
+        verify(recipeDao, times(2)).findRecipeDtosWithoutReviews(List.of(1L));
+        verify(recipeDao, never()).getRecipeIdsAfter(anyLong(), anyInt());
+        local.close();
+        peer.close();
+    }
+
+    @Test
+    public void testIngredientChanged_ReindexesRecipesInBackground() {
+        when(recipeDao.findRecipeDtosWithoutReviews(List.of(1L, 2L))).thenReturn(
+                List.of(recipe(1L, "Soup", "beet"), recipe(2L, "Salad", "beet")));
+        searchService.recipesChanged(List.of(1L, 2L));
+        when(recipeDao.findRecipeDtosWithoutReviews(List.of(1L, 2L, 3L))).thenReturn(
+                List.of(recipe(1L, "Soup", "beetroot"), recipe(2L, "Salad", "beetroot")));
+
+        // Рецепт 3 индексу неизвестен, его передает удаление
+        searchService.ingredientChanged(1L, List.of(3L));
+
+        verify(recipeDao, timeout(5000)).findRecipeDtosWithoutReviews(List.of(1L, 2L, 3L));
+        awaitHits("beetroot", 2);
+    }
+
+    @Test
+    public void testPeerIngredientChange_ResolvesRecipesFromOwnIndex() {
+        LoopbackTransport transport = new LoopbackTransport();
+        InvalidationBus local = new InvalidationBus(transport, 0, 1);
+        InvalidationBus peer = new InvalidationBus(transport, 0, 1);
+        SearchService peerService = new SearchService(recipeDao);
+        searchService.bindTo(local);
+        peerService.bindTo(peer);
+        when(recipeDao.findRecipeDtosWithoutReviews(List.of(1L)))
+                .thenReturn(List.of(recipe(1L, "Soup", "beet")))
+                .thenReturn(List.of(recipe(1L, "Soup", "beetroot")));
+        peerService.recipesChanged(List.of(1L));
+
+        searchService.ingredientChanged(1L, List.of());
+
+        // Одно сообщение: пир сам находит рецепт 1 в своем индексе
+        awaitHits(peerService, "beetroot", 1);
+        local.close();
+        peer.close();
+    }
+
+    private void awaitHits(String query, int expected) {
+        awaitHits(searchService, query, expected);
+    }
+
+    private static void awaitHits(SearchService service, String query, int expected) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (service.search(query, null, null).getItems().size() != expected) {
+            assertTrue(System.currentTimeMillis() < deadline, "Переиндексация не завершилась");
+            Thread.onSpinWait();
+        }
+    }
+}
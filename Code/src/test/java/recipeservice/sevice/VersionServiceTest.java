@@ -0,0 +1,149 @@
+package recipeservice.sevice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import recipeservice.cache.InvalidationBus;
+import recipeservice.cache.LoopbackTransport;
+import recipeservice.service.VersionService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VersionServiceTest {
+
+    private VersionService versionService;
+
+    @BeforeEach
+    public void setUp() {
+        versionService = new VersionService();
+    }
+
+    @Test
+    public void testRecipeChanged_ChangesRecipeAndCollectionTags() {
+        String recipe = versionService.recipeETag(1L);
+        String otherRecipe = versionService.recipeETag(2L);
+        String recipes = versionService.recipesETag();
+        String cuisines = versionService.cuisinesETag();
+
+        versionService.recipeChanged(1L);
+
+        assertNotEquals(recipe, versionService.recipeETag(1L));
+        assertEquals(otherRecipe, versionService.recipeETag(2L));
+        assertNotEquals(recipes, versionService.recipesETag());
+        assertEquals(cuisines, versionService.cuisinesETag());
+    }
+
+    @Test
+    public void testCuisineChanged_ChangesEmbeddingRecipeTags() {
+        String recipe = versionService.recipeETag(1L);
+        String otherCuisine = versionService.cuisineETag(2L);
+        String cuisines = versionService.cuisinesETag();
+
+        versionService.cuisineChanged(1L);
+
+        assertNotEquals(recipe, versionService.recipeETag(1L));
+        assertNotEquals(cuisines, versionService.cuisinesETag());
+        assertEquals(otherCuisine, versionService.cuisineETag(2L));
+    }
+
+    @Test
+    public void testIngredientChanged_LeavesCuisineTagsAlone() {
+        String recipes = versionService.recipesETag();
+        String cuisines = versionService.cuisinesETag();
+
+        versionService.ingredientChanged(1L);
+
+        assertNotEquals(recipes, versionService.recipesETag());
+        assertEquals(cuisines, versionService.cuisinesETag());
+    }
+
+    @Test
+    public void testConcurrentChanges_VersionNeverGoesBack() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<Boolean>> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long id = t;
+            readers.add(executor.submit(() -> {
+                long seen = 0;
+                while (writing.get()) {
+                    long version = version(versionService.recipesETag());
+                    if (version < seen) {
+                        return false;
+                    }
+                    seen = version;
+                }
+                return true;
+            }));
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    versionService.recipeChanged(id);
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        writing.set(false);
+        for (Future<Boolean> reader : readers) {
+            assertTrue(reader.get());
+        }
+        executor.shutdown();
+
+        // Общая версия рецептов равна последней выданной, даже если ее записали не последней
+        assertEquals(200_000, version(versionService.recipesETag()));
+    }
+
+    private static long version(String etag) {
+        return Long.parseLong(etag.substring(etag.lastIndexOf('-') + 1, etag.length() - 1));
+    }
+
+    @Test
+    public void testETag_IsStrongAndStable() {
+        String etag = versionService.recipeETag(1L);
+
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertEquals(etag, versionService.recipeETag(1L));
+    }
+
+    @Test
+    public void testETag_DiffersBetweenInstances() {
+        assertNotEquals(versionService.recipesETag(), new VersionService().recipesETag());
+    }
+
+    @Test
+    public void testBindTo_PeerWritesChangeLocalTags() {
+        LoopbackTransport transport = new LoopbackTransport();
+        InvalidationBus localBus = new InvalidationBus(transport, 60_000, 1000);
+        InvalidationBus peerBus = new InvalidationBus(transport, 60_000, 1000);
+        VersionService peer = new VersionService();
+        versionService.bindTo(localBus);
+        peer.bindTo(peerBus);
+        String recipe = versionService.recipeETag(1L);
+
+        peer.recipeChanged(1L);
+        peerBus.flush();
+
+        assertNotEquals(recipe, versionService.recipeETag(1L));
+    }
+
+    @Test
+    public void testRowVersion_ReadableFromEtagOfAnyInstance() {
+        VersionService otherInstance = new VersionService();
+        String etag = VersionService.withRowVersion(otherInstance.recipeETag(12L), 7L);
+
+        assertNotEquals(etag, VersionService.withRowVersion(versionService.recipeETag(12L), 7L));
+        assertEquals(7L, VersionService.rowVersion(etag, 12L));
+        assertEquals(7L, VersionService.rowVersion("\"bogus\", " + etag, 12L));
+        assertNull(VersionService.rowVersion(etag, 1L));
+        assertNull(VersionService.rowVersion(versionService.recipeETag(12L), 12L));
+        assertNull(VersionService.rowVersion("W/" + etag, 12L));
+    }
+}